@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import org.spockframework.runtime.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures evaluation of a condition like {@code list.size() == expected}, recorded
+ * the way the condition rewriter records it, for both passing and failing conditions.
+ * The failing case includes rendering the condition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionBenchmark {
+  private final ValueRecorder recorder = new ValueRecorder();
+  private final ErrorCollector errorCollector = new ErrorCollector(false);
+  private final List<Integer> list = Arrays.asList(1, 2, 3);
+
+  @Benchmark
+  public void verifyPassingCondition() {
+    verify(3);
+  }
+
+  @Benchmark
+  public String verifyFailingCondition() {
+    try {
+      verify(4);
+      throw new AssertionError("condition should have failed");
+    } catch (ConditionNotSatisfiedError e) {
+      return e.getMessage();
+    }
+  }
+
+  private void verify(int expected) {
+    recorder.reset();
+    Object condition = recorder.record(recorder.startRecordingValue(3),
+        recorder.record(recorder.startRecordingValue(1), ((List<?>) recorder.record(recorder.startRecordingValue(0), list)).size())
+            == recorder.record(recorder.startRecordingValue(2), expected));
+    SpockRuntime.verifyCondition(errorCollector, recorder, "list.size() == expected", 1, 1, null, condition);
+  }
+}
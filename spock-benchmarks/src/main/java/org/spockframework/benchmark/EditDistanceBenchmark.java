@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import org.spockframework.runtime.ExpressionInfoValueRenderer;
+import org.spockframework.runtime.condition.EditDistance;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures computing the edit distance, and the edit path, of two strings
+ * that differ in a few places, as when rendering a failed string comparison.
+ * Longer strings aren't measured, as a failed comparison only computes their
+ * edit distance if the product of their lengths is at most
+ * {@link ExpressionInfoValueRenderer#MAX_EDIT_DISTANCE_MEMORY}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditDistanceBenchmark {
+  // 226 is the longest length for which the renderer computes the edit distance
+  @Param({"20", "100", "226"})
+  public int length;
+
+  private String seq1;
+  private String seq2;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('a' + random.nextInt(26)));
+    }
+    seq1 = builder.toString();
+    for (int i = 0; i < length; i += 20) {
+      builder.setCharAt(i, '*');
+    }
+    seq2 = builder.toString();
+  }
+
+  @Benchmark
+  public int distance() {
+    return new EditDistance(seq1, seq2).getDistance();
+  }
+
+  @Benchmark
+  public Object path() {
+    return new EditDistance(seq1, seq2).calculatePath();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import spock.util.EmbeddedSpecCompiler;
+import spock.util.EmbeddedSpecRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the runner's overhead per iteration of a data-driven feature
+ * whose iterations do (next to) nothing. Running a spec also involves
+ * a fixed cost (creating the runner, running the spec's fixtures), which
+ * {@link #runWithoutIterations} measures on its own. Subtract its score
+ * from that of {@link #runIterations} to get the overhead per iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterationOverheadBenchmark {
+  private static final int ITERATIONS = 1000;
+
+  @Param({"false", "true"})
+  public boolean unroll;
+
+  private Class<?> spec;
+  private Class<?> emptySpec;
+
+  @Setup
+  public void setup() {
+    spec = compileSpec("(0..<" + ITERATIONS + ")");
+    emptySpec = compileSpec("[]");
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ITERATIONS)
+  public Object runIterations() {
+    EmbeddedSpecRunner runner = new EmbeddedSpecRunner();
+    return runner.runClass(spec);
+  }
+
+  // same number of operations as runIterations, so that the scores can be subtracted
+  @Benchmark
+  @OperationsPerInvocation(ITERATIONS)
+  public Object runWithoutIterations() {
+    EmbeddedSpecRunner runner = new EmbeddedSpecRunner();
+    return runner.runClass(emptySpec);
+  }
+
+  private Class<?> compileSpec(String dataProvider) {
+    return (Class<?>) new EmbeddedSpecCompiler().compileWithImports(
+        "class IterationSpec extends Specification {\n" +
+        (unroll ? "  @Unroll\n" : "") +
+        "  def \"iteration #x\"() {\n" +
+        "    expect: x >= 0\n" +
+        "    where: x << " + dataProvider + "\n" +
+        "  }\n" +
+        "}").get(0);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import org.spockframework.util.JsonWriter;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures writing a report-log-like structure with {@link JsonWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWriterBenchmark {
+  private Map<String, Object> spec;
+
+  @Setup
+  public void setup() {
+    List<Object> features = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Map<String, Object> feature = new LinkedHashMap<>();
+      feature.put("name", "feature \"" + i + "\" with\ttabs and unicode é");
+      feature.put("start", 1528000000000L + i);
+      feature.put("end", 1528000000100L + i);
+      feature.put("result", i % 10 == 0 ? "failed" : "passed");
+      feature.put("tags", Arrays.asList("slow", "db"));
+      features.add(feature);
+    }
+    spec = new LinkedHashMap<>();
+    spec.put("package", "org.spockframework.benchmark");
+    spec.put("name", "ASpec");
+    spec.put("features", features);
+  }
+
+  @Benchmark
+  public String write() throws IOException {
+    StringWriter out = new StringWriter();
+    new JsonWriter(out).write(spec);
+    return out.toString();
+  }
+
+  @Benchmark
+  public String writePretty() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter(out);
+    writer.setPrettyPrint(true);
+    writer.write(spec);
+    return out.toString();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import org.spockframework.mock.*;
+import spock.mock.DetachedMockFactory;
+
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures creation of class based mocks, both when the mock class has already
+ * been generated (cached) and when it has to be generated for a new class loader (cold).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MockCreationBenchmark {
+  private final DetachedMockFactory factory = new DetachedMockFactory();
+  private final MockUtil mockUtil = new MockUtil();
+
+  @Benchmark
+  public Object createCachedMock() {
+    return factory.Mock(ArrayList.class);
+  }
+
+  @Benchmark
+  public Object createColdMock() {
+    // generated mock classes are cached per class loader
+    ClassLoader classLoader = new URLClassLoader(new URL[0], ArrayList.class.getClassLoader());
+    return mockUtil.createDetachedMock("list", ArrayList.class, MockNature.MOCK, MockImplementation.JAVA,
+        Collections.<String, Object>emptyMap(), classLoader);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.benchmark;
+
+import org.spockframework.mock.*;
+import org.spockframework.mock.runtime.*;
+import spock.mock.DetachedMockFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures dispatching of mock invocations, both directly through
+ * {@link MockController#handle} and through a detached Java mock.
+ * Run with {@code -Pjmh.profilers=gc} to see allocations per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MockDispatchBenchmark {
+  @Param({"1", "100"})
+  public int interactionCount;
+
+  private Object target;
+  private MockController controller;
+  private IMockInvocation firstInvocation;
+  private IMockInvocation lastInvocation;
+  private List<?> detachedMock;
+
+  @Setup
+  public void setup() throws Exception {
+    target = new Object();
+    IMockObject mockObject = new MockObject("list", List.class, target, true, false,
+        ZeroOrNullResponse.INSTANCE, null, null);
+    IMockMethod getMethod = new StaticMockMethod(List.class.getMethod("get", int.class), List.class);
+
+    firstInvocation = new MockInvocation(mockObject, getMethod, Arrays.<Object>asList(0), null);
+    lastInvocation = new MockInvocation(mockObject, getMethod, Arrays.<Object>asList(interactionCount - 1), null);
+
+    detachedMock = new DetachedMockFactory().Mock(ArrayList.class);
+  }
+
+  // interactions retain the invocations they accept, so start every iteration with fresh ones
+  // lest the measurements include the cost of retaining ever more invocations
+  @Setup(Level.Iteration)
+  public void setupController() {
+    controller = new MockController();
+    for (int i = 0; i < interactionCount; i++) {
+      controller.addInteraction(new InteractionBuilder(i, 0, "list.get(" + i + ") >> " + i)
+          .setRangeCount(0, Integer.MAX_VALUE, true)
+          .addEqualTarget(target)
+          .addEqualMethodName("get")
+          .setArgListKind(true)
+          .addEqualArg(i)
+          .addConstantResponse(i)
+          .build());
+    }
+  }
+
+  @Benchmark
+  public Object handleFirstInteraction() {
+    return controller.handle(firstInvocation);
+  }
+
+  @Benchmark
+  public Object handleLastInteraction() {
+    return controller.handle(lastInvocation);
+  }
+
+  @Benchmark
+  public Object invokeDetachedMock() {
+    return detachedMock.get(0);
+  }
+}
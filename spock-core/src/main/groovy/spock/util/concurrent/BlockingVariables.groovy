@@ -14,8 +14,10 @@
 
 package spock.util.concurrent
 
+import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 
+import org.spockframework.util.Beta
 import org.spockframework.util.ThreadSafe
 import org.spockframework.util.TimeUtil
 
@@ -50,10 +52,21 @@ import org.spockframework.util.TimeUtil
  * machine?.shutdown()
  * </pre>
  *
+ * <p>Waiting for several variables doesn't have to block a thread per variable.
+ * {@link #allOf} and {@link #anyOf} return a future that completes once all (or any)
+ * of the given variables have been set, or fails with a {@link VariablesTimeoutError}
+ * that names the variables that haven't been set in time:
+ *
+ * <pre>
+ * then:
+ * vars.allOf("result", "duration").get() == [result: WorkResult.OK, duration: 3]
+ * </pre>
+ *
  * @author Peter Niederwieser
  */
 @ThreadSafe
 class BlockingVariables {
+  private final double timeout
   private final BlockingVariablesImpl impl
 
   /**
@@ -69,6 +82,7 @@ class BlockingVariables {
    * @param timeout the timeout (in seconds) for reading a variable's value.
    */
   BlockingVariables(double timeout) {
+    this.timeout = timeout
     impl = new BlockingVariablesImpl(timeout)
   }
 
@@ -109,4 +123,66 @@ class BlockingVariables {
   Object getProperty(String name) {
     impl.get(name)
   }
-}
\ No newline at end of file
+
+  /**
+   * Sets a timeout (in seconds) for reading the given variable's value, which overrides the
+   * timeout of this instance. When waiting for {@linkplain #allOf all of several variables},
+   * the wait fails as soon as one of them hasn't been set within its own timeout.
+   *
+   * @param name the variable's name
+   * @param timeout the timeout (in seconds) for reading the variable's value
+   */
+  void setVariableTimeout(String name, double timeout) {
+    impl.setTimeout(name, timeout)
+  }
+
+  /**
+   * Same as {@link #allOf(double, String...)}, using the timeout of this instance.
+   */
+  @Beta
+  Future<Map<String, Object>> allOf(String... names) {
+    allOf(timeout, names)
+  }
+
+  /**
+   * Waits for all of the given variables without blocking the calling thread. The returned future
+   * completes with the variables' values, keyed by name, once all of them have been set. It fails
+   * with a {@link VariablesTimeoutError} if the given timeout elapses first, or if any of the variables
+   * hasn't been set within its own {@linkplain #setVariableTimeout timeout}. On Java 8 and higher,
+   * the future is a {@code CompletableFuture}.
+   *
+   * @param timeout the timeout (in seconds) for all of the variables to be set
+   * @param names the variables' names
+   *
+   * @return a future for the variables' values
+   */
+  @Beta
+  Future<Map<String, Object>> allOf(double timeout, String... names) {
+    impl.waitFor(true, timeout, names)
+  }
+
+  /**
+   * Same as {@link #anyOf(double, String...)}, using the timeout of this instance.
+   */
+  @Beta
+  Future<Map<String, Object>> anyOf(String... names) {
+    anyOf(timeout, names)
+  }
+
+  /**
+   * Waits for any of the given variables without blocking the calling thread. The returned future
+   * completes with the name and value of the first variable that has been set. It fails with a
+   * {@link VariablesTimeoutError} if the given timeout elapses first, or if none of the variables has
+   * been set within its own {@linkplain #setVariableTimeout timeout}. On Java 8 and higher, the future
+   * is a {@code CompletableFuture}.
+   *
+   * @param timeout the timeout (in seconds) for any of the variables to be set
+   * @param names the variables' names
+   *
+   * @return a future for the first variable's name and value
+   */
+  @Beta
+  Future<Map<String, Object>> anyOf(double timeout, String... names) {
+    impl.waitFor(false, timeout, names)
+  }
+}
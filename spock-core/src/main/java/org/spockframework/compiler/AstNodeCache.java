@@ -50,9 +50,21 @@ public class AstNodeCache {
   public final MethodNode SpockRuntime_VerifyMethodCondition =
       SpockRuntime.getDeclaredMethods(org.spockframework.runtime.SpockRuntime.VERIFY_METHOD_CONDITION).get(0);
 
+  public final MethodNode SpockRuntime_IsConditionSatisfied =
+      SpockRuntime.getDeclaredMethods(org.spockframework.runtime.SpockRuntime.IS_CONDITION_SATISFIED).get(0);
+
+  public final MethodNode SpockRuntime_NeedsRecordedEvaluation =
+      SpockRuntime.getDeclaredMethods(org.spockframework.runtime.SpockRuntime.NEEDS_RECORDED_EVALUATION).get(0);
+
+  public final MethodNode SpockRuntime_VerifyDeferredCondition =
+      SpockRuntime.getDeclaredMethods(org.spockframework.runtime.SpockRuntime.VERIFY_DEFERRED_CONDITION).get(0);
+
   public final MethodNode ValueRecorder_Reset =
       ValueRecorder.getDeclaredMethods(org.spockframework.runtime.ValueRecorder.RESET).get(0);
 
+  public final MethodNode ValueRecorder_ResetOrCreate =
+      ValueRecorder.getDeclaredMethods(org.spockframework.runtime.ValueRecorder.RESET_OR_CREATE).get(0);
+
   public final MethodNode ValueRecorder_Record =
       ValueRecorder.getDeclaredMethods(org.spockframework.runtime.ValueRecorder.RECORD).get(0);
 
@@ -25,6 +25,7 @@ import org.codehaus.groovy.ast.*;
 import org.codehaus.groovy.ast.expr.*;
 import org.codehaus.groovy.ast.stmt.*;
 import org.codehaus.groovy.classgen.BytecodeExpression;
+import org.codehaus.groovy.syntax.Token;
 import org.codehaus.groovy.syntax.Types;
 
 // NOTE: currently some conversions reference old expression objects rather than copying them;
@@ -48,6 +49,8 @@ public class ConditionRewriter extends AbstractExpressionConverter<Expression> {
   private final IRewriteResources resources;
 
   private int recordCount = 0;
+  // whether this is the recorded evaluation of a condition whose value recording has been deferred
+  private boolean deferred = false;
 
   private ConditionRewriter(IRewriteResources resources) {
     this.resources = resources;
@@ -555,6 +558,77 @@ public class ConditionRewriter extends AbstractExpressionConverter<Expression> {
   }
 
   private Statement rewriteCondition(Expression expr, Expression message, boolean explicit) {
+    if (message == null && resources.isConditionRecordingDeferred()
+        && DeferrableConditionChecker.isDeferrable(expr, resources.getCurrentMethod().getAst().getParameters()))
+      return rewriteDeferredCondition(expr);
+
+    return rewriteRecordedCondition(expr, message, explicit);
+  }
+
+  // {
+  //   boolean $spock_conditionSatisfied = false
+  //   Throwable $spock_conditionError = null
+  //   try { $spock_conditionSatisfied = SpockRuntime.isConditionSatisfied(<condition>) }
+  //   catch (Throwable $spock_conditionException) { $spock_conditionError = $spock_conditionException }
+  //   if (SpockRuntime.needsRecordedEvaluation($spock_errorCollector, $spock_conditionSatisfied)) <recorded condition>
+  // }
+  // the recorded condition shares leaf nodes with the original condition, but the condition
+  // is known to contain no closures, hence this doesn't cause any trouble;
+  // deferrable conditions contain no method calls, hence are never method conditions
+  private Statement rewriteDeferredCondition(Expression condition) {
+    deferred = true;
+    Statement recordedCondition = rewriteOtherCondition(condition, null);
+
+    TryCatchStatement evaluation = new TryCatchStatement(
+        new ExpressionStatement(
+            new BinaryExpression(
+                new VariableExpression("$spock_conditionSatisfied"),
+                Token.newSymbol(Types.ASSIGN, -1, -1),
+                AstUtil.createDirectMethodCall(
+                    new ClassExpression(resources.getAstNodeCache().SpockRuntime),
+                    resources.getAstNodeCache().SpockRuntime_IsConditionSatisfied,
+                    new ArgumentListExpression(condition)))),
+        EmptyStatement.INSTANCE);
+    // reported if the recorded evaluation doesn't run into an exception again
+    evaluation.addCatch(
+        new CatchStatement(
+            new Parameter(new ClassNode(Throwable.class), "$spock_conditionException"),
+            new ExpressionStatement(
+                new BinaryExpression(
+                    new VariableExpression("$spock_conditionError"),
+                    Token.newSymbol(Types.ASSIGN, -1, -1),
+                    new VariableExpression("$spock_conditionException")))));
+
+    BlockStatement result = new BlockStatement();
+    result.setVariableScope(new VariableScope());
+    result.addStatement(
+        new ExpressionStatement(
+            new DeclarationExpression(
+                new VariableExpression("$spock_conditionSatisfied", ClassHelper.boolean_TYPE),
+                Token.newSymbol(Types.ASSIGN, -1, -1),
+                ConstantExpression.FALSE)));
+    result.addStatement(
+        new ExpressionStatement(
+            new DeclarationExpression(
+                new VariableExpression("$spock_conditionError", ClassHelper.make(Throwable.class)),
+                Token.newSymbol(Types.ASSIGN, -1, -1),
+                ConstantExpression.NULL)));
+    result.addStatement(evaluation);
+    result.addStatement(
+        new IfStatement(
+            new BooleanExpression(
+                AstUtil.createDirectMethodCall(
+                    new ClassExpression(resources.getAstNodeCache().SpockRuntime),
+                    resources.getAstNodeCache().SpockRuntime_NeedsRecordedEvaluation,
+                    new ArgumentListExpression(
+                        new VariableExpression("$spock_errorCollector"),
+                        new VariableExpression("$spock_conditionSatisfied")))),
+            recordedCondition,
+            EmptyStatement.INSTANCE));
+    return result;
+  }
+
+  private Statement rewriteRecordedCondition(Expression expr, Expression message, boolean explicit) {
     // method conditions with spread operator are not lifted because MOP doesn't support spreading
     if (expr instanceof MethodCallExpression && !((MethodCallExpression) expr).isSpreadSafe())
       return rewriteMethodCondition((MethodCallExpression) expr, message, explicit);
@@ -631,8 +705,11 @@ public class ConditionRewriter extends AbstractExpressionConverter<Expression> {
   private Statement rewriteOtherCondition(Expression condition, Expression message) {
     Expression rewritten = message == null ? convert(condition) : condition;
 
-    final Expression executeAndVerify = rewriteToSpockRuntimeCall(resources.getAstNodeCache().SpockRuntime_VerifyCondition,
-        condition, message, Collections.singletonList(rewritten));
+    final Expression executeAndVerify = deferred ?
+        rewriteToSpockRuntimeCall(resources.getAstNodeCache().SpockRuntime_VerifyDeferredCondition,
+            condition, message, Arrays.asList(rewritten, new VariableExpression("$spock_conditionError"))) :
+        rewriteToSpockRuntimeCall(resources.getAstNodeCache().SpockRuntime_VerifyCondition,
+            condition, message, Collections.singletonList(rewritten));
 
     return surroundWithTryCatch(condition, message, executeAndVerify);
   }
@@ -666,6 +743,24 @@ public class ConditionRewriter extends AbstractExpressionConverter<Expression> {
     return tryCatchStatement;
   }
 
+  private Expression resetValueRecorder() {
+    if (!resources.isConditionRecordingDeferred()) {
+      return AstUtil.createDirectMethodCall(
+          new VariableExpression("$spock_valueRecorder"),
+          resources.getAstNodeCache().ValueRecorder_Reset,
+          ArgumentListExpression.EMPTY_ARGUMENTS);
+    }
+
+    // $spock_valueRecorder = ValueRecorder.resetOrCreate($spock_valueRecorder)
+    return new BinaryExpression(
+        new VariableExpression("$spock_valueRecorder"),
+        Token.newSymbol(Types.ASSIGN, -1, -1),
+        AstUtil.createDirectMethodCall(
+            new ClassExpression(resources.getAstNodeCache().ValueRecorder),
+            resources.getAstNodeCache().ValueRecorder_ResetOrCreate,
+            new ArgumentListExpression(new VariableExpression("$spock_valueRecorder"))));
+  }
+
   private Expression rewriteToSpockRuntimeCall(MethodNode method, Expression condition, Expression message,
       List<Expression> additionalArgs) {
     List<Expression> args = new ArrayList<>();
@@ -675,12 +770,7 @@ public class ConditionRewriter extends AbstractExpressionConverter<Expression> {
         new ArgumentListExpression(args));
 
     args.add(new VariableExpression("$spock_errorCollector", ClassHelper.make(ErrorCollector.class)));
-    args.add(message == null ?
-        AstUtil.createDirectMethodCall(
-            new VariableExpression("$spock_valueRecorder"),
-            resources.getAstNodeCache().ValueRecorder_Reset,
-            ArgumentListExpression.EMPTY_ARGUMENTS) :
-        ConstantExpression.NULL);
+    args.add(message == null ? resetValueRecorder() : ConstantExpression.NULL);
     args.add(new ConstantExpression(resources.getSourceText(condition)));
     args.add(new ConstantExpression(condition.getLineNumber()));
     args.add(new ConstantExpression(condition.getColumnNumber()));
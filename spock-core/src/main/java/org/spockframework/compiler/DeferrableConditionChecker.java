@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.compiler;
+
+import java.math.*;
+import java.util.*;
+
+import org.codehaus.groovy.ast.*;
+import org.codehaus.groovy.ast.expr.*;
+import org.codehaus.groovy.classgen.BytecodeExpression;
+import org.codehaus.groovy.syntax.Types;
+
+/**
+ * Tells whether the value recording of a condition can be deferred, that is, whether the
+ * condition can first be evaluated as is, and only be evaluated again with value recording
+ * if it isn't satisfied. This requires that evaluating the condition twice has the same
+ * outcome as evaluating it once. Since any method call or property access may have side
+ * effects (think of getters of mocks, or {@code size()} of an {@code Iterator}), and since
+ * operators like {@code ==}, {@code <}, or {@code in} dispatch to {@code equals()},
+ * {@code compareTo()}, or {@code isCase()} of their operands, conditions are only deferred
+ * if they consist of literals and operators applied to local variables, method parameters,
+ * and data variables that are declared with a primitive type, a primitive wrapper type,
+ * {@code String}, {@code BigInteger}, or {@code BigDecimal}. All other conditions are
+ * evaluated with value recording right away.
+ */
+class DeferrableConditionChecker extends CodeVisitorSupport {
+  private static final Set<String> VALUE_TYPES = new HashSet<>(Arrays.asList(
+      "boolean", "char", "byte", "short", "int", "long", "float", "double",
+      Boolean.class.getName(), Character.class.getName(), Byte.class.getName(), Short.class.getName(),
+      Integer.class.getName(), Long.class.getName(), Float.class.getName(), Double.class.getName(),
+      String.class.getName(), BigInteger.class.getName(), BigDecimal.class.getName()));
+
+  private final Map<String, ClassNode> parameterTypes = new HashMap<>();
+  private boolean deferrable = true;
+
+  private DeferrableConditionChecker(Parameter[] parameters) {
+    for (Parameter parameter : parameters) parameterTypes.put(parameter.getName(), parameter.getOriginType());
+  }
+
+  /**
+   * Tells whether the given condition of a method with the given parameters can be deferred.
+   * The parameters include a feature method's data variables, which are added to the method
+   * before its conditions are rewritten.
+   */
+  static boolean isDeferrable(Expression condition, Parameter[] parameters) {
+    DeferrableConditionChecker checker = new DeferrableConditionChecker(parameters);
+    condition.visit(checker);
+    return checker.deferrable;
+  }
+
+  @Override
+  public void visitVariableExpression(VariableExpression expr) {
+    Variable variable = expr.getAccessedVariable();
+    if (variable instanceof VariableExpression || variable instanceof Parameter) { // local variable
+      if (!variable.isDynamicTyped() && isValueType(variable.getOriginType())) return;
+    } else if (variable instanceof DynamicVariable) {
+      // data variables that haven't been declared as method parameters
+      ClassNode type = parameterTypes.get(variable.getName());
+      if (type != null && isValueType(type)) return;
+    }
+    deferrable = false;
+  }
+
+  private static boolean isValueType(ClassNode type) {
+    return VALUE_TYPES.contains(type.getName());
+  }
+
+  @Override
+  public void visitBinaryExpression(BinaryExpression expr) {
+    int type = expr.getOperation().getType();
+    // subscripts call getAt(), which may have side effects (e.g. for iterators)
+    if (Types.ofType(type, Types.ASSIGNMENT_OPERATOR) || type == Types.LEFT_SHIFT || type == Types.LEFT_SQUARE_BRACKET) {
+      deferrable = false;
+      return;
+    }
+    super.visitBinaryExpression(expr);
+  }
+
+  @Override
+  public void visitCastExpression(CastExpression expr) {
+    // coercions call asType(), which may have side effects
+    if (expr.isCoerce()) {
+      deferrable = false;
+      return;
+    }
+    super.visitCastExpression(expr);
+  }
+
+  @Override
+  public void visitMethodCallExpression(MethodCallExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitStaticMethodCallExpression(StaticMethodCallExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitConstructorCallExpression(ConstructorCallExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitPropertyExpression(PropertyExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitAttributeExpression(AttributeExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitFieldExpression(FieldExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitPrefixExpression(PrefixExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitPostfixExpression(PostfixExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitClosureExpression(ClosureExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitMethodPointerExpression(MethodPointerExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitDeclarationExpression(DeclarationExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitArrayExpression(ArrayExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitSpreadExpression(SpreadExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitSpreadMapExpression(SpreadMapExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitClosureListExpression(ClosureListExpression expr) {
+    deferrable = false;
+  }
+
+  @Override
+  public void visitBytecodeExpression(BytecodeExpression expr) {
+    deferrable = false;
+  }
+}
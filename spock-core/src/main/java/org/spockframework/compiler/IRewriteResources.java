@@ -38,6 +38,7 @@ public interface IRewriteResources {
   Block getCurrentBlock();
 
   void defineRecorders(List<Statement> stats, boolean enableErrorCollector);
+  boolean isConditionRecordingDeferred();
   VariableExpression captureOldValue(Expression oldValue);
   MethodCallExpression getMockInvocationMatcher();
 
@@ -40,6 +40,7 @@ public class SpecRewriter extends AbstractSpecVisitor implements IRewriteResourc
   private final AstNodeCache nodeCache;
   private final SourceLookup lookup;
   private final ErrorReporter errorReporter;
+  private final boolean conditionRecordingDeferred;
 
   private Spec spec;
   private int specDepth;
@@ -55,9 +56,15 @@ public class SpecRewriter extends AbstractSpecVisitor implements IRewriteResourc
   private int oldValueCount = 0;
 
   public SpecRewriter(AstNodeCache nodeCache, SourceLookup lookup, ErrorReporter errorReporter) {
+    this(nodeCache, lookup, errorReporter, false);
+  }
+
+  public SpecRewriter(AstNodeCache nodeCache, SourceLookup lookup, ErrorReporter errorReporter,
+      boolean conditionRecordingDeferred) {
     this.nodeCache = nodeCache;
     this.lookup = lookup;
     this.errorReporter = errorReporter;
+    this.conditionRecordingDeferred = conditionRecordingDeferred;
   }
 
   @Override
@@ -524,9 +531,12 @@ public class SpecRewriter extends AbstractSpecVisitor implements IRewriteResourc
             new DeclarationExpression(
                 new VariableExpression("$spock_valueRecorder", nodeCache.ValueRecorder),
                 Token.newSymbol(Types.ASSIGN, -1, -1),
-                new ConstructorCallExpression(
-                    nodeCache.ValueRecorder,
-                    ArgumentListExpression.EMPTY_ARGUMENTS))));
+                // with deferred recording, the recorder is created by the first condition that fails
+                conditionRecordingDeferred ?
+                    ConstantExpression.NULL :
+                    new ConstructorCallExpression(
+                        nodeCache.ValueRecorder,
+                        ArgumentListExpression.EMPTY_ARGUMENTS))));
     stats.add(0,
         new ExpressionStatement(
             new DeclarationExpression(
@@ -547,6 +557,11 @@ public class SpecRewriter extends AbstractSpecVisitor implements IRewriteResourc
           ))));
   }
 
+  @Override
+  public boolean isConditionRecordingDeferred() {
+    return conditionRecordingDeferred;
+  }
+
   @Override
   public VariableExpression captureOldValue(Expression oldValue) {
     VariableExpression var = new OldValueExpression(oldValue, "$spock_oldValue" + oldValueCount++);
@@ -38,6 +38,13 @@ import org.codehaus.groovy.transform.*;
 @SuppressWarnings("UnusedDeclaration")
 @GroovyASTTransformation(phase = CompilePhase.SEMANTIC_ANALYSIS)
 public class SpockTransform implements ASTTransformation {
+  /**
+   * Name of the compiler optimization option (or system property) that turns on deferred value recording.
+   * Conditions whose evaluation has no side effects are then evaluated without recording their values,
+   * and only evaluated again with value recording if they fail.
+   */
+  public static final String DEFER_CONDITION_RECORDING = "spock.deferConditionRecording";
+
   public SpockTransform() {
     VersionChecker.checkGroovyVersion("compiler plugin");
   }
@@ -54,6 +61,7 @@ public class SpockTransform implements ASTTransformation {
     void visit(ASTNode[] nodes, SourceUnit sourceUnit) {
       ErrorReporter errorReporter = new ErrorReporter(sourceUnit);
       SourceLookup sourceLookup = new SourceLookup(sourceUnit);
+      boolean conditionRecordingDeferred = isConditionRecordingDeferred(sourceUnit);
 
       try {
         ModuleNode module = (ModuleNode) nodes[0];
@@ -61,7 +69,7 @@ public class SpockTransform implements ASTTransformation {
         List<ClassNode> classes = module.getClasses();
 
         for (ClassNode clazz : classes)
-          if (isSpec(clazz)) processSpec(clazz, errorReporter, sourceLookup);
+          if (isSpec(clazz)) processSpec(clazz, errorReporter, sourceLookup, conditionRecordingDeferred);
       } finally {
         sourceLookup.close();
       }
@@ -71,10 +79,16 @@ public class SpockTransform implements ASTTransformation {
       return clazz.isDerivedFrom(nodeCache.Specification);
     }
 
-    void processSpec(ClassNode clazz, ErrorReporter errorReporter, SourceLookup sourceLookup) {
+    boolean isConditionRecordingDeferred(SourceUnit sourceUnit) {
+      Boolean option = sourceUnit.getConfiguration().getOptimizationOptions().get(DEFER_CONDITION_RECORDING);
+      return option != null ? option : Boolean.getBoolean(DEFER_CONDITION_RECORDING);
+    }
+
+    void processSpec(ClassNode clazz, ErrorReporter errorReporter, SourceLookup sourceLookup,
+        boolean conditionRecordingDeferred) {
       try {
         Spec spec = new SpecParser(errorReporter).build(clazz);
-        spec.accept(new SpecRewriter(nodeCache, sourceLookup, errorReporter));
+        spec.accept(new SpecRewriter(nodeCache, sourceLookup, errorReporter, conditionRecordingDeferred));
         spec.accept(new SpecAnnotator(nodeCache));
       } catch (Exception e) {
         errorReporter.error(
@@ -37,6 +37,10 @@ public interface IMockInteraction {
   @Nullable
   Object accept(IMockInvocation invocation);
 
+  /**
+   * Returns the invocations accepted so far. Implementations may only retain
+   * the most recent ones.
+   */
   List<IMockInvocation> getAcceptedInvocations();
 
   int computeSimilarityScore(IMockInvocation invocation);
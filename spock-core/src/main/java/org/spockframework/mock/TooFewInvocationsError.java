@@ -31,13 +31,26 @@ public class TooFewInvocationsError extends InteractionNotSatisfiedError {
 
   private final transient List<IMockInteraction> interactions;
   private final transient List<IMockInvocation> unmatchedInvocations;
+  private final long unmatchedCount;
   private String message;
 
   public TooFewInvocationsError(List<IMockInteraction> interactions, List<IMockInvocation> unmatchedInvocations) {
+    this(interactions, unmatchedInvocations, unmatchedInvocations.size());
+  }
+
+  /**
+   * @param unmatchedInvocations a sample of the unmatched invocations
+   * @param unmatchedCount the total number of unmatched invocations, which may exceed
+   * the number of invocations in {@code unmatchedInvocations}
+   */
+  @Beta
+  public TooFewInvocationsError(List<IMockInteraction> interactions, List<IMockInvocation> unmatchedInvocations, long unmatchedCount) {
     Assert.notNull(interactions);
     Assert.that(interactions.size() > 0);
+    Assert.that(unmatchedCount >= unmatchedInvocations.size());
     this.interactions = interactions;
     this.unmatchedInvocations = unmatchedInvocations;
+    this.unmatchedCount = unmatchedCount;
   }
 
   @Override
@@ -53,7 +66,11 @@ public class TooFewInvocationsError extends InteractionNotSatisfiedError {
       builder.append(interaction);
       builder.append("\n\n");
       List<ScoredInvocation> scoredInvocations = scoreInvocations(interaction, unmatchedMultiInvocations);
-      builder.append("Unmatched invocations (ordered by similarity):\n\n");
+      builder.append("Unmatched invocations (ordered by similarity");
+      if (unmatchedCount > unmatchedInvocations.size()) {
+        builder.append(String.format(", sampled %d of %d", unmatchedInvocations.size(), unmatchedCount));
+      }
+      builder.append("):\n\n");
       if (scoredInvocations.isEmpty()) {
         builder.append("None\n");
       } else {
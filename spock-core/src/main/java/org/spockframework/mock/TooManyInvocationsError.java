@@ -31,11 +31,24 @@ public class TooManyInvocationsError extends InteractionNotSatisfiedError {
 
   private final transient IMockInteraction interaction;
   private final transient List<IMockInvocation> acceptedInvocations;
+  private final long acceptedCount;
   private String message;
 
   public TooManyInvocationsError(IMockInteraction interaction, List<IMockInvocation> acceptedInvocations) {
+    this(interaction, acceptedInvocations, acceptedInvocations.size());
+  }
+
+  /**
+   * @param acceptedInvocations the most recent accepted invocations
+   * @param acceptedCount the total number of accepted invocations, which may exceed
+   * the number of invocations in {@code acceptedInvocations}
+   */
+  @Beta
+  public TooManyInvocationsError(IMockInteraction interaction, List<IMockInvocation> acceptedInvocations, long acceptedCount) {
+    Assert.that(acceptedCount >= acceptedInvocations.size());
     this.interaction = interaction;
     this.acceptedInvocations = acceptedInvocations;
+    this.acceptedCount = acceptedCount;
   }
 
   public IMockInteraction getInteraction() {
@@ -46,6 +59,11 @@ public class TooManyInvocationsError extends InteractionNotSatisfiedError {
     return acceptedInvocations;
   }
 
+  @Beta
+  public long getAcceptedCount() {
+    return acceptedCount;
+  }
+
   @Override
   public synchronized String getMessage() {
     if (message != null) return message;
@@ -59,7 +77,11 @@ public class TooManyInvocationsError extends InteractionNotSatisfiedError {
     builder.append("Too many invocations for:\n\n");
     builder.append(interaction);
     builder.append("\n\n");
-    builder.append("Matching invocations (ordered by last occurrence):\n\n");
+    builder.append("Matching invocations (ordered by last occurrence");
+    if (acceptedCount > acceptedInvocations.size()) {
+      builder.append(String.format(", showing the last %d of %d", acceptedInvocations.size(), acceptedCount));
+    }
+    builder.append("):\n\n");
 
     int count = 0;
     for (Map.Entry<IMockInvocation, Integer> entry : uniqueInvocations.entrySet()) {
@@ -29,6 +29,10 @@ public class TargetConstraint implements IInvocationConstraint, IInteractionAwar
     this.target = target;
   }
 
+  public Object getTarget() {
+    return target;
+  }
+
   @Override
   public boolean isSatisfiedBy(IMockInvocation invocation) {
     return invocation.getMockObject().matches(target, interaction);
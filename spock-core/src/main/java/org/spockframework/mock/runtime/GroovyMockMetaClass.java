@@ -21,12 +21,14 @@ import spock.lang.Specification;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import groovy.lang.*;
 
 public class GroovyMockMetaClass extends DelegatingMetaClass implements SpecificationAttachable {
   private final IMockConfiguration configuration;
   private final Specification specification;
+  private volatile CallSiteCache callSiteCache;
 
   public GroovyMockMetaClass(IMockConfiguration configuration, Specification specification, MetaClass oldMetaClass) {
     super(oldMetaClass);
@@ -74,20 +76,12 @@ public class GroovyMockMetaClass extends DelegatingMetaClass implements Specific
       return ((GroovyObject) target).getMetaClass();
     }
 
-    MetaMethod metaMethod = delegate.pickMethod(methodName, ReflectionUtil.getTypes(arguments));
-    Method method = GroovyRuntimeUtil.toMethod(metaMethod);
-
-    if (method != null && method.getDeclaringClass().isAssignableFrom(configuration.getType())) {
-      if (!isStatic && !ReflectionUtil.isFinalMethod(method) && !configuration.isGlobal()) {
-        // use standard proxy dispatch
-        return metaMethod.invoke(target, arguments);
-      }
+    CallSite callSite = getCallSite(methodName, arguments, isStatic);
+    if (callSite.useProxyDispatch) {
+      return callSite.metaMethod.invoke(target, arguments);
     }
 
-    // MetaMethod.getDeclaringClass apparently differs from java.reflect.Method.getDeclaringClass()
-    // in that the originally declaring class/interface is returned; we leverage this behavior
-    // to check if a GroovyObject method was called
-    if (metaMethod != null && metaMethod.getDeclaringClass().getTheClass() == GroovyObject.class) {
+    if (callSite.isGroovyObjectMethod) {
       if ("invokeMethod".equals(methodName)) {
         return invokeMethod(target, (String) arguments[0], GroovyRuntimeUtil.asArgumentArray(arguments[1]));
       }
@@ -101,7 +95,7 @@ public class GroovyMockMetaClass extends DelegatingMetaClass implements Specific
       // getMetaClass was already handled earlier; setMetaClass isn't handled specially
     }
 
-    IMockInvocation invocation = createMockInvocation(metaMethod, target, methodName, arguments, isStatic);
+    IMockInvocation invocation = createMockInvocation(callSite.mockMethod, target, arguments);
     IMockController controller = specification.getSpecificationContext().getMockController();
     return controller.handle(invocation);
   }
@@ -110,18 +104,62 @@ public class GroovyMockMetaClass extends DelegatingMetaClass implements Specific
     return !isStatic && target instanceof GroovyObject && "getMetaClass".equals(method) && arguments.length == 0;
   }
 
-  private IMockInvocation createMockInvocation(MetaMethod metaMethod, Object target,
-      String methodName, Object[] arguments, boolean isStatic) {
+  private IMockInvocation createMockInvocation(IMockMethod mockMethod, Object target, Object[] arguments) {
     IMockObject mockObject = new MockObject(configuration.getName(), configuration.getExactType(), target,
         configuration.isVerified(), configuration.isGlobal(), configuration.getDefaultResponse(), specification, this);
+    return new MockInvocation(mockObject, mockMethod, Arrays.asList(arguments), new GroovyRealMethodInvoker(getAdaptee()));
+  }
+
+  private CallSite getCallSite(String methodName, Object[] arguments, boolean isStatic) {
+    Class[] argumentTypes = ReflectionUtil.getTypes(arguments);
+    CallSiteCache cache = getCallSiteCache();
+    if (cache == null) return resolveCallSite(methodName, argumentTypes, arguments.length, isStatic);
+
+    CallSiteKey key = new CallSiteKey(methodName, argumentTypes, isStatic);
+    CallSite callSite = cache.callSites.get(key);
+    if (callSite == null) {
+      callSite = resolveCallSite(methodName, argumentTypes, arguments.length, isStatic);
+      cache.callSites.putIfAbsent(key, callSite);
+    }
+    return callSite;
+  }
+
+  // returns null if call sites can't be cached
+  private CallSiteCache getCallSiteCache() {
+    MetaClass currentDelegate = delegate;
+    // only MetaClassImpl tells when its methods have changed, e.g. when methods are added to an ExpandoMetaClass
+    if (!(currentDelegate instanceof MetaClassImpl)) return null;
+    int version = ((MetaClassImpl) currentDelegate).getVersion();
+
+    CallSiteCache cache = callSiteCache;
+    if (cache == null || cache.delegate != currentDelegate || cache.version != version) {
+      cache = new CallSiteCache(currentDelegate, version);
+      callSiteCache = cache;
+    }
+    return cache;
+  }
+
+  private CallSite resolveCallSite(String methodName, Class[] argumentTypes, int argumentCount, boolean isStatic) {
+    MetaMethod metaMethod = delegate.pickMethod(methodName, argumentTypes);
+    Method method = GroovyRuntimeUtil.toMethod(metaMethod);
+
+    boolean useProxyDispatch = method != null && method.getDeclaringClass().isAssignableFrom(configuration.getType())
+        && !isStatic && !ReflectionUtil.isFinalMethod(method) && !configuration.isGlobal();
+
+    // MetaMethod.getDeclaringClass apparently differs from java.reflect.Method.getDeclaringClass()
+    // in that the originally declaring class/interface is returned; we leverage this behavior
+    // to check if a GroovyObject method was called
+    boolean isGroovyObjectMethod = metaMethod != null && metaMethod.getDeclaringClass().getTheClass() == GroovyObject.class;
+
     IMockMethod mockMethod;
     if (metaMethod != null) {
       List<Type> parameterTypes = Arrays.<Type>asList(metaMethod.getNativeParameterTypes());
       mockMethod = new DynamicMockMethod(methodName, parameterTypes, metaMethod.getReturnType(), isStatic);
     } else {
-      mockMethod = new DynamicMockMethod(methodName, arguments.length, isStatic);
+      mockMethod = new DynamicMockMethod(methodName, argumentCount, isStatic);
     }
-    return new MockInvocation(mockObject, mockMethod, Arrays.asList(arguments), new GroovyRealMethodInvoker(getAdaptee()));
+
+    return new CallSite(metaMethod, useProxyDispatch, isGroovyObjectMethod, mockMethod);
   }
 
   @Override
@@ -133,4 +171,58 @@ public class GroovyMockMetaClass extends DelegatingMetaClass implements Specific
   public void detach() {
     // NO-OP since GroovyMocks do not support detached mocks at the moment
   }
+
+  private static class CallSiteCache {
+    final MetaClass delegate;
+    final int version;
+    final ConcurrentHashMap<CallSiteKey, CallSite> callSites = new ConcurrentHashMap<>();
+
+    CallSiteCache(MetaClass delegate, int version) {
+      this.delegate = delegate;
+      this.version = version;
+    }
+  }
+
+  private static class CallSiteKey {
+    final String methodName;
+    final Class[] argumentTypes;
+    final boolean isStatic;
+    final int hashCode;
+
+    CallSiteKey(String methodName, Class[] argumentTypes, boolean isStatic) {
+      this.methodName = methodName;
+      this.argumentTypes = argumentTypes;
+      this.isStatic = isStatic;
+      hashCode = 31 * (31 * methodName.hashCode() + Arrays.hashCode(argumentTypes)) + (isStatic ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof CallSiteKey)) return false;
+
+      CallSiteKey other = (CallSiteKey) obj;
+      return isStatic == other.isStatic && methodName.equals(other.methodName)
+          && Arrays.equals(argumentTypes, other.argumentTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static class CallSite {
+    final MetaMethod metaMethod;
+    final boolean useProxyDispatch;
+    final boolean isGroovyObjectMethod;
+    final IMockMethod mockMethod;
+
+    CallSite(MetaMethod metaMethod, boolean useProxyDispatch, boolean isGroovyObjectMethod, IMockMethod mockMethod) {
+      this.metaMethod = metaMethod;
+      this.useProxyDispatch = useProxyDispatch;
+      this.isGroovyObjectMethod = isGroovyObjectMethod;
+      this.mockMethod = mockMethod;
+    }
+  }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.mock.runtime;
+
+import org.spockframework.lang.Wildcard;
+import org.spockframework.mock.*;
+import org.spockframework.mock.constraint.*;
+import org.spockframework.util.Immutable;
+
+import java.util.*;
+
+/**
+ * An immutable index over the interactions of a scope, keyed by target mock
+ * instance and method name. Interactions with a wildcard target, or whose method
+ * name isn't a plain name, go into the respective wildcard buckets. Matching only
+ * evaluates the constraints of interactions in the buckets that can apply to an
+ * invocation, but visits them in registration order, and hence finds the same
+ * interaction as a linear scan.
+ *
+ * <p>Skipping an interaction is only safe if its constraints would not have been
+ * satisfied anyway. Since {@link TargetConstraint} has side effects for stubs, and
+ * global mocks match targets by class rather than identity, invocations on such
+ * mock objects fall back to (partly) linear scans.
+ *
+ * @param <T> the type of interactions in the index
+ */
+@Immutable
+class InteractionIndex<T extends IMockInteraction> {
+  private static final int[] NONE = new int[0];
+
+  private final List<T> interactions;
+  private final Map<Object, Bucket> targetBuckets = new IdentityHashMap<>();
+  private final Bucket wildcardTargetBucket;
+
+  InteractionIndex(List<T> interactions) {
+    this.interactions = interactions;
+
+    Map<Object, BucketBuilder> builders = new IdentityHashMap<>();
+    BucketBuilder wildcardTargetBuilder = new BucketBuilder();
+
+    for (int i = 0; i < interactions.size(); i++) {
+      IMockInteraction interaction = unwrap(interactions.get(i));
+      Object target = null;
+      String methodName = null;
+      if (interaction instanceof MockInteraction) {
+        for (IInvocationConstraint constraint : ((MockInteraction) interaction).getConstraints()) {
+          if (constraint instanceof TargetConstraint) {
+            Object candidate = ((TargetConstraint) constraint).getTarget();
+            if (!(candidate instanceof Wildcard)) target = candidate;
+          } else if (constraint instanceof EqualMethodNameConstraint) {
+            methodName = ((EqualMethodNameConstraint) constraint).getMethodName();
+          }
+        }
+      }
+
+      BucketBuilder builder = wildcardTargetBuilder;
+      if (target != null) {
+        builder = builders.get(target);
+        if (builder == null) {
+          builder = new BucketBuilder();
+          builders.put(target, builder);
+        }
+      }
+      builder.add(methodName, i);
+    }
+
+    for (Map.Entry<Object, BucketBuilder> entry : builders.entrySet()) {
+      targetBuckets.put(entry.getKey(), entry.getValue().build());
+    }
+    wildcardTargetBucket = wildcardTargetBuilder.build();
+  }
+
+  /**
+   * Returns the first interaction that matches the given invocation and isn't exhausted
+   * or, if all matching interactions are exhausted, the first matching interaction.
+   */
+  T match(IMockInvocation invocation) {
+    int[][] candidates = selectCandidates(invocation);
+    if (candidates == null) return matchLinearly(invocation);
+
+    T firstMatch = null;
+    int[] positions = new int[candidates.length];
+    while (true) {
+      int next = -1;
+      int nextCandidates = -1;
+      for (int i = 0; i < candidates.length; i++) {
+        if (positions[i] < candidates[i].length && (next == -1 || candidates[i][positions[i]] < next)) {
+          next = candidates[i][positions[i]];
+          nextCandidates = i;
+        }
+      }
+      if (next == -1) return firstMatch;
+      positions[nextCandidates]++;
+
+      T interaction = interactions.get(next);
+      if (interaction.matches(invocation)) {
+        if (!interaction.isExhausted()) return interaction;
+        if (firstMatch == null) firstMatch = interaction;
+      }
+    }
+  }
+
+  private T matchLinearly(IMockInvocation invocation) {
+    T firstMatch = null;
+    for (T interaction : interactions)
+      if (interaction.matches(invocation)) {
+        if (!interaction.isExhausted()) return interaction;
+        if (firstMatch == null) firstMatch = interaction;
+      }
+
+    return firstMatch;
+  }
+
+  // returns null if all interactions need to be considered
+  private int[][] selectCandidates(IMockInvocation invocation) {
+    IMockObject mockObject = invocation.getMockObject();
+    if (!(mockObject instanceof MockObject) || ((MockObject) mockObject).isGlobal()) return null;
+
+    String methodName = invocation.getMethod().getName();
+    Bucket targetBucket = targetBuckets.get(mockObject.getInstance());
+
+    if (!mockObject.isVerified()) {
+      // a stub must see all interactions targeting it, so that it can reject required ones
+      return new int[][] {
+        targetBucket == null ? NONE : targetBucket.all,
+        wildcardTargetBucket.getByMethodName(methodName),
+        wildcardTargetBucket.anyMethodName
+      };
+    }
+
+    return new int[][] {
+      targetBucket == null ? NONE : targetBucket.getByMethodName(methodName),
+      targetBucket == null ? NONE : targetBucket.anyMethodName,
+      wildcardTargetBucket.getByMethodName(methodName),
+      wildcardTargetBucket.anyMethodName
+    };
+  }
+
+  private static IMockInteraction unwrap(IMockInteraction interaction) {
+    while (interaction instanceof MockInteractionDecorator) {
+      interaction = ((MockInteractionDecorator) interaction).decorated;
+    }
+    return interaction;
+  }
+
+  // all arrays hold positions in ascending (i.e. registration) order
+  private static class Bucket {
+    final int[] all;
+    final int[] anyMethodName;
+    final Map<String, int[]> byMethodName;
+
+    Bucket(int[] all, int[] anyMethodName, Map<String, int[]> byMethodName) {
+      this.all = all;
+      this.anyMethodName = anyMethodName;
+      this.byMethodName = byMethodName;
+    }
+
+    int[] getByMethodName(String methodName) {
+      int[] positions = byMethodName.get(methodName);
+      return positions == null ? NONE : positions;
+    }
+  }
+
+  private static class BucketBuilder {
+    final List<Integer> all = new ArrayList<>();
+    final List<Integer> anyMethodName = new ArrayList<>();
+    final Map<String, List<Integer>> byMethodName = new HashMap<>();
+
+    void add(String methodName, int position) {
+      all.add(position);
+      if (methodName == null) {
+        anyMethodName.add(position);
+        return;
+      }
+
+      List<Integer> positions = byMethodName.get(methodName);
+      if (positions == null) {
+        positions = new ArrayList<>();
+        byMethodName.put(methodName, positions);
+      }
+      positions.add(position);
+    }
+
+    Bucket build() {
+      Map<String, int[]> byName = new HashMap<>();
+      for (Map.Entry<String, List<Integer>> entry : byMethodName.entrySet()) {
+        byName.put(entry.getKey(), toArray(entry.getValue()));
+      }
+      return new Bucket(toArray(all), toArray(anyMethodName), byName);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+      int[] result = new int[list.size()];
+      for (int i = 0; i < result.length; i++) result[i] = list.get(i);
+      return result;
+    }
+  }
+}
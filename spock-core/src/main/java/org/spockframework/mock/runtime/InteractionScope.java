@@ -17,68 +17,134 @@
 package org.spockframework.mock.runtime;
 
 import org.spockframework.mock.*;
+import org.spockframework.util.ThreadSafe;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A scope for interactions defined outside a then-block
  *
+ * <p>Invocations may be matched concurrently. Matching is done without locking, on an
+ * index over the interactions registered so far. Only recording the invocation with
+ * the matched interaction is serialized, and the interaction's response is generated
+ * outside of any lock.
+ *
  * @author Peter Niederwieser
  */
+@ThreadSafe
 public class InteractionScope implements IInteractionScope {
-  private final List<IMockInteraction> interactions = new ArrayList<>();
-  private final List<IMockInvocation> unmatchedInvocations = new ArrayList<>();
+  /**
+   * The maximum number of unmatched invocations retained for reporting too few invocations.
+   * Beyond that, a random sample of the unmatched invocations is retained.
+   */
+  public static final int MAX_RETAINED_UNMATCHED_INVOCATIONS = 1000;
+
+  private final List<ScopedInteraction> interactions = new ArrayList<>();
+  // guarded by itself
+  private final InvocationReservoir unmatchedInvocations = new InvocationReservoir(MAX_RETAINED_UNMATCHED_INVOCATIONS);
+  private volatile InteractionIndex<ScopedInteraction> index;
   private int currentRegistrationZone = 0;
-  private int currentExecutionZone = 0;
+  private final AtomicInteger currentExecutionZone = new AtomicInteger();
 
   @Override
-  public void addInteraction(IMockInteraction interaction) {
-    interactions.add(new MockInteractionDecorator(interaction) {
-      final int myRegistrationZone = currentRegistrationZone;
-
-      @Override
-      public Object accept(IMockInvocation invocation) {
-        Object result = super.accept(invocation);
-        if (currentExecutionZone > myRegistrationZone)
-          throw new WrongInvocationOrderError(decorated, invocation);
-        currentExecutionZone = myRegistrationZone;
-        return result;
-      }
-    });
+  public synchronized void addInteraction(IMockInteraction interaction) {
+    interactions.add(new ScopedInteraction(interaction, currentRegistrationZone));
+    index = null;
   }
 
   @Override
-  public void addOrderingBarrier() {
+  public synchronized void addOrderingBarrier() {
     currentRegistrationZone++;
   }
 
   @Override
   public void addUnmatchedInvocation(IMockInvocation invocation) {
     if (invocation.getMockObject().isVerified()) {
-      unmatchedInvocations.add(invocation);
+      synchronized (unmatchedInvocations) {
+        unmatchedInvocations.add(invocation);
+      }
     }
   }
 
   @Override
   public IMockInteraction match(IMockInvocation invocation) {
-    IMockInteraction firstMatch = null;
-    for (IMockInteraction interaction : interactions)
-      if (interaction.matches(invocation)) {
-        if (!interaction.isExhausted()) return interaction;
-        if (firstMatch == null) firstMatch = interaction;
-      }
-
-    return firstMatch;
+    return getIndex().match(invocation);
   }
 
   @Override
   public void verifyInteractions() {
     List<IMockInteraction> unsatisfiedInteractions = new ArrayList<>();
 
-    for (IMockInteraction interaction : interactions)
-      if (!interaction.isSatisfied()) unsatisfiedInteractions.add(interaction);
+    synchronized (this) {
+      for (IMockInteraction interaction : interactions)
+        if (!interaction.isSatisfied()) unsatisfiedInteractions.add(interaction);
+    }
+
+    if (unsatisfiedInteractions.isEmpty()) return;
+
+    List<IMockInvocation> unmatched;
+    long unmatchedCount;
+    synchronized (unmatchedInvocations) {
+      unmatched = unmatchedInvocations.toList();
+      unmatchedCount = unmatchedInvocations.getCount();
+    }
+    throw new TooFewInvocationsError(unsatisfiedInteractions, unmatched, unmatchedCount);
+  }
+
+  private InteractionIndex<ScopedInteraction> getIndex() {
+    InteractionIndex<ScopedInteraction> result = index;
+    if (result != null) return result;
+
+    synchronized (this) {
+      if (index == null) index = new InteractionIndex<>(new ArrayList<>(interactions));
+      return index;
+    }
+  }
+
+  private Object accept(ScopedInteraction matched, IMockInvocation invocation) {
+    ScopedInteraction accepting = matched;
+    Object result = null;
+
+    synchronized (this) {
+      // another thread may have exhausted the interaction since it was matched,
+      // in which case a later interaction may now be the first to match
+      if (matched.isExhausted()) {
+        ScopedInteraction rematched = getIndex().match(invocation);
+        if (rematched != null) accepting = rematched;
+      }
+      if (accepting.decorated instanceof MockInteraction) {
+        ((MockInteraction) accepting.decorated).record(invocation);
+      } else {
+        result = accepting.decorated.accept(invocation);
+      }
+    }
+
+    if (accepting.decorated instanceof MockInteraction) {
+      result = ((MockInteraction) accepting.decorated).respond(invocation);
+    }
 
-    if (!unsatisfiedInteractions.isEmpty())
-      throw new TooFewInvocationsError(unsatisfiedInteractions, unmatchedInvocations);
+    while (true) {
+      int executionZone = currentExecutionZone.get();
+      if (executionZone > accepting.registrationZone)
+        throw new WrongInvocationOrderError(accepting.decorated, invocation);
+      if (currentExecutionZone.compareAndSet(executionZone, accepting.registrationZone)) break;
+    }
+
+    return result;
+  }
+
+  private class ScopedInteraction extends MockInteractionDecorator {
+    final int registrationZone;
+
+    ScopedInteraction(IMockInteraction decorated, int registrationZone) {
+      super(decorated);
+      this.registrationZone = registrationZone;
+    }
+
+    @Override
+    public Object accept(IMockInvocation invocation) {
+      return InteractionScope.this.accept(this, invocation);
+    }
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.mock.runtime;
+
+import org.spockframework.mock.IMockInvocation;
+import org.spockframework.util.NotThreadSafe;
+
+import java.util.*;
+
+/**
+ * Counts invocations, and retains a uniform random sample of them, up to a fixed capacity
+ * (reservoir sampling). Until the capacity is reached, all invocations are retained.
+ */
+@NotThreadSafe
+class InvocationReservoir {
+  private final int capacity;
+  private final List<IMockInvocation> samples = new ArrayList<>();
+  private Random random;
+  private long count;
+
+  InvocationReservoir(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    this.capacity = capacity;
+  }
+
+  void add(IMockInvocation invocation) {
+    count++;
+    if (samples.size() < capacity) {
+      samples.add(invocation);
+      return;
+    }
+
+    if (random == null) random = new Random();
+    // replace a random sample with probability capacity / count
+    long slot = (long) (random.nextDouble() * count);
+    if (slot < capacity) samples.set((int) slot, invocation);
+  }
+
+  /**
+   * Returns the number of invocations added so far, including those that aren't retained.
+   */
+  long getCount() {
+    return count;
+  }
+
+  List<IMockInvocation> toList() {
+    return new ArrayList<>(samples);
+  }
+}
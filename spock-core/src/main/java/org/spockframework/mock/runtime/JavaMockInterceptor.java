@@ -16,18 +16,22 @@ package org.spockframework.mock.runtime;
 
 import org.spockframework.mock.*;
 import org.spockframework.runtime.GroovyRuntimeUtil;
+import org.spockframework.util.Nullable;
 import spock.lang.Specification;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import groovy.lang.*;
 
 public class JavaMockInterceptor implements IProxyBasedMockInterceptor {
   private final IMockConfiguration mockConfiguration;
-  private Specification specification;
+  private volatile Specification specification;
   private MockController fallbackMockController;
   private final MetaClass mockMetaClass;
+  private final ConcurrentHashMap<Method, IMockMethod> mockMethods = new ConcurrentHashMap<>();
+  private volatile IMockObject mockObject;
 
   public JavaMockInterceptor(IMockConfiguration mockConfiguration, Specification specification, MetaClass mockMetaClass) {
     this.mockConfiguration = mockConfiguration;
@@ -37,8 +41,8 @@ public class JavaMockInterceptor implements IProxyBasedMockInterceptor {
 
   @Override
   public Object intercept(Object target, Method method, Object[] arguments, IResponseGenerator realMethodInvoker) {
-    IMockObject mockObject = new MockObject(mockConfiguration.getName(), mockConfiguration.getExactType(),
-        target, mockConfiguration.isVerified(), false, mockConfiguration.getDefaultResponse(), specification, this);
+    Specification specification = this.specification;
+    IMockObject mockObject = getMockObject(target, specification);
 
     if (method.getDeclaringClass() == ISpockMockObject.class) {
       return mockObject;
@@ -64,7 +68,7 @@ public class JavaMockInterceptor implements IProxyBasedMockInterceptor {
       }
     }
 
-    IMockMethod mockMethod = new StaticMockMethod(method, mockConfiguration.getExactType());
+    IMockMethod mockMethod = getMockMethod(method);
     IMockInvocation invocation = new MockInvocation(mockObject, mockMethod, Arrays.asList(normalizedArgs), realMethodInvoker);
     IMockController mockController = specification == null ? getFallbackMockController() :
                                                              specification.getSpecificationContext().getMockController();
@@ -72,6 +76,26 @@ public class JavaMockInterceptor implements IProxyBasedMockInterceptor {
     return mockController.handle(invocation);
   }
 
+  // a mock object is created once per mock instance and attached specification
+  private IMockObject getMockObject(Object target, @Nullable Specification specification) {
+    IMockObject result = mockObject;
+    if (result == null || result.getInstance() != target || result.getSpecification() != specification) {
+      result = new MockObject(mockConfiguration.getName(), mockConfiguration.getExactType(),
+          target, mockConfiguration.isVerified(), false, mockConfiguration.getDefaultResponse(), specification, this);
+      mockObject = result;
+    }
+    return result;
+  }
+
+  private IMockMethod getMockMethod(Method method) {
+    IMockMethod result = mockMethods.get(method);
+    if (result == null) {
+      result = new StaticMockMethod(method, mockConfiguration.getExactType());
+      mockMethods.putIfAbsent(method, result);
+    }
+    return result;
+  }
+
   private boolean isMethod(Method method, String name, Class<?>... parameterTypes) {
     return method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), parameterTypes);
   }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.mock.runtime;
+
+import org.spockframework.util.Beta;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Fills a {@link PersistentMockClassCache} ahead of time, so that test runs (and in
+ * particular parallel test forks) don't have to generate mock classes themselves.
+ * Must be run with the test runtime class path.
+ *
+ * <p>Usage: {@code MockClassPregenerator <cache directory> <mocked type>...}
+ */
+@Beta
+public class MockClassPregenerator {
+  public static void main(String[] args) throws ClassNotFoundException {
+    if (args.length < 1) {
+      System.err.println("Usage: MockClassPregenerator <cache directory> <mocked type>...");
+      System.exit(1);
+    }
+
+    PersistentMockClassCache cache = new PersistentMockClassCache(new File(args[0]));
+    int generated = pregenerate(cache, Arrays.asList(args).subList(1, args.length));
+    System.out.println(String.format("Generated %d mock classes in %s", generated, cache.getDirectory()));
+  }
+
+  public static int pregenerate(PersistentMockClassCache cache, List<String> mockedTypes) throws ClassNotFoundException {
+    ClassLoader classLoader = MockClassPregenerator.class.getClassLoader();
+    int generated = 0;
+    for (String typeName : mockedTypes) {
+      Class<?> type = Class.forName(typeName, false, classLoader);
+      if (ProxyBasedMockFactory.INSTANCE.pregenerate(type, Collections.<Class<?>>emptyList(), cache)) {
+        generated++;
+      }
+    }
+    return generated;
+  }
+}
@@ -19,21 +19,26 @@ package org.spockframework.mock.runtime;
 import org.spockframework.mock.*;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
+ * Dispatches mock invocations to the interactions of the currently active scopes.
+ * Invocations are handled without holding a controller-wide lock, so that mocks may
+ * be called from many threads at once. Scopes are entered and left by the spec's
+ * thread only, and are published to invoking threads as an immutable snapshot.
+ *
  * @author Peter Niederwieser
  */
 public class MockController implements IMockController {
-  private final Deque<IInteractionScope> scopes = new LinkedList<>();
-  private final List<InteractionNotSatisfiedError> errors = new ArrayList<>();
-
-  public MockController() {
-    scopes.addFirst(new InteractionScope());
-  }
+  // innermost scope first
+  private volatile List<IInteractionScope> scopes =
+      Collections.<IInteractionScope>singletonList(new InteractionScope());
+  private final List<InteractionNotSatisfiedError> errors = new CopyOnWriteArrayList<>();
 
   @Override
-  public synchronized Object handle(IMockInvocation invocation) {
-    for (IInteractionScope scope : scopes) {
+  public Object handle(IMockInvocation invocation) {
+    List<IInteractionScope> currentScopes = scopes;
+    for (IInteractionScope scope : currentScopes) {
       IMockInteraction interaction = scope.match(invocation);
       if (interaction != null) {
         try {
@@ -44,7 +49,7 @@ public class MockController implements IMockController {
         }
       }
     }
-    for (IInteractionScope scope : scopes) {
+    for (IInteractionScope scope : currentScopes) {
       scope.addUnmatchedInvocation(invocation);
     }
     return invocation.getMockObject().getDefaultResponse().respond(invocation);
@@ -53,27 +58,31 @@ public class MockController implements IMockController {
   public static final String ADD_INTERACTION = "addInteraction";
 
   public synchronized void addInteraction(IMockInteraction interaction) {
-    scopes.getFirst().addInteraction(interaction);
+    scopes.get(0).addInteraction(interaction);
   }
 
   public static final String ADD_BARRIER = "addBarrier";
 
   public synchronized void addBarrier() {
-    scopes.getFirst().addOrderingBarrier();
+    scopes.get(0).addOrderingBarrier();
   }
 
   public static final String ENTER_SCOPE = "enterScope";
 
   public synchronized void enterScope() {
     throwAnyPreviousError();
-    scopes.addFirst(new InteractionScope());
+    List<IInteractionScope> newScopes = new ArrayList<>(scopes.size() + 1);
+    newScopes.add(new InteractionScope());
+    newScopes.addAll(scopes);
+    scopes = Collections.unmodifiableList(newScopes);
   }
 
   public static final String LEAVE_SCOPE = "leaveScope";
 
   public synchronized void leaveScope() {
     throwAnyPreviousError();
-    IInteractionScope scope = scopes.removeFirst();
+    IInteractionScope scope = scopes.get(0);
+    scopes = Collections.unmodifiableList(new ArrayList<>(scopes.subList(1, scopes.size())));
     scope.verifyInteractions();
   }
 
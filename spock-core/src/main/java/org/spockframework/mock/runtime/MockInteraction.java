@@ -23,9 +23,16 @@ import java.util.*;
 /**
  * An anticipated interaction between the SUT and one or more mock objects.
  *
+ * <p>Accepted invocations are counted, but only the most recent ones are retained:
+ * all of them if the interaction's cardinality has an upper bound of less than
+ * {@link #MAX_RETAINED_INVOCATIONS}, and that many otherwise. This keeps the memory
+ * of interactions like {@code _ * repo.save(_)} bounded, however often they are invoked.
+ *
  * @author Peter Niederwieser
  */
 public class MockInteraction implements IMockInteraction {
+  public static final int MAX_RETAINED_INVOCATIONS = 1000;
+
   private final int line;
   private final int column;
   private final String text;
@@ -34,7 +41,8 @@ public class MockInteraction implements IMockInteraction {
   private final List<IInvocationConstraint> constraints;
   private final IResponseGenerator responseGenerator;
 
-  private final List<IMockInvocation> acceptedInvocations = new ArrayList<>();
+  // guarded by itself
+  private final RecentInvocations acceptedInvocations;
 
   public MockInteraction(int line, int column, String text, int minCount,
       int maxCount, List<IInvocationConstraint> constraints,
@@ -46,6 +54,8 @@ public class MockInteraction implements IMockInteraction {
     this.maxCount = maxCount;
     this.constraints = constraints;
     this.responseGenerator = responseGenerator;
+    // one more than maxCount, so that all accepted invocations can be shown when there are too many
+    acceptedInvocations = new RecentInvocations((int) Math.min(maxCount + 1L, MAX_RETAINED_INVOCATIONS));
 
     for (IInvocationConstraint constraint : constraints) {
       if (constraint instanceof IInteractionAware) {
@@ -64,17 +74,37 @@ public class MockInteraction implements IMockInteraction {
 
   @Override
   public Object accept(IMockInvocation invocation) {
-    acceptedInvocations.add(invocation);
-    if (acceptedInvocations.size() > maxCount) {
-      throw new TooManyInvocationsError(this, acceptedInvocations);
+    record(invocation);
+    return respond(invocation);
+  }
+
+  // recording and responding are separate steps so that
+  // responses can be generated without holding any locks
+  void record(IMockInvocation invocation) {
+    synchronized (acceptedInvocations) {
+      acceptedInvocations.add(invocation);
+      if (acceptedInvocations.getCount() > maxCount) {
+        throw new TooManyInvocationsError(this, acceptedInvocations.toList(), acceptedInvocations.getCount());
+      }
     }
+  }
 
+  Object respond(IMockInvocation invocation) {
     return responseGenerator == null ? null : responseGenerator.respond(invocation);
   }
 
+  List<IInvocationConstraint> getConstraints() {
+    return constraints;
+  }
+
+  /**
+   * Returns a snapshot of the retained accepted invocations, oldest first.
+   */
   @Override
   public List<IMockInvocation> getAcceptedInvocations() {
-    return acceptedInvocations;
+    synchronized (acceptedInvocations) {
+      return acceptedInvocations.toList();
+    }
   }
 
   @Override
@@ -100,12 +130,12 @@ public class MockInteraction implements IMockInteraction {
 
   @Override
   public boolean isSatisfied() {
-    return acceptedInvocations.size() >= minCount;
+    return getAcceptedCount() >= minCount;
   }
 
   @Override
   public boolean isExhausted() {
-    return acceptedInvocations.size() >= maxCount;
+    return getAcceptedCount() >= maxCount;
   }
 
   @Override
@@ -129,7 +159,17 @@ public class MockInteraction implements IMockInteraction {
   }
 
   public String toString() {
-    return String.format("%s   (%d %s)", text, acceptedInvocations.size(), acceptedInvocations.size() == 1 ? "invocation" : "invocations");
+    long count = getAcceptedCount();
+    return String.format("%s   (%d %s)", text, count, count == 1 ? "invocation" : "invocations");
+  }
+
+  /**
+   * Returns the number of accepted invocations, including those that are no longer retained.
+   */
+  public long getAcceptedCount() {
+    synchronized (acceptedInvocations) {
+      return acceptedInvocations.getCount();
+    }
   }
 }
 
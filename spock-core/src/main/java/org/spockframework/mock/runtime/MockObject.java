@@ -72,6 +72,10 @@ public class MockObject implements IMockObject {
     return verified;
   }
 
+  public boolean isGlobal() {
+    return global;
+  }
+
   @Override
   public IDefaultResponse getDefaultResponse() {
     return defaultResponse;
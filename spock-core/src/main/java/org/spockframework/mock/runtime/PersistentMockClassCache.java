@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.mock.runtime;
+
+import org.spockframework.mock.ISpockMockObject;
+import org.spockframework.util.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.implementation.LoadedTypeInitializer;
+
+/**
+ * An on-disk cache for the classes that Byte Buddy generates for class based mocks,
+ * so that they need not be generated again in every JVM. Entries are keyed by
+ * a hash over the byte code of the mocked type and all of its supertypes, the
+ * additional interfaces, and the Spock and Byte Buddy versions. Hence changing
+ * a mocked type, or upgrading, never reuses stale classes. Each entry holds the
+ * mock class and its auxiliary classes, which are loaded into a new child class
+ * loader of the mocked type's class loader, just like freshly generated classes.
+ *
+ * <p>The cache is disabled by default. It is enabled with the system property
+ * {@code spock.mockClassCache}, set to {@code true} to use the
+ * {@code MockClassCache} directory in the Spock user home, or to the path of
+ * another directory. Entries can be generated ahead of time with
+ * {@link MockClassPregenerator}.
+ */
+@Beta
+@ThreadSafe
+public class PersistentMockClassCache {
+  private static final String FILE_EXTENSION = ".mock";
+  private static final int FORMAT_VERSION = 1;
+
+  private static volatile PersistentMockClassCache defaultCache;
+  private static volatile boolean defaultCacheInitialized;
+
+  private final File directory;
+
+  public PersistentMockClassCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the cache configured with the {@code spock.mockClassCache} system property,
+   * or {@code null} if the cache is disabled.
+   */
+  @Nullable
+  public static PersistentMockClassCache getDefault() {
+    if (!defaultCacheInitialized) {
+      synchronized (PersistentMockClassCache.class) {
+        if (!defaultCacheInitialized) {
+          defaultCache = createDefault(System.getProperty("spock.mockClassCache"));
+          defaultCacheInitialized = true;
+        }
+      }
+    }
+    return defaultCache;
+  }
+
+  private static PersistentMockClassCache createDefault(@Nullable String setting) {
+    if (setting == null || setting.isEmpty() || "false".equalsIgnoreCase(setting)) return null;
+    if ("true".equalsIgnoreCase(setting)) {
+      return new PersistentMockClassCache(SpockUserHomeUtil.getFileInSpockUserHome("MockClassCache"));
+    }
+    return new PersistentMockClassCache(new File(setting));
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Computes the key for a mock of the given type, or returns {@code null}
+   * if the byte code of some involved type isn't available.
+   */
+  @Nullable
+  public String computeKey(Class<?> type, List<Class<?>> additionalInterfaces) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+
+    update(digest, FORMAT_VERSION + ":" + SpockReleaseInfo.getVersion() + ":" + getByteBuddyVersion());
+    Set<Class<?>> types = new LinkedHashSet<>();
+    collectTypes(type, types);
+    for (Class<?> additionalInterface : additionalInterfaces) {
+      update(digest, "+");
+      collectTypes(additionalInterface, types);
+    }
+    collectTypes(ISpockMockObject.class, types);
+    collectTypes(ByteBuddyInterceptorAdapter.class, types);
+
+    for (Class<?> clazz : types) {
+      update(digest, clazz.getName());
+      byte[] bytes = readByteCode(clazz);
+      if (bytes == null) return null;
+      digest.update(bytes);
+    }
+
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Loads the mock class with the given key into a new child class loader of the
+   * given class loader, or returns {@code null} if there is no (valid) entry for the key.
+   */
+  @Nullable
+  public Class<?> load(String key, ClassLoader classLoader) {
+    File file = getFile(key);
+    if (!file.isFile()) return null;
+
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != FORMAT_VERSION) return null;
+      String mockTypeName = in.readUTF();
+      int typeCount = in.readInt();
+      Map<String, byte[]> types = new LinkedHashMap<>();
+      for (int i = 0; i < typeCount; i++) {
+        String name = in.readUTF();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        types.put(name, bytes);
+      }
+      return Class.forName(mockTypeName, false, new ByteArrayClassLoader(classLoader, types));
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      // a corrupt or incompatible entry; the mock class will be generated instead
+      return null;
+    } finally {
+      IoUtil.closeQuietly(in);
+    }
+  }
+
+  /**
+   * Stores the given mock class and its auxiliary classes under the given key. Mock classes
+   * that need to be initialized after loading can't be stored and are ignored. Failures to
+   * write the entry are ignored as well, as the cache is only an optimization.
+   */
+  public void store(String key, DynamicType.Unloaded<?> mockType) {
+    for (LoadedTypeInitializer initializer : mockType.getLoadedTypeInitializers().values()) {
+      if (initializer.isAlive()) return;
+    }
+
+    File file = getFile(key);
+    File tempFile = null;
+    DataOutputStream out = null;
+    try {
+      IoUtil.createDirectory(directory);
+      tempFile = File.createTempFile(key, ".tmp", directory);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(mockType.getTypeDescription().getName());
+      Map<TypeDescription, byte[]> types = mockType.getAllTypes();
+      out.writeInt(types.size());
+      for (Map.Entry<TypeDescription, byte[]> entry : types.entrySet()) {
+        out.writeUTF(entry.getKey().getName());
+        out.writeInt(entry.getValue().length);
+        out.write(entry.getValue());
+      }
+      out.close();
+      out = null;
+      // other JVMs may store the same entry at the same time; last one wins
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      tempFile = null;
+    } catch (IOException ignored) {
+      // not worth failing the test for
+    } finally {
+      IoUtil.closeQuietly(out);
+      if (tempFile != null) tempFile.delete();
+    }
+  }
+
+  private File getFile(String key) {
+    return new File(directory, key + FILE_EXTENSION);
+  }
+
+  private static void collectTypes(@Nullable Class<?> type, Set<Class<?>> types) {
+    if (type == null || !types.add(type)) return;
+    collectTypes(type.getSuperclass(), types);
+    for (Class<?> implemented : type.getInterfaces()) {
+      collectTypes(implemented, types);
+    }
+  }
+
+  @Nullable
+  private static byte[] readByteCode(Class<?> type) {
+    ClassLoader classLoader = type.getClassLoader();
+    if (classLoader == null) classLoader = ClassLoader.getSystemClassLoader();
+    InputStream in = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+    if (in == null) return null;
+
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      IoUtil.copyStream(in, out);
+      return out.toByteArray();
+    } catch (IOException e) {
+      return null;
+    } finally {
+      IoUtil.closeQuietly(in);
+    }
+  }
+
+  private static String getByteBuddyVersion() {
+    String version = ByteBuddy.class.getPackage().getImplementationVersion();
+    return version == null ? "unknown" : version;
+  }
+
+  private static void update(MessageDigest digest, String text) {
+    try {
+      digest.update(text.getBytes("UTF-8"));
+    } catch (UnsupportedEncodingException e) {
+      throw new InternalSpockError(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+      builder.append(Character.forDigit(b & 0xf, 16));
+    }
+    return builder.toString();
+  }
+}
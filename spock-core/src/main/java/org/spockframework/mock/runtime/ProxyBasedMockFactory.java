@@ -25,6 +25,7 @@ import java.util.concurrent.Callable;
 
 import net.bytebuddy.*;
 import net.bytebuddy.description.modifier.*;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.Transformer;
 import net.bytebuddy.dynamic.scaffold.TypeValidation;
 import net.bytebuddy.implementation.*;
@@ -68,6 +69,22 @@ public class ProxyBasedMockFactory {
     return proxy;
   }
 
+  /**
+   * Generates the mock class for the given type and stores it in the given
+   * persistent cache, unless the cache already contains it.
+   *
+   * @return whether a mock class was generated and stored
+   */
+  @Beta
+  public boolean pregenerate(Class<?> mockType, List<Class<?>> additionalInterfaces,
+      PersistentMockClassCache cache) throws CannotCreateMockException {
+    if (mockType.isInterface()) return false; // dynamic proxies are cheap to create
+    if (!byteBuddyAvailable) {
+      throw new CannotCreateMockException(mockType, ". Pre-generating mock classes requires byte-buddy on the class path.");
+    }
+    return ByteBuddyMockFactory.pregenerate(mockType, additionalInterfaces, cache);
+  }
+
   private Object createDynamicProxyMock(Class<?> mockType, List<Class<?>> additionalInterfaces,
       List<Object> constructorArgs, IProxyBasedMockInterceptor mockInterceptor, ClassLoader classLoader) {
     if (constructorArgs != null) {
@@ -102,24 +119,7 @@ public class ProxyBasedMockFactory {
         new Callable<Class<?>>() {
           @Override
           public Class<?> call() throws Exception {
-            return new ByteBuddy()
-              .with(new NamingStrategy.SuffixingRandom("SpockMock"))
-              .with(TypeValidation.DISABLED) // https://github.com/spockframework/spock/issues/776
-              .ignore(none())
-              .subclass(type)
-              .implement(additionalInterfaces)
-              .implement(ISpockMockObject.class)
-              .method(any())
-              .intercept(MethodDelegation.withDefaultConfiguration()
-                .withBinders(Morph.Binder.install(ByteBuddyInvoker.class))
-                .to(ByteBuddyInterceptorAdapter.class))
-              .transform(Transformer.ForMethod.withModifiers(SynchronizationState.PLAIN, Visibility.PUBLIC)) // Overridden methods should be public and non-synchronized.
-              .implement(ByteBuddyInterceptorAdapter.InterceptorAccess.class)
-              .intercept(FieldAccessor.ofField("$spock_interceptor"))
-              .defineField("$spock_interceptor", IProxyBasedMockInterceptor.class, Visibility.PRIVATE)
-              .make()
-              .load(classLoader)
-              .getLoaded();
+            return loadOrMakeMockType(type, additionalInterfaces, classLoader);
           }
         }, CACHE);
 
@@ -127,6 +127,49 @@ public class ProxyBasedMockFactory {
       ((ByteBuddyInterceptorAdapter.InterceptorAccess) proxy).$spock_set(interceptor);
       return proxy;
     }
+
+    static boolean pregenerate(Class<?> type, List<Class<?>> additionalInterfaces, PersistentMockClassCache cache) {
+      String key = cache.computeKey(type, additionalInterfaces);
+      if (key == null) return false;
+
+      ClassLoader classLoader = type.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : type.getClassLoader();
+      if (cache.load(key, classLoader) != null) return false;
+
+      cache.store(key, makeMockType(type, additionalInterfaces));
+      return true;
+    }
+
+    private static Class<?> loadOrMakeMockType(Class<?> type, List<Class<?>> additionalInterfaces, ClassLoader classLoader) {
+      PersistentMockClassCache persistentCache = PersistentMockClassCache.getDefault();
+      String key = persistentCache == null ? null : persistentCache.computeKey(type, additionalInterfaces);
+      if (key != null) {
+        Class<?> cached = persistentCache.load(key, classLoader);
+        if (cached != null) return cached;
+      }
+
+      DynamicType.Unloaded<?> mockType = makeMockType(type, additionalInterfaces);
+      if (key != null) persistentCache.store(key, mockType);
+      return mockType.load(classLoader).getLoaded();
+    }
+
+    private static DynamicType.Unloaded<?> makeMockType(Class<?> type, List<Class<?>> additionalInterfaces) {
+      return new ByteBuddy()
+        .with(new NamingStrategy.SuffixingRandom("SpockMock"))
+        .with(TypeValidation.DISABLED) // https://github.com/spockframework/spock/issues/776
+        .ignore(none())
+        .subclass(type)
+        .implement(additionalInterfaces)
+        .implement(ISpockMockObject.class)
+        .method(any())
+        .intercept(MethodDelegation.withDefaultConfiguration()
+          .withBinders(Morph.Binder.install(ByteBuddyInvoker.class))
+          .to(ByteBuddyInterceptorAdapter.class))
+        .transform(Transformer.ForMethod.withModifiers(SynchronizationState.PLAIN, Visibility.PUBLIC)) // Overridden methods should be public and non-synchronized.
+        .implement(ByteBuddyInterceptorAdapter.InterceptorAccess.class)
+        .intercept(FieldAccessor.ofField("$spock_interceptor"))
+        .defineField("$spock_interceptor", IProxyBasedMockInterceptor.class, Visibility.PRIVATE)
+        .make();
+    }
   }
 
   // inner class to defer class loading
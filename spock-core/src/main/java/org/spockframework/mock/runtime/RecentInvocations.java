@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.mock.runtime;
+
+import org.spockframework.mock.IMockInvocation;
+import org.spockframework.util.NotThreadSafe;
+
+import java.util.*;
+
+/**
+ * Counts invocations, but only retains the most recent ones, up to a fixed capacity.
+ * Storage grows with the number of retained invocations, hence a large capacity
+ * costs nothing as long as few invocations are added.
+ */
+@NotThreadSafe
+class RecentInvocations {
+  private static final IMockInvocation[] EMPTY = new IMockInvocation[0];
+
+  private final int capacity;
+  private IMockInvocation[] buffer = EMPTY;
+  private int next;
+  private int size;
+  private long count;
+
+  RecentInvocations(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    this.capacity = capacity;
+  }
+
+  void add(IMockInvocation invocation) {
+    count++;
+    if (size < capacity) {
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.min(capacity, Math.max(4, size * 2)));
+      }
+      buffer[size++] = invocation;
+      next = size % capacity;
+      return;
+    }
+    buffer[next] = invocation;
+    next = (next + 1) % capacity;
+  }
+
+  /**
+   * Returns the number of invocations added so far, including those that are no longer retained.
+   */
+  long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the retained invocations, oldest first.
+   */
+  List<IMockInvocation> toList() {
+    List<IMockInvocation> result = new ArrayList<>(size);
+    if (size < capacity) {
+      result.addAll(Arrays.asList(buffer).subList(0, size));
+    } else {
+      for (int i = 0; i < size; i++) result.add(buffer[(next + i) % capacity]);
+    }
+    return result;
+  }
+}
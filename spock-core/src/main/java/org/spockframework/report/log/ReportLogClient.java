@@ -14,77 +14,566 @@
 
 package org.spockframework.report.log;
 
-import org.spockframework.runtime.extension.ExtensionException;
 import org.spockframework.util.*;
 
 import java.io.*;
-import java.net.Socket;
-import java.util.Map;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Sends report log events to a report server. Each event is sent as a line of JSON, preceded by
+ * a line holding the size of the JSON in bytes. Events are serialized into reusable buffers, and
+ * sent in batches: once the send buffer is full, or once the flush interval has elapsed. The
+ * connection is non-blocking, hence a slow or unavailable report server never holds up the caller.
+ *
+ * <p>If the connection can't be established or gets lost, the client reconnects with exponential
+ * backoff. In the meantime, events that don't fit into the send buffer are appended to a local spill
+ * file, and are sent once the connection has been reestablished. Events only get dropped if the spill
+ * file has reached its maximum size. An event that was partially sent when the connection got lost
+ * is sent again as a whole.
+ *
+ * <p>Events that still haven't been sent when the client is stopped are kept in a file in the spill
+ * directory, and are sent by the next client for the same report server once it is started, before
+ * any of its own events. If several clients start at once, each kept file is sent by one of them.
+ */
+@ThreadSafe
 public class ReportLogClient implements IReportLogListener, IStoppable {
+  public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+  public static final long DEFAULT_FLUSH_INTERVAL = 100;
+  public static final long DEFAULT_MAX_SPILL_SIZE = 64 * 1024 * 1024;
+
+  private static final long MIN_BACKOFF = 100;
+  private static final long MAX_BACKOFF = 10000;
+  private static final long STOP_TIMEOUT = 5000;
+  private static final String SPILL_SUFFIX = ".spill";
+  private static final String KEPT_SUFFIX = ".kept";
+
   private final String reportServerAddress;
   private final int reportServerPort;
 
-  private Socket socket;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+  private long maxSpillSize = DEFAULT_MAX_SPILL_SIZE;
+  private File spillDir = new File(System.getProperty("java.io.tmpdir"));
+
+  // reused for serializing every event
+  private final MessageBuffer messageBuffer = new MessageBuffer();
+  private final Writer messageWriter = new OutputStreamWriter(messageBuffer, Charset.forName("utf-8"));
+  private final JsonWriter jsonWriter = new JsonWriter(messageWriter);
+  private final ByteBuffer header = ByteBuffer.allocate(16);
+  private final ByteBuffer probe = ByteBuffer.allocate(64);
+
+  // holds whole messages; those before position 'sent' have already been written to the channel
+  private ByteBuffer buffer;
+  private int sent;
+  private long firstPendingTime;
+  @Nullable
+  private SpillFile spillFile;
+
+  @Nullable
+  private SocketChannel channel;
+  private long nextConnectTime;
+  private long backoff = MIN_BACKOFF;
+
+  private long droppedEvents;
+  private volatile boolean stopped;
+  private Thread flusher;
 
   public ReportLogClient(String reportServerAddress, int reportServerPort) {
     this.reportServerAddress = reportServerAddress;
     this.reportServerPort = reportServerPort;
   }
 
+  /**
+   * Sets the size of the send buffer in bytes. Events are sent once the buffer is full,
+   * unless the flush interval elapses first. Defaults to {@value #DEFAULT_BATCH_SIZE}.
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets the maximum time in milliseconds that events are held back before they are sent.
+   * If zero, every event is sent right away. Defaults to {@value #DEFAULT_FLUSH_INTERVAL}.
+   */
+  public void setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  /**
+   * Sets the maximum size in bytes of the file that holds events while the report server
+   * is unavailable. Defaults to {@value #DEFAULT_MAX_SPILL_SIZE}.
+   */
+  public void setMaxSpillSize(long maxSpillSize) {
+    this.maxSpillSize = maxSpillSize;
+  }
+
+  /**
+   * Sets the directory that holds the spill file, and the events that couldn't be sent before
+   * the client was stopped. Defaults to the directory for temporary files.
+   */
+  public void setSpillDir(File spillDir) {
+    this.spillDir = spillDir;
+  }
+
+  /**
+   * Returns the number of events that were dropped because the spill file was full
+   * or couldn't be written.
+   */
+  public synchronized long getDroppedEvents() {
+    return droppedEvents;
+  }
+
   public void start() {
-    try {
-      socket = new Socket(reportServerAddress, reportServerPort);
-    } catch (IOException e) {
-      throw new ExtensionException(String.format("Error opening connection to report server. " +
-          "Server address: %s Server port: %d", reportServerAddress, reportServerPort), e);
+    synchronized (this) {
+      buffer = ByteBuffer.allocateDirect(batchSize);
+      takeOverKeptMessages();
+      ensureConnected();
+    }
+
+    if (flushInterval > 0) {
+      flusher = new Thread(new Flusher(), "spock-report-log-client-flusher");
+      flusher.setDaemon(true);
+      flusher.start();
     }
   }
 
   @Override
   public void stop() {
-    IoUtil.closeQuietly(socket);
+    stopped = true;
+    if (flusher != null) {
+      flusher.interrupt();
+    }
+
+    synchronized (this) {
+      if (buffer == null) return;
+
+      // give the report server a last chance to receive pending events
+      long deadline = now() + STOP_TIMEOUT;
+      while (hasPendingMessages() && now() < deadline) {
+        send();
+        if (!hasPendingMessages()) break;
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+
+      IoUtil.closeQuietly(channel);
+      channel = null;
+      keepPendingMessages();
+      if (spillFile != null) {
+        spillFile.delete();
+        spillFile = null;
+      }
+    }
   }
 
-  // TODO: reuse buffers?
   @Override
-  public void emitted(Map<String, Object>log)  {
-    if (socket == null) return;
+  public synchronized void emitted(Map<String, Object> log) {
+    if (buffer == null || stopped) return;
 
-    ByteArrayOutputStream messageBuffer = new ByteArrayOutputStream(1024);
-    Writer messageWriter = null;
+    serialize(log);
+    enqueue();
+    if (flushInterval <= 0 || sent < buffer.position() && now() - firstPendingTime >= flushInterval) {
+      send();
+    }
+  }
+
+  /**
+   * Sends as many pending events as the connection accepts without blocking.
+   */
+  public synchronized void flush() {
+    if (buffer == null) return;
+    send();
+  }
+
+  private void serialize(Map<String, Object> log) {
+    messageBuffer.reset();
     try {
-      messageWriter = new OutputStreamWriter(messageBuffer, "utf-8");
-      JsonWriter jsonWriter = new JsonWriter(messageWriter);
       jsonWriter.write(log);
       messageWriter.write("\n");
+      messageWriter.flush();
     } catch (IOException e) {
       throw new InternalSpockError(e);
-    } finally {
-      IoUtil.closeQuietly(messageWriter);
+    }
+  }
+
+  private void enqueue() {
+    int messageLength = getMessageLength(messageBuffer.size());
+
+    if (!hasSpilledMessages()) {
+      if (buffer.remaining() < messageLength) {
+        send();
+      }
+      if (buffer.position() == 0 && buffer.capacity() < messageLength) {
+        buffer = ByteBuffer.allocateDirect(messageLength);
+      }
+      if (buffer.remaining() >= messageLength) {
+        if (sent == buffer.position()) {
+          firstPendingTime = now();
+        }
+        putHeader(buffer, messageBuffer.size());
+        buffer.put(messageBuffer.getBytes(), 0, messageBuffer.size());
+        return;
+      }
     }
 
-    ByteArrayOutputStream sizeBuffer = new ByteArrayOutputStream();
-    Writer sizeWriter = null;
+    spill(messageLength);
+  }
+
+  private void spill(int messageLength) {
     try {
-      sizeWriter = new OutputStreamWriter(sizeBuffer, "utf-8");
-      sizeWriter.write(String.valueOf(messageBuffer.size()));
-      sizeWriter.write("\n");
+      if (spillFile == null) {
+        spillFile = new SpillFile(spillDir, getSpillFilePrefix());
+      }
+      if (spillFile.getSize() + messageLength > maxSpillSize) {
+        droppedEvents++;
+        return;
+      }
+      header.clear();
+      putHeader(header, messageBuffer.size());
+      header.flip();
+      spillFile.append(header, ByteBuffer.wrap(messageBuffer.getBytes(), 0, messageBuffer.size()));
     } catch (IOException e) {
-      throw new InternalSpockError(e);
-    } finally {
-      IoUtil.closeQuietly(sizeWriter);
+      droppedEvents++;
+    }
+  }
+
+  // pending messages are written to a temporary file first, so that no other client takes over a partial file
+  private void keepPendingMessages() {
+    int resendFrom = getEndOfLastMessage(buffer, sent);
+    if (resendFrom == buffer.position() && !hasSpilledMessages()) return;
+
+    File file = null;
+    FileChannel out = null;
+    try {
+      file = File.createTempFile(getSpillFilePrefix(), ".tmp", spillDir);
+      out = new FileOutputStream(file).getChannel();
+      ByteBuffer pending = buffer.duplicate();
+      pending.flip();
+      pending.position(resendFrom);
+      while (pending.hasRemaining()) {
+        out.write(pending);
+      }
+      if (spillFile != null) {
+        spillFile.transferTo(out);
+      }
+      out.close();
+      String name = file.getName();
+      Files.move(file.toPath(), file.toPath().resolveSibling(
+          name.substring(0, name.length() - ".tmp".length()) + KEPT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      IoUtil.closeQuietly(out);
+      if (file != null) file.delete();
+    }
+  }
+
+  // kept files are renamed before they are read, so that each of them is taken over by a single client
+  private void takeOverKeptMessages() {
+    final String prefix = getSpillFilePrefix();
+    File[] keptFiles = spillDir.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith(prefix) && name.endsWith(KEPT_SUFFIX);
+      }
+    });
+    if (keptFiles == null) return;
+
+    Arrays.sort(keptFiles, new Comparator<File>() {
+      @Override
+      public int compare(File file1, File file2) {
+        return Long.compare(file1.lastModified(), file2.lastModified());
+      }
+    });
+    for (File keptFile : keptFiles) {
+      File takenOver = null;
+      try {
+        takenOver = File.createTempFile(prefix, ".taken", spillDir);
+        Files.move(keptFile.toPath(), takenOver.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        // taken over by another client
+        if (takenOver != null) takenOver.delete();
+        continue;
+      }
+
+      try {
+        if (spillFile == null) {
+          spillFile = new SpillFile(spillDir, prefix);
+        }
+        droppedEvents += spillFile.appendMessages(takenOver, maxSpillSize, header);
+      } catch (IOException ignored) {
+      } finally {
+        takenOver.delete();
+      }
+    }
+  }
+
+  private String getSpillFilePrefix() {
+    return "spock-report-log-" + reportServerAddress.replaceAll("[^A-Za-z0-9.-]", "_") + "-" + reportServerPort + "-";
+  }
+
+  private void send() {
+    if (!ensureConnected()) return;
+
+    try {
+      // the report server never sends anything, hence this only detects a closed connection
+      probe.clear();
+      if (channel.read(probe) < 0) throw new EOFException();
+
+      while (true) {
+        if (sent == buffer.position()) {
+          buffer.clear();
+          sent = 0;
+          if (buffer.capacity() > batchSize) {
+            // a message was larger than the regular buffer
+            buffer = ByteBuffer.allocateDirect(batchSize);
+          }
+          if (!refillFromSpillFile()) return;
+          firstPendingTime = now();
+        }
+
+        ByteBuffer pending = buffer.duplicate();
+        pending.flip();
+        pending.position(sent);
+        channel.write(pending);
+        sent = pending.position();
+        // socket buffer is full; try again later
+        if (sent < buffer.position()) return;
+      }
+    } catch (IOException e) {
+      disconnect();
+    }
+  }
+
+  private boolean refillFromSpillFile() throws IOException {
+    if (!hasSpilledMessages()) return false;
+
+    int messageLength = spillFile.peekMessageLength(header);
+    if (messageLength > buffer.capacity()) {
+      buffer = ByteBuffer.allocateDirect(messageLength);
     }
+    spillFile.read(buffer);
+    return true;
+  }
 
+  private boolean ensureConnected() {
     try {
-      socket.getOutputStream().write(sizeBuffer.toByteArray());
-      socket.getOutputStream().write(messageBuffer.toByteArray());
-      socket.getOutputStream().flush();
-    } catch (Exception e) {
-      IoUtil.closeQuietly(socket);
-      socket = null;
-      throw new ExtensionException("Error sending data to report server. " +
-          "Server address: $reportServerAddress Server port: $reportServerPort", e);
+      if (channel == null) {
+        if (now() < nextConnectTime) return false;
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        if (channel.connect(new InetSocketAddress(reportServerAddress, reportServerPort))) {
+          backoff = MIN_BACKOFF;
+        }
+      }
+      if (channel.isConnectionPending()) {
+        if (!channel.finishConnect()) return false;
+        backoff = MIN_BACKOFF;
+      }
+      return true;
+    } catch (IOException | UnresolvedAddressException e) {
+      disconnect();
+      return false;
+    }
+  }
+
+  private void disconnect() {
+    IoUtil.closeQuietly(channel);
+    channel = null;
+
+    // a partially sent message will be sent again as a whole
+    int resendFrom = getEndOfLastMessage(buffer, sent);
+    buffer.flip();
+    buffer.position(resendFrom);
+    buffer.compact();
+    sent = 0;
+
+    nextConnectTime = now() + backoff;
+    backoff = Math.min(backoff * 2, MAX_BACKOFF);
+  }
+
+  private boolean hasPendingMessages() {
+    return sent < buffer.position() || hasSpilledMessages();
+  }
+
+  private boolean hasSpilledMessages() {
+    return spillFile != null && !spillFile.isEmpty();
+  }
+
+  private static long now() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  private static int getMessageLength(int size) {
+    return getDigitCount(size) + 1 + size;
+  }
+
+  private static int getDigitCount(int size) {
+    int digits = 1;
+    for (int n = size; n >= 10; n /= 10) digits++;
+    return digits;
+  }
+
+  private static void putHeader(ByteBuffer target, int size) {
+    int position = target.position();
+    int digits = getDigitCount(size);
+    for (int i = digits - 1, n = size; i >= 0; i--, n /= 10) {
+      target.put(position + i, (byte) ('0' + n % 10));
+    }
+    target.position(position + digits);
+    target.put((byte) '\n');
+  }
+
+  // returns the end of the last whole message in buffer[0, limit)
+  private static int getEndOfLastMessage(ByteBuffer buffer, int limit) {
+    int end = 0;
+    while (true) {
+      int position = end;
+      int size = 0;
+      while (position < limit && buffer.get(position) != '\n') {
+        size = size * 10 + buffer.get(position++) - '0';
+      }
+      if (position == limit || position + 1 + size > limit) return end;
+      end = position + 1 + size;
+    }
+  }
+
+  private class Flusher implements Runnable {
+    @Override
+    public void run() {
+      while (!stopped) {
+        try {
+          Thread.sleep(flushInterval);
+        } catch (InterruptedException e) {
+          return;
+        }
+        synchronized (ReportLogClient.this) {
+          if (!stopped) send();
+        }
+      }
+    }
+  }
+
+  private static class MessageBuffer extends ByteArrayOutputStream {
+    MessageBuffer() {
+      super(1024);
+    }
+
+    byte[] getBytes() {
+      return buf;
+    }
+  }
+
+  // messages that are read back are removed from the front; the file is truncated once it has been read completely
+  private static class SpillFile {
+    private final File file;
+    private final FileChannel channel;
+    private long readPosition;
+    private long writePosition;
+
+    SpillFile(File dir, String prefix) throws IOException {
+      file = File.createTempFile(prefix, SPILL_SUFFIX, dir);
+      file.deleteOnExit();
+      channel = new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    boolean isEmpty() {
+      return readPosition == writePosition;
+    }
+
+    long getSize() {
+      return writePosition;
+    }
+
+    void append(ByteBuffer... buffers) throws IOException {
+      channel.position(writePosition);
+      for (ByteBuffer buffer : buffers) {
+        while (buffer.hasRemaining()) {
+          writePosition += channel.write(buffer);
+        }
+      }
+    }
+
+    // appends the messages of the given file as long as this file stays within maxSize; returns the number of dropped messages
+    int appendMessages(File source, long maxSize, ByteBuffer scratch) throws IOException {
+      int dropped = 0;
+      FileChannel in = new FileInputStream(source).getChannel();
+      try {
+        long position = 0;
+        long size = in.size();
+        while (position < size) {
+          long end = position + readMessageLength(in, position, scratch);
+          if (end > size) break; // can only happen if the file was written by a different version
+
+          if (writePosition + end - position > maxSize) {
+            dropped++;
+            position = end;
+            continue;
+          }
+          channel.position(writePosition);
+          while (position < end) {
+            long transferred = in.transferTo(position, end - position, channel);
+            position += transferred;
+            writePosition += transferred;
+          }
+        }
+      } finally {
+        IoUtil.closeQuietly(in);
+      }
+      return dropped;
+    }
+
+    int peekMessageLength(ByteBuffer scratch) throws IOException {
+      return readMessageLength(channel, readPosition, scratch);
+    }
+
+    // writes the messages that haven't been read yet to the given channel
+    void transferTo(FileChannel target) throws IOException {
+      long position = readPosition;
+      while (position < writePosition) {
+        position += channel.transferTo(position, writePosition - position, target);
+      }
+    }
+
+    // reads as many whole messages as fit into the given (empty) buffer
+    void read(ByteBuffer buffer) throws IOException {
+      ByteBuffer target = buffer.duplicate();
+      target.limit((int) Math.min(buffer.capacity(), writePosition - readPosition));
+      while (target.hasRemaining()) {
+        if (channel.read(target, readPosition + target.position()) < 0) break;
+      }
+      int end = getEndOfLastMessage(target, target.position());
+      buffer.position(end);
+      readPosition += end;
+
+      if (isEmpty()) {
+        channel.truncate(0);
+        readPosition = 0;
+        writePosition = 0;
+      }
+    }
+
+    void delete() {
+      IoUtil.closeQuietly(channel);
+      file.delete();
+    }
+
+    private static int readMessageLength(FileChannel channel, long position, ByteBuffer scratch) throws IOException {
+      scratch.clear();
+      channel.read(scratch, position);
+      int size = 0;
+      for (int i = 0; i < scratch.position() && scratch.get(i) != '\n'; i++) {
+        size = size * 10 + scratch.get(i) - '0';
+      }
+      return getMessageLength(size);
     }
   }
 }
@@ -20,6 +20,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
 
+import org.spockframework.runtime.AsyncRunListener;
 import org.spockframework.util.IoUtil;
 import org.spockframework.util.Nullable;
 
@@ -33,11 +34,28 @@ public class ReportLogConfiguration {
   public String logFileName = System.getProperty("spock.logFileName");
   public String logFileSuffix = System.getProperty("spock.logFileSuffix");
 
+  // write events as JSON lines as soon as they happen, rather than merging the events of each spec in memory
+  public boolean streaming = Boolean.getBoolean("spock.logStreaming");
+
   public String issueNamePrefix = "";
   public String issueUrlPrefix = "";
 
   public String reportServerAddress = System.getProperty("spock.reportServerAddress");
   public int reportServerPort = Integer.valueOf(System.getProperty("spock.reportServerPort", "4242"));
+  // events are sent in batches of up to reportServerBatchSize bytes, held back for at most reportServerFlushInterval
+  // milliseconds; while the report server is unavailable, they are kept in a file of up to reportServerMaxSpillSize bytes
+  // in reportServerSpillDir (the directory for temporary files by default), where events that haven't been sent by the
+  // end of the run are also kept for the next run
+  public int reportServerBatchSize = ReportLogClient.DEFAULT_BATCH_SIZE;
+  public long reportServerFlushInterval = ReportLogClient.DEFAULT_FLUSH_INTERVAL;
+  public long reportServerMaxSpillSize = ReportLogClient.DEFAULT_MAX_SPILL_SIZE;
+  public String reportServerSpillDir = System.getProperty("spock.reportServerSpillDir");
+
+  // events are handed to the log writer and client on separate threads; by default, standard
+  // stream output gets coalesced or dropped if they fall behind, and test threads only wait
+  // for them to make room for other events
+  public int queueCapacity = AsyncRunListener.DEFAULT_CAPACITY;
+  public AsyncRunListener.OverflowPolicy overflowPolicy = AsyncRunListener.OverflowPolicy.COALESCE;
 
   public String getLogFileSuffix() {
     if (logFileSuffix != null && logFileSuffix.contains("#timestamp")) {
@@ -18,7 +18,7 @@ package org.spockframework.report.log;
 
 import org.spockframework.runtime.*;
 import org.spockframework.runtime.extension.AbstractGlobalExtension;
-import org.spockframework.runtime.model.SpecInfo;
+import org.spockframework.runtime.model.*;
 import org.spockframework.util.IoUtil;
 
 import java.io.File;
@@ -36,21 +36,22 @@ public class ReportLogExtension extends AbstractGlobalExtension {
   @Override
   public void visitSpec(SpecInfo spec) {
     if (!reportConfig.enabled) return;
+    if (logWriterListener == null && logClientListener == null) return;
 
+    // must come first, so that output is reported before the event that ends it
+    spec.addListener(new StreamsFlushingListener());
     if (logWriterListener != null) {
       spec.addListener(logWriterListener);
     }
     if (logClientListener != null) {
       spec.addListener(logClientListener);
     }
-    if (logWriterListener != null || logClientListener != null) {
-      spec.addListener(new AbstractRunListener() {
-        @Override
-        public void beforeSpec(SpecInfo theSpec) {
-          streamsCapturer.start();
-        }
-      });
-    }
+    spec.addListener(new AbstractRunListener() {
+      @Override
+      public void beforeSpec(SpecInfo theSpec) {
+        streamsCapturer.start();
+      }
+    });
   }
 
   @Override
@@ -62,6 +63,7 @@ public class ReportLogExtension extends AbstractGlobalExtension {
       logWriter = new ReportLogWriter(logFile);
       logWriter.setPrefix("loadLogFile(");
       logWriter.setPostfix(")\n\n");
+      logWriter.setStreaming(reportConfig.streaming);
       logWriter.start();
       logWriterListener = createRunListener("spock-report-log-writer", logWriter);
       logWriterListener.start();
@@ -69,6 +71,12 @@ public class ReportLogExtension extends AbstractGlobalExtension {
 
     if (reportConfig.reportServerAddress != null) {
       logClient = new ReportLogClient(reportConfig.reportServerAddress, reportConfig.reportServerPort);
+      logClient.setBatchSize(reportConfig.reportServerBatchSize);
+      logClient.setFlushInterval(reportConfig.reportServerFlushInterval);
+      logClient.setMaxSpillSize(reportConfig.reportServerMaxSpillSize);
+      if (reportConfig.reportServerSpillDir != null) {
+        logClient.setSpillDir(new File(reportConfig.reportServerSpillDir));
+      }
       logClient.start();
       logClientListener = createRunListener("spock-report-log-client", logClient);
       logClientListener.start();
@@ -81,10 +89,50 @@ public class ReportLogExtension extends AbstractGlobalExtension {
     IoUtil.stopQuietly(streamsCapturer, logWriterListener, logWriter, logClientListener, logClient);
   }
 
+  // captured output is reported one line at a time; incomplete lines are
+  // flushed whenever the test thread moves on to another spec, feature, or iteration
+  private class StreamsFlushingListener extends AbstractRunListener {
+    @Override
+    public void beforeSpec(SpecInfo spec) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void beforeFeature(FeatureInfo feature) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void beforeIteration(IterationInfo iteration) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void afterIteration(IterationInfo iteration) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void afterFeature(FeatureInfo feature) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void afterSpec(SpecInfo spec) {
+      streamsCapturer.flush();
+    }
+
+    @Override
+    public void error(ErrorInfo error) {
+      streamsCapturer.flush();
+    }
+  }
+
   private AsyncStandardStreamsListener createRunListener(String name, IReportLogListener logListener) {
     ReportLogEmitter emitter = new ReportLogEmitter();
     emitter.addListener(logListener);
-    AsyncStandardStreamsListener listener = new AsyncStandardStreamsListener(name, emitter, emitter);
+    AsyncStandardStreamsListener listener = new AsyncStandardStreamsListener(name, emitter, emitter,
+        reportConfig.queueCapacity, reportConfig.overflowPolicy);
     streamsCapturer.addStandardStreamsListener(listener);
     return listener;
   }
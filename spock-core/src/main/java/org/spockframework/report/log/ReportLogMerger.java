@@ -16,11 +16,16 @@
 
 package org.spockframework.report.log;
 
-import org.spockframework.util.*;
-
 import java.util.*;
 
-class ReportLogMerger {
+/**
+ * Merges report log events into the log of a spec. Elements of lists whose elements have a name
+ * (features, iterations) are merged by name. To find elements in constant time, a merger keeps an
+ * index of the names in each such list it merged into, and should hence be used for a single spec.
+ */
+public class ReportLogMerger {
+  private final Map<List<Map<String, Object>>, Map<Object, Integer>> nameIndexes = new IdentityHashMap<>();
+
   @SuppressWarnings("unchecked")
   public <T> T merge(T obj, T update) {
     if (obj instanceof Map) {
@@ -58,21 +63,33 @@ class ReportLogMerger {
   }
 
   private List mergeNameIndexed(List<Map<String, Object>> list, List<Map<String, Object>> update) {
-    for (final Map<String, Object> fromElem : update) {
-      int index = CollectionUtil.findIndexOf(list, new IFunction<Map<String, Object>, Boolean>() {
-        @Override
-        public Boolean apply(Map<String, Object> map) {
-          return map.get("name").equals(fromElem.get("name"));
-        }
-      });
+    Map<Object, Integer> nameIndex = getNameIndex(list);
+    for (Map<String, Object> fromElem : update) {
+      Object name = fromElem.get("name");
+      Integer index = nameIndex.get(name);
 
-      if (index != -1) {
+      if (index != null) {
         list.set(index, mergeMap(list.get(index), fromElem));
       } else {
+        nameIndex.put(name, list.size());
         list.add(fromElem);
       }
     }
 
     return list;
   }
+
+  private Map<Object, Integer> getNameIndex(List<Map<String, Object>> list) {
+    Map<Object, Integer> nameIndex = nameIndexes.get(list);
+    if (nameIndex == null) {
+      nameIndex = new HashMap<>();
+      for (int i = 0; i < list.size(); i++) {
+        Object name = list.get(i).get("name");
+        // like a linear search, updates go to the first element with a given name
+        if (!nameIndex.containsKey(name)) nameIndex.put(name, i);
+      }
+      nameIndexes.put(list, nameIndex);
+    }
+    return nameIndex;
+  }
 }
@@ -20,6 +20,12 @@ import org.spockframework.util.*;
 import java.io.*;
 import java.util.*;
 
+/**
+ * Writes the report log to a file. By default, the events of a spec are merged in memory, and the
+ * spec's log is written once the spec has completed. In streaming mode, every event is written as soon
+ * as it is emitted, as a single line of JSON, and nothing is kept in memory. Events of specs that run
+ * concurrently may then be interleaved; {@code HtmlReportGenerator} merges them when generating a report.
+ */
 public class ReportLogWriter implements IReportLogListener, IStoppable {
   private final File logFile;
 
@@ -27,9 +33,9 @@ public class ReportLogWriter implements IReportLogListener, IStoppable {
   private String postfix = "";
   private boolean prettyPrint = true;
   private boolean liveUpdate = true;
+  private boolean streaming = false;
 
-  private final ReportLogMerger logMerger = new ReportLogMerger();
-  private final Map<String, Map<String, Object>> pendingLogs = new HashMap<>();
+  private final Map<String, PendingLog> pendingLogs = new HashMap<>();
   private Writer fileWriter;
   private JsonWriter jsonWriter;
 
@@ -53,6 +59,14 @@ public class ReportLogWriter implements IReportLogListener, IStoppable {
     this.liveUpdate = liveUpdate;
   }
 
+  /**
+   * Sets whether events are written as JSON lines as soon as they are emitted. In streaming mode,
+   * prefix, postfix, and pretty printing do not apply.
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   public void start() {
     logFile.getParentFile().mkdirs();
     try {
@@ -62,14 +76,14 @@ public class ReportLogWriter implements IReportLogListener, IStoppable {
       throw new ExtensionException("Error creating report log file: " + logFile, e);
     }
     jsonWriter = new JsonWriter(fileWriter);
-    jsonWriter.setPrettyPrint(prettyPrint);
+    jsonWriter.setPrettyPrint(prettyPrint && !streaming);
   }
 
   @Override
   public void stop() {
     try {
-      for (Map spec : pendingLogs.values()) {
-        writeLog(spec);
+      for (PendingLog pending : pendingLogs.values()) {
+        writeLog(pending.log);
       }
     } finally {
       IoUtil.closeQuietly(fileWriter);
@@ -78,13 +92,33 @@ public class ReportLogWriter implements IReportLogListener, IStoppable {
 
   @Override
   public void emitted(Map<String, Object> log) {
+    if (streaming) {
+      writeEvent(log);
+      return;
+    }
+
     String key = log.get("package") + "." + log.get("name");
-    Map<String, Object> mergedLog = logMerger.merge(pendingLogs.get(key), log);
-    if (mergedLog.get("result") != null) {
-      writeLog(mergedLog);
+    PendingLog pending = pendingLogs.get(key);
+    if (pending == null) {
+      pending = new PendingLog();
+      pendingLogs.put(key, pending);
+    }
+    pending.log = pending.merger.merge(pending.log, log);
+    if (pending.log.get("result") != null) {
+      writeLog(pending.log);
       pendingLogs.remove(key);
-    } else {
-      pendingLogs.put(key, mergedLog);
+    }
+  }
+
+  private void writeEvent(Map log) {
+    try {
+      jsonWriter.write(log);
+      fileWriter.write("\n");
+      if (liveUpdate) {
+        fileWriter.flush();
+      }
+    } catch (IOException e) {
+      throw new ExtensionException("Error writing to report log file: " + logFile, e);
     }
   }
 
@@ -102,4 +136,9 @@ public class ReportLogWriter implements IReportLogListener, IStoppable {
       throw new ExtensionException("Error writing to report log file: " + logFile, e);
     }
   }
+
+  private static class PendingLog {
+    final ReportLogMerger merger = new ReportLogMerger();
+    Map<String, Object> log;
+  }
 }
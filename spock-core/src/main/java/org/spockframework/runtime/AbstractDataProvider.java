@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.Beta;
+
+/**
+ * Base class for {@link IDataProvider}s whose size is unknown and which hold no resources.
+ *
+ * @param <T> the type of values provided
+ */
+@Beta
+public abstract class AbstractDataProvider<T> implements IDataProvider<T> {
+  @Override
+  public int estimatedSize() {
+    return -1;
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
@@ -15,39 +15,115 @@
 package org.spockframework.runtime;
 
 import org.spockframework.runtime.model.*;
-import org.spockframework.util.IStoppable;
+import org.spockframework.util.*;
 
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class AsyncRunListener implements IRunListener, IStoppable {
-  private static final Runnable STOP = new Runnable() {
-    @Override
-    public void run() {
-      throw new IllegalStateException("should never run");
-    }
-  };
+/**
+ * Forwards events to a delegate listener on a separate worker thread. Events are held in a
+ * ring buffer, and handed to the delegate in batches. Standard stream output is bounded by the
+ * buffer's capacity; what happens to it when the buffer is full is determined by the
+ * {@link OverflowPolicy}. All other events are never discarded, as listeners like the report log
+ * rely on them, and never wait for the worker thread either. Instead, the buffer grows beyond its
+ * capacity to hold them. Their number is bounded by the specs being run rather than by the output
+ * they produce. An exception thrown by the delegate is reported (once) to the worker thread's
+ * uncaught exception handler, and doesn't stop the delivery of later events.
+ *
+ * <p>Events may be added from any thread. The lock that guards the buffer is only held to add
+ * or take events. The worker thread never blocks on a full buffer, as that could deadlock if the
+ * delegate itself causes events (for example by writing to a captured standard stream).
+ */
+@ThreadSafe
+public class AsyncRunListener implements IRunListener, IRetryListener, IStoppable {
+  public static final int DEFAULT_CAPACITY = 8192;
+
+  private static final int MAX_BATCH_SIZE = 256;
+  private static final int MAX_COALESCED_LENGTH = 64 * 1024;
+
+  protected static final int BEFORE_SPEC = 0;
+  protected static final int BEFORE_FEATURE = 1;
+  protected static final int BEFORE_ITERATION = 2;
+  protected static final int AFTER_ITERATION = 3;
+  protected static final int AFTER_FEATURE = 4;
+  protected static final int AFTER_SPEC = 5;
+  protected static final int ERROR = 6;
+  protected static final int SPEC_SKIPPED = 7;
+  protected static final int FEATURE_SKIPPED = 8;
+  protected static final int RUNNABLE = 9;
+  // events of the following kinds have a String payload, and may be coalesced
+  protected static final int STANDARD_OUT = 10;
+  protected static final int STANDARD_ERR = 11;
+
+  protected static final int RETRY_ATTEMPT = 12;
+
+  /**
+   * Determines what happens when standard stream output is added while the buffer is full.
+   */
+  @Beta
+  public enum OverflowPolicy {
+    /**
+     * Waits until the worker thread has made room. Only the thread that adds output waits;
+     * other events are still added.
+     */
+    BLOCK,
+    /**
+     * Discards the oldest output, or the added output if no output is pending.
+     */
+    DROP_OLDEST,
+    /**
+     * Appends the output to the newest event if that holds output of the same stream,
+     * and otherwise discards the oldest output like {@link #DROP_OLDEST}.
+     */
+    COALESCE
+  }
 
   private final IRunListener delegate;
   private final Thread workerThread;
-  private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
-  private volatile boolean stopped = false;
+  private final OverflowPolicy overflowPolicy;
+  private final int capacity;
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  // guarded by lock; the arrays grow beyond capacity to hold events other than output
+  private int[] kinds;
+  private Object[] payloads;
+  private long[] timestamps;
+  private int head;
+  private int size;
+  private int maxSize;
+  private long droppedEvents;
+  private long coalescedEvents;
+  private boolean stopped;
+
+  // only written by the worker thread
+  private final AtomicLong deliveredEvents = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private volatile long maxLatencyNanos;
+  private final AtomicLong failedEvents = new AtomicLong();
 
   public AsyncRunListener(String threadName, IRunListener delegate) {
+    this(threadName, delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+  }
+
+  @Beta
+  public AsyncRunListener(String threadName, IRunListener delegate, int capacity, OverflowPolicy overflowPolicy) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
     this.delegate = delegate;
-    this.workerThread = new Thread(threadName) {
+    this.overflowPolicy = overflowPolicy;
+    this.capacity = capacity;
+    kinds = new int[capacity];
+    payloads = new Object[capacity];
+    timestamps = new long[capacity];
+    workerThread = new Thread(threadName) {
       @Override
       public void run() {
-        while(true) {
-          try {
-            Runnable event = events.take();
-            if (event == STOP) return;
-            event.run();
-          } catch (Throwable t) {
-            stopped = true;
-            t.printStackTrace();
-            return;
-          }
-        }
+        deliverEvents();
       }
     };
   }
@@ -56,104 +132,325 @@ public class AsyncRunListener implements IRunListener, IStoppable {
     workerThread.start();
   }
 
+  /**
+   * Delivers all pending events, and stops the worker thread. Events added afterwards are ignored.
+   */
   @Override
   public void stop() throws InterruptedException {
-    addEvent(STOP);
+    lock.lock();
+    try {
+      stopped = true;
+      notEmpty.signal();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
     workerThread.join();
   }
 
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  /**
+   * Returns the number of events that haven't been delivered yet.
+   */
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the highest number of events that were pending at any time.
+   */
+  public int getMaxQueueDepth() {
+    lock.lock();
+    try {
+      return maxSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of output events that were discarded because the buffer was full.
+   */
+  public long getDroppedEvents() {
+    lock.lock();
+    try {
+      return droppedEvents;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of output events that were appended to another event because the buffer was full.
+   */
+  public long getCoalescedEvents() {
+    lock.lock();
+    try {
+      return coalescedEvents;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getDeliveredEvents() {
+    return deliveredEvents.get();
+  }
+
+  /**
+   * Returns the number of events for which the delegate threw an exception.
+   */
+  public long getFailedEvents() {
+    return failedEvents.get();
+  }
+
+  /**
+   * Returns the average time from adding an event to the delegate having handled it.
+   */
+  public long getAverageLatency(TimeUnit unit) {
+    long delivered = deliveredEvents.get();
+    return delivered == 0 ? 0 : unit.convert(totalLatencyNanos.get() / delivered, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the longest time from adding an event to the delegate having handled it.
+   */
+  public long getMaxLatency(TimeUnit unit) {
+    return unit.convert(maxLatencyNanos, TimeUnit.NANOSECONDS);
+  }
+
   @Override
-  public void beforeSpec(final SpecInfo spec) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.beforeSpec(spec);
-      }
-    });
+  public void beforeSpec(SpecInfo spec) {
+    addEvent(BEFORE_SPEC, spec);
   }
 
   @Override
-  public void beforeFeature(final FeatureInfo feature) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.beforeFeature(feature);
-      }
-    });
+  public void beforeFeature(FeatureInfo feature) {
+    addEvent(BEFORE_FEATURE, feature);
   }
 
   @Override
-  public void beforeIteration(final IterationInfo iteration) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.beforeIteration(iteration);
-      }
-    });
+  public void beforeIteration(IterationInfo iteration) {
+    addEvent(BEFORE_ITERATION, iteration);
   }
 
   @Override
-  public void afterIteration(final IterationInfo iteration) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.afterIteration(iteration);
-      }
-    });
+  public void afterIteration(IterationInfo iteration) {
+    addEvent(AFTER_ITERATION, iteration);
   }
 
   @Override
-  public void afterFeature(final FeatureInfo feature) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.afterFeature(feature);
-      }
-    });
+  public void afterFeature(FeatureInfo feature) {
+    addEvent(AFTER_FEATURE, feature);
   }
 
   @Override
-  public void afterSpec(final SpecInfo spec) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.afterSpec(spec);
-      }
-    });
+  public void afterSpec(SpecInfo spec) {
+    addEvent(AFTER_SPEC, spec);
   }
 
   @Override
-  public void error(final ErrorInfo error) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.error(error);
-      }
-    });
+  public void error(ErrorInfo error) {
+    addEvent(ERROR, error);
   }
 
   @Override
-  public void specSkipped(final SpecInfo spec) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.specSkipped(spec);
-      }
-    });
+  public void specSkipped(SpecInfo spec) {
+    addEvent(SPEC_SKIPPED, spec);
   }
 
   @Override
-  public void featureSkipped(final FeatureInfo feature) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        delegate.featureSkipped(feature);
-      }
-    });
+  public void featureSkipped(FeatureInfo feature) {
+    addEvent(FEATURE_SKIPPED, feature);
+  }
+
+  /**
+   * Forwarded only if the delegate is an {@link IRetryListener}.
+   */
+  @Override
+  public void afterRetryAttempt(RetryAttemptInfo attempt) {
+    if (delegate instanceof IRetryListener) addEvent(RETRY_ATTEMPT, attempt);
   }
 
   protected void addEvent(Runnable event) {
-    if (stopped) return;
-    events.add(event);
+    addEvent(RUNNABLE, event);
+  }
+
+  protected void addEvent(int kind, Object payload) {
+    long timestamp = System.nanoTime();
+    lock.lock();
+    try {
+      if (stopped) return;
+      if (isOutput(kind) && size >= capacity && !makeRoomForOutput(kind, (String) payload)) return;
+      if (size == kinds.length) grow();
+
+      int tail = (head + size) % kinds.length;
+      kinds[tail] = kind;
+      payloads[tail] = payload;
+      timestamps[tail] = timestamp;
+      if (++size > maxSize) maxSize = size;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Handles an event on the worker thread. Subclasses that add events of their own kinds
+   * override this method.
+   */
+  protected void dispatch(int kind, Object payload) {
+    switch (kind) {
+      case BEFORE_SPEC: delegate.beforeSpec((SpecInfo) payload); break;
+      case BEFORE_FEATURE: delegate.beforeFeature((FeatureInfo) payload); break;
+      case BEFORE_ITERATION: delegate.beforeIteration((IterationInfo) payload); break;
+      case AFTER_ITERATION: delegate.afterIteration((IterationInfo) payload); break;
+      case AFTER_FEATURE: delegate.afterFeature((FeatureInfo) payload); break;
+      case AFTER_SPEC: delegate.afterSpec((SpecInfo) payload); break;
+      case ERROR: delegate.error((ErrorInfo) payload); break;
+      case SPEC_SKIPPED: delegate.specSkipped((SpecInfo) payload); break;
+      case FEATURE_SKIPPED: delegate.featureSkipped((FeatureInfo) payload); break;
+      case RUNNABLE: ((Runnable) payload).run(); break;
+      case RETRY_ATTEMPT: ((IRetryListener) delegate).afterRetryAttempt((RetryAttemptInfo) payload); break;
+      default: throw new InternalSpockError("Unknown event kind: %d").withArgs(kind);
+    }
+  }
+
+  private static boolean isOutput(int kind) {
+    return kind == STANDARD_OUT || kind == STANDARD_ERR;
+  }
+
+  // called with the lock held and a full buffer; returns false if the output need not be added
+  private boolean makeRoomForOutput(int kind, String payload) {
+    if (overflowPolicy == OverflowPolicy.BLOCK) {
+      // waiting for itself would deadlock the worker thread, hence the buffer grows instead
+      if (Thread.currentThread() == workerThread) return true;
+
+      while (size >= capacity) {
+        if (stopped) return false;
+        notFull.awaitUninterruptibly();
+      }
+      return true;
+    }
+
+    if (overflowPolicy == OverflowPolicy.COALESCE) {
+      int newest = (head + size - 1) % kinds.length;
+      if (kinds[newest] == kind) {
+        String pending = (String) payloads[newest];
+        if (pending.length() + payload.length() <= MAX_COALESCED_LENGTH) {
+          payloads[newest] = pending + payload;
+          coalescedEvents++;
+          return false;
+        }
+      }
+    }
+
+    droppedEvents++;
+    return removeOldestOutput();
+  }
+
+  // removes the oldest pending output event, and returns false if there is none
+  private boolean removeOldestOutput() {
+    for (int i = 0; i < size; i++) {
+      int index = (head + i) % kinds.length;
+      if (!isOutput(kinds[index])) continue;
+
+      // move the events before it one position up
+      for (int j = i; j > 0; j--) {
+        int to = (head + j) % kinds.length;
+        int from = (head + j - 1) % kinds.length;
+        kinds[to] = kinds[from];
+        payloads[to] = payloads[from];
+        timestamps[to] = timestamps[from];
+      }
+      payloads[head] = null;
+      head = (head + 1) % kinds.length;
+      size--;
+      return true;
+    }
+    return false;
+  }
+
+  private void grow() {
+    int capacity = kinds.length * 2;
+    int[] newKinds = new int[capacity];
+    Object[] newPayloads = new Object[capacity];
+    long[] newTimestamps = new long[capacity];
+    for (int i = 0; i < size; i++) {
+      int index = (head + i) % kinds.length;
+      newKinds[i] = kinds[index];
+      newPayloads[i] = payloads[index];
+      newTimestamps[i] = timestamps[index];
+    }
+    kinds = newKinds;
+    payloads = newPayloads;
+    timestamps = newTimestamps;
+    head = 0;
+  }
+
+  // called with the lock held and an empty buffer
+  private void shrink() {
+    kinds = new int[capacity];
+    payloads = new Object[capacity];
+    timestamps = new long[capacity];
+    head = 0;
+  }
+
+  private void deliverEvents() {
+    int[] batchKinds = new int[MAX_BATCH_SIZE];
+    Object[] batchPayloads = new Object[MAX_BATCH_SIZE];
+    long[] batchTimestamps = new long[MAX_BATCH_SIZE];
+
+    while (true) {
+      int batchSize;
+      lock.lock();
+      try {
+        while (size == 0) {
+          if (stopped) return;
+          notEmpty.awaitUninterruptibly();
+        }
+        batchSize = Math.min(size, MAX_BATCH_SIZE);
+        for (int i = 0; i < batchSize; i++) {
+          int index = (head + i) % kinds.length;
+          batchKinds[i] = kinds[index];
+          batchPayloads[i] = payloads[index];
+          batchTimestamps[i] = timestamps[index];
+          payloads[index] = null;
+        }
+        head = (head + batchSize) % kinds.length;
+        size -= batchSize;
+        if (size == 0 && kinds.length > capacity) shrink();
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+
+      for (int i = 0; i < batchSize; i++) {
+        deliver(batchKinds[i], batchPayloads[i], batchTimestamps[i]);
+        batchPayloads[i] = null;
+      }
+    }
+  }
+
+  private void deliver(int kind, Object payload, long timestamp) {
+    try {
+      dispatch(kind, payload);
+    } catch (Throwable t) {
+      if (failedEvents.getAndIncrement() == 0) {
+        workerThread.getUncaughtExceptionHandler().uncaughtException(workerThread, t);
+      }
+    }
+
+    long latency = System.nanoTime() - timestamp;
+    deliveredEvents.incrementAndGet();
+    totalLatencyNanos.addAndGet(latency);
+    if (latency > maxLatencyNanos) maxLatencyNanos = latency;
   }
 }
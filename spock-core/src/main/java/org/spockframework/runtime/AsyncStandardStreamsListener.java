@@ -18,27 +18,31 @@ public class AsyncStandardStreamsListener extends AsyncRunListener implements IS
   private final IStandardStreamsListener streamsDelegate;
 
   public AsyncStandardStreamsListener(String threadName, IRunListener delegate, IStandardStreamsListener streamsDelegate) {
-    super(threadName, delegate);
+    this(threadName, delegate, streamsDelegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+  }
+
+  public AsyncStandardStreamsListener(String threadName, IRunListener delegate, IStandardStreamsListener streamsDelegate,
+      int capacity, OverflowPolicy overflowPolicy) {
+    super(threadName, delegate, capacity, overflowPolicy);
     this.streamsDelegate = streamsDelegate;
   }
 
   @Override
-  public void standardOut(final String message) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        streamsDelegate.standardOut(message);
-      }
-    });
+  public void standardOut(String message) {
+    addEvent(STANDARD_OUT, message);
+  }
+
+  @Override
+  public void standardErr(String message) {
+    addEvent(STANDARD_ERR, message);
   }
 
   @Override
-  public void standardErr(final String message) {
-    addEvent(new Runnable() {
-      @Override
-      public void run() {
-        streamsDelegate.standardErr(message);
-      }
-    });
+  protected void dispatch(int kind, Object payload) {
+    switch (kind) {
+      case STANDARD_OUT: streamsDelegate.standardOut((String) payload); break;
+      case STANDARD_ERR: streamsDelegate.standardErr((String) payload); break;
+      default: super.dispatch(kind, payload);
+    }
   }
 }
@@ -21,6 +21,10 @@ import org.spockframework.runtime.model.*;
 import org.spockframework.util.*;
 import spock.lang.Specification;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
 import org.junit.runner.Description;
 
 import static org.spockframework.runtime.RunStatus.*;
@@ -40,6 +44,7 @@ public class BaseSpecRunner {
 
   protected FeatureInfo currentFeature;
   protected IterationInfo currentIteration;
+  InvocationPlan invocationPlan;
 
   protected Specification sharedInstance;
   protected Specification currentInstance;
@@ -50,6 +55,16 @@ public class BaseSpecRunner {
     this.supervisor = supervisor;
   }
 
+  /**
+   * Creates a runner for a single feature of the parent runner's spec,
+   * sharing the parent's shared instance.
+   */
+  protected BaseSpecRunner(BaseSpecRunner parent, IRunSupervisor supervisor) {
+    this(parent.spec, supervisor);
+    sharedInstance = parent.sharedInstance;
+    currentInstance = parent.sharedInstance;
+  }
+
   public int run() {
     // Sometimes a spec run is requested even though the spec has been excluded
     // (e.g. if JUnit is in control). In such a case, the best thing we can do
@@ -179,6 +194,11 @@ public class BaseSpecRunner {
   }
 
   private void runFeatures() {
+    if (spec.getFeatureParallelism() > 1) {
+      runFeaturesConcurrently();
+      return;
+    }
+
     for (FeatureInfo feature : spec.getAllFeaturesInExecutionOrder()) {
       if (resetStatus(FEATURE) != OK) return;
       currentFeature = feature;
@@ -187,6 +207,86 @@ public class BaseSpecRunner {
     }
   }
 
+  // Each feature is run by its own runner and reports to its own supervisor, as supervisors
+  // track the current feature. All supervisors of the spec share a lock, so that notifications
+  // are forwarded as they happen but never concurrently.
+  private void runFeaturesConcurrently() {
+    if (resetStatus(FEATURE) != OK) return;
+
+    List<FeatureInfo> features = spec.getAllFeaturesInExecutionOrder();
+    if (features.isEmpty()) return;
+
+    final AtomicBoolean stopped = new AtomicBoolean(false);
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(spec.getFeatureParallelism(), features.size()),
+        new WorkerThreadFactory("spock-feature", spec.getReflection().getName(), RunContext.get()));
+    List<Future<BaseSpecRunner>> featureRuns = new ArrayList<>(features.size());
+    List<IRunSupervisor> featureSupervisors = new ArrayList<>(features.size());
+    Object lock = new Object();
+
+    try {
+      for (final FeatureInfo feature : features) {
+        final IRunSupervisor featureSupervisor = new SynchronizedRunSupervisor(copySupervisor(), lock);
+        featureSupervisors.add(featureSupervisor);
+        featureRuns.add(executor.submit(new Callable<BaseSpecRunner>() {
+          @Override
+          public BaseSpecRunner call() {
+            if (stopped.get()) return null;
+            BaseSpecRunner runner = createFeatureRunner(featureSupervisor);
+            runner.currentFeature = feature;
+            runner.runFeature();
+            runner.currentFeature = null;
+            return runner;
+          }
+        }));
+      }
+
+      boolean interrupted = false;
+      for (int i = 0; i < featureRuns.size(); i++) {
+        BaseSpecRunner runner;
+        try {
+          runner = awaitRun(featureRuns.get(i));
+        } catch (InterruptedException e) {
+          interrupted = true;
+          stopped.set(true);
+          for (Future<BaseSpecRunner> run : featureRuns) run.cancel(true);
+          continue;
+        } catch (ExecutionException e) {
+          // the runner itself failed, e.g. because a run listener threw an exception
+          featureSupervisors.get(i).error(new ErrorInfo(features.get(i).getFeatureMethod(), e.getCause()));
+          continue;
+        }
+        if (runner == null) continue; // not run because an earlier feature ended the spec
+
+        if (scope(runner.runStatus) > FEATURE) {
+          runStatus = combine(runStatus, runner.runStatus);
+          stopped.set(true);
+        }
+      }
+
+      if (interrupted) Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private IRunSupervisor copySupervisor() {
+    return supervisor instanceof JUnitSupervisor ? ((JUnitSupervisor) supervisor).copy() : supervisor;
+  }
+
+  protected BaseSpecRunner createFeatureRunner(IRunSupervisor supervisor) {
+    return new BaseSpecRunner(this, supervisor);
+  }
+
+  // returns null if the run was cancelled before it completed
+  protected static <T> T awaitRun(Future<T> run) throws InterruptedException, ExecutionException {
+    try {
+      return run.get();
+    } catch (CancellationException e) {
+      return null;
+    }
+  }
+
   private void runCleanupSpec() {
     currentInstance = sharedInstance;
     runCleanupSpec(spec);
@@ -271,25 +371,54 @@ public class BaseSpecRunner {
     if (runStatus != OK) return;
 
     createSpecInstance(false);
+    updateInvocationPlan();
     runInitializer();
     runIteration(dataValues, estimatedNumIterations);
   }
 
+  // used when the iteration's name has to be determined ahead of time
+  protected void initializeAndRunIteration(IterationInfo iteration) {
+    if (runStatus != OK) return;
+
+    createSpecInstance(false);
+    updateInvocationPlan();
+    runInitializer();
+    runIteration(iteration);
+  }
+
   private void runIteration(Object[] dataValues, int estimatedNumIterations) {
     if (runStatus != OK) return;
 
-    currentIteration = createIterationInfo(dataValues, estimatedNumIterations);
+    runIteration(createIterationInfo(dataValues, estimatedNumIterations));
+  }
+
+  private void runIteration(IterationInfo iteration) {
+    if (runStatus != OK) return;
+
+    currentIteration = iteration;
     getSpecificationContext().setCurrentIteration(currentIteration);
 
+    invocationPlan.bind(currentIteration);
+
     supervisor.beforeIteration(currentIteration);
-    invoke(this, createMethodInfoForDoRunIteration());
+    invoke(this, invocationPlan.getIteration());
     supervisor.afterIteration(currentIteration);
 
+    invocationPlan.bind(null);
+
     getSpecificationContext().setCurrentIteration(null);
     currentIteration = null;
   }
 
-  private IterationInfo createIterationInfo(Object[] dataValues, int estimatedNumIterations) {
+  // the plan is created once per feature, and only recreated if an extension
+  // has changed any of the interceptor lists it was created from
+  void updateInvocationPlan() {
+    if (invocationPlan == null || !invocationPlan.isCurrent(currentFeature)) {
+      invocationPlan = new InvocationPlan(spec, currentFeature);
+    }
+  }
+
+  protected IterationInfo createIterationInfo(Object[] dataValues, int estimatedNumIterations) {
     IterationInfo result = new IterationInfo(currentFeature, dataValues, estimatedNumIterations);
     String iterationName = currentFeature.getIterationNameProvider().getName(result);
     result.setName(iterationName);
@@ -299,24 +428,6 @@ public class BaseSpecRunner {
     return result;
   }
 
-  private MethodInfo createMethodInfoForDoRunIteration() {
-    MethodInfo result = new MethodInfo() {
-      @Override
-      public Object invoke(Object target, Object... arguments) {
-        doRunIteration();
-        return null;
-      }
-    };
-    result.setParent(currentFeature.getParent());
-    result.setKind(MethodKind.ITERATION_EXECUTION);
-    result.setFeature(currentFeature);
-    result.setDescription(currentFeature.getDescription());
-    result.setIteration(currentIteration);
-    for (IMethodInterceptor interceptor : currentFeature.getIterationInterceptors())
-      result.addInterceptor(interceptor);
-    return result;
-  }
-
   public void doRunIteration() {
     runSetup();
     runFeatureMethod();
@@ -338,24 +449,7 @@ public class BaseSpecRunner {
 
   private void runInitializer(SpecInfo spec) {
     if (spec == null) return;
-    invoke(this, createMethodInfoForDoRunInitializer(spec), spec);
-  }
-
-  private MethodInfo createMethodInfoForDoRunInitializer(final SpecInfo spec) {
-    MethodInfo result = new MethodInfo() {
-      @Override
-      public Object invoke(Object target, Object... arguments) {
-        doRunInitializer(spec);
-        return null;
-      }
-    };
-    result.setParent(currentFeature.getParent());
-    result.setKind(MethodKind.INITIALIZER);
-    result.setFeature(currentFeature);
-    result.setDescription(currentFeature.getDescription());
-    for (IMethodInterceptor interceptor : spec.getInitializerInterceptors())
-      result.addInterceptor(interceptor);
-    return result;
+    invoke(this, invocationPlan.getInitializer(spec), spec);
   }
 
   public void doRunInitializer(SpecInfo spec) {
@@ -370,31 +464,15 @@ public class BaseSpecRunner {
 
   private void runSetup(SpecInfo spec) {
     if (spec == null) return;
-    invoke(this, createMethodInfoForDoRunSetup(spec), spec);
-  }
-
-  private MethodInfo createMethodInfoForDoRunSetup(final SpecInfo spec) {
-    MethodInfo result = new MethodInfo() {
-      @Override
-      public Object invoke(Object target, Object... arguments) {
-        doRunSetup(spec);
-        return null;
-      }
-    };
-    result.setParent(currentFeature.getParent());
-    result.setKind(MethodKind.SETUP);
-    result.setFeature(currentFeature);
-    result.setDescription(currentFeature.getDescription());
-    result.setIteration(currentIteration);
-    for (IMethodInterceptor interceptor : spec.getSetupInterceptors())
-      result.addInterceptor(interceptor);
-    return result;
+    invoke(this, invocationPlan.getSetup(spec), spec);
   }
 
   public void doRunSetup(SpecInfo spec) {
     runSetup(spec.getSuperSpec());
     for (MethodInfo method : spec.getSetupMethods()) {
       if (runStatus != OK) return;
+      // setup methods are shared between all features, which may be running concurrently
+      if (this.spec.getFeatureParallelism() > 1) method = new MethodInfo(method);
       method.setFeature(currentFeature);
       invoke(currentInstance, method);
     }
@@ -403,9 +481,7 @@ public class BaseSpecRunner {
   private void runFeatureMethod() {
     if (runStatus != OK) return;
 
-    MethodInfo featureIteration = new MethodInfo(currentFeature.getFeatureMethod());
-    featureIteration.setIteration(currentIteration);
-    invoke(currentInstance, featureIteration, currentIteration.getDataValues());
+    invoke(currentInstance, invocationPlan.getFeatureMethod(), currentIteration.getDataValues());
   }
 
   private void runCleanup() {
@@ -414,25 +490,7 @@ public class BaseSpecRunner {
 
   private void runCleanup(SpecInfo spec) {
     if (spec == null) return;
-    invoke(this, createMethodInfoForDoRunCleanup(spec), spec);
-  }
-
-  private MethodInfo createMethodInfoForDoRunCleanup(final SpecInfo spec) {
-    MethodInfo result = new MethodInfo() {
-      @Override
-      public Object invoke(Object target, Object... arguments) {
-        doRunCleanup(spec);
-        return null;
-      }
-    };
-    result.setParent(currentFeature.getParent());
-    result.setKind(MethodKind.CLEANUP);
-    result.setFeature(currentFeature);
-    result.setDescription(currentFeature.getDescription());
-    result.setIteration(currentIteration);
-    for (IMethodInterceptor interceptor : spec.getCleanupInterceptors())
-      result.addInterceptor(interceptor);
-    return result;
+    invoke(this, invocationPlan.getCleanup(spec), spec);
   }
 
   public void doRunCleanup(SpecInfo spec) {
@@ -474,7 +532,7 @@ public class BaseSpecRunner {
     try {
       invocation.proceed();
     } catch (Throwable t) {
-      ErrorInfo error = new ErrorInfo(method, t);
+      ErrorInfo error = new ErrorInfo(InvocationPlan.detach(method), t);
       runStatus = supervisor.error(error);
     }
   }
@@ -483,7 +541,7 @@ public class BaseSpecRunner {
     try {
       return method.invoke(target, arguments);
     } catch (Throwable t) {
-      runStatus = supervisor.error(new ErrorInfo(method, t));
+      runStatus = supervisor.error(new ErrorInfo(InvocationPlan.detach(method), t));
       return null;
     }
   }
@@ -491,5 +549,31 @@ public class BaseSpecRunner {
   protected SpecificationContext getSpecificationContext() {
     return (SpecificationContext) currentInstance.getSpecificationContext();
   }
-}
 
+  // worker threads run with the given context, which is the current context of the thread that creates them
+  protected static class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final String prefix;
+    private final String owner;
+    private final RunContext context;
+
+    public WorkerThreadFactory(String prefix, String owner, RunContext context) {
+      this.prefix = prefix;
+      this.owner = owner;
+      this.context = context;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      Runnable runnableWithContext = new Runnable() {
+        @Override
+        public void run() {
+          RunContext.runWithContext(context, runnable);
+        }
+      };
+      Thread thread = new Thread(runnableWithContext, prefix + "-" + threadCount.incrementAndGet() + " (" + owner + ")");
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -18,6 +18,8 @@ import org.spockframework.runtime.condition.*;
 import org.spockframework.runtime.model.ExpressionInfo;
 import org.spockframework.util.*;
 
+import java.util.List;
+
 import groovy.lang.GString;
 
 public class ExpressionInfoValueRenderer {
@@ -131,7 +133,13 @@ public class ExpressionInfoValueRenderer {
     end2++;
 
     if (((long) end1-commonStart) * (end2-commonStart) > MAX_EDIT_DISTANCE_MEMORY) {
-      return "false\nStrings too large to calculate edit distance.";
+      if (str1.indexOf('\n') != -1 || str2.indexOf('\n') != -1) {
+        return createAndRenderLineDiff(str1, str2);
+      }
+      commonStart = Math.max(0, commonStart - 10);
+      end1 = Math.min(str1.length(), end1 + 10);
+      end2 = Math.min(str2.length(), end2 + 10);
+      return createAndRenderMyersDiff(str1, str2, commonStart, end1, end2);
     } else {
       // Check if we can add some context
       if (((long) end1 - commonStart + 20) * (end2 - commonStart + 20) < MAX_EDIT_DISTANCE_MEMORY){
@@ -160,6 +168,26 @@ public class ExpressionInfoValueRenderer {
       new EditPathRenderer().render(sub1, sub2, dist.calculatePath()));
   }
 
+  // for strings too large for EditDistance, whose differences are rendered the same way
+  private String createAndRenderMyersDiff(String str1, String str2, int commonStart, int end1, int end2) {
+    String sub1 = str1.substring(commonStart, end1);
+    String sub2 = str2.substring(commonStart, end2);
+    MyersDiff diff = MyersDiff.ofChars(sub1, sub2);
+    return String.format("false\n%d difference%s (%d%% similarity) (comparing subset start: %d, end1: %d, end2: %d)\n%s",
+      diff.getDistance(), diff.getDistance() == 1 ? "" : "s", diff.getSimilarityInPercent(),
+      commonStart, end1, end2,
+      new EditPathRenderer().render(sub1, sub2, diff.calculatePath()));
+  }
+
+  private String createAndRenderLineDiff(String str1, String str2) {
+    List<String> lines1 = LineDiffRenderer.splitLines(str1);
+    List<String> lines2 = LineDiffRenderer.splitLines(str2);
+    MyersDiff diff = MyersDiff.ofLines(lines1, lines2);
+    return String.format("false\n%d line difference%s (%d%% similarity)\n%s",
+      diff.getDistance(), diff.getDistance() == 1 ? "" : "s", diff.getSimilarityInPercent(),
+      new LineDiffRenderer().render(lines1, lines2, diff.calculatePath()));
+  }
+
   private String renderAsFailedEqualityComparison(ExpressionInfo expr) {
     if (!(Boolean.FALSE.equals(expr.getValue()))) return null;
     if (!expr.isEqualityComparison()) return null;
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.Beta;
+
+/**
+ * A data provider that yields its values incrementally. Spock pulls values from
+ * {@link #iterator()} one iteration at a time and never calls any other method
+ * (such as {@code size()}) that could force the provider to materialize all of
+ * its values. This makes it possible to feed a data-driven feature from large or
+ * expensive sources, e.g. database cursors or generated sequences, with flat
+ * memory usage.
+ *
+ * <p>{@link #iterator()} is called at most once per feature execution.
+ * {@link #close()} is called exactly once after the feature has finished,
+ * even if the feature or another data provider failed.
+ *
+ * <p>Implementations that don't need all methods can extend {@link AbstractDataProvider}.
+ *
+ * @param <T> the type of values provided
+ */
+@Beta
+public interface IDataProvider<T> extends Iterable<T>, AutoCloseable {
+  /**
+   * Returns an estimate of the number of values this provider will yield, or a
+   * negative value if unknown. Must not consume any values. The estimate is made
+   * available to extensions as {@code IterationInfo.getEstimatedNumIterations()}.
+   *
+   * @return an estimate of the number of values, or a negative value if unknown
+   */
+  int estimatedSize();
+
+  /**
+   * Releases any resources held by this provider.
+   */
+  @Override
+  void close() throws Exception;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.runtime.model.RetryAttemptInfo;
+import org.spockframework.util.Beta;
+
+/**
+ * Optional extension of {@link IRunListener} for listeners that want to be told about
+ * the individual attempts of methods annotated with {@link spock.lang.Retry}.
+ * A listener registered with {@code SpecInfo.addListener()} that also implements
+ * this interface is notified after every attempt, whether it failed or not.
+ */
+@Beta
+public interface IRetryListener {
+  /**
+   * Called after each attempt of a retried feature or iteration.
+   */
+  void afterRetryAttempt(RetryAttemptInfo attempt);
+}
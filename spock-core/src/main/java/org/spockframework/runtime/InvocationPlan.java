@@ -0,0 +1,292 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.runtime.extension.IMethodInterceptor;
+import org.spockframework.runtime.model.*;
+import org.spockframework.util.*;
+
+import java.util.*;
+
+/**
+ * The methods that a runner invokes for every iteration of a feature (initializers,
+ * setup and cleanup methods of each spec in the hierarchy, the feature method, and the
+ * iteration itself), together with their resolved interceptor chains. A plan is created
+ * once per feature and reused for all of its iterations. If an extension adds or removes
+ * interceptors after the plan was created, the plan is no longer {@link #isCurrent() current}
+ * and has to be recreated.
+ *
+ * <p>Since the planned methods know the iteration they run for, a plan must only be used by
+ * one runner at a time. Runners that run iterations concurrently use {@link #copy() copies},
+ * which share the interceptor chains.
+ */
+@NotThreadSafe
+class InvocationPlan {
+  private final FeatureInfo feature;
+  private final PlannedMethod iteration;
+  private final PlannedMethod featureMethod;
+  private final Level[] levels;
+
+  InvocationPlan(SpecInfo spec, FeatureInfo feature) {
+    this.feature = feature;
+    iteration = new PlannedMethod(MethodKind.ITERATION_EXECUTION, null, feature, feature.getIterationInterceptors());
+    featureMethod = new PlannedMethod(feature.getFeatureMethod());
+
+    List<Level> levels = new ArrayList<>();
+    for (SpecInfo curr = spec; curr != null; curr = curr.getSuperSpec()) {
+      levels.add(new Level(curr,
+        new PlannedMethod(MethodKind.INITIALIZER, curr, feature, curr.getInitializerInterceptors()),
+        new PlannedMethod(MethodKind.SETUP, curr, feature, curr.getSetupInterceptors()),
+        new PlannedMethod(MethodKind.CLEANUP, curr, feature, curr.getCleanupInterceptors())));
+    }
+    this.levels = levels.toArray(new Level[levels.size()]);
+  }
+
+  private InvocationPlan(InvocationPlan other) {
+    feature = other.feature;
+    iteration = new PlannedMethod(other.iteration);
+    featureMethod = new PlannedMethod(other.featureMethod);
+    levels = new Level[other.levels.length];
+    for (int i = 0; i < levels.length; i++) {
+      Level level = other.levels[i];
+      levels[i] = new Level(level.spec, new PlannedMethod(level.initializer),
+        new PlannedMethod(level.setup), new PlannedMethod(level.cleanup));
+    }
+  }
+
+  /**
+   * Returns a plan with the same interceptor chains that can be used by another runner.
+   */
+  InvocationPlan copy() {
+    return new InvocationPlan(this);
+  }
+
+  /**
+   * Tells whether this plan belongs to the given feature, and none of the interceptor
+   * lists it was created from has been changed since.
+   */
+  boolean isCurrent(FeatureInfo feature) {
+    if (feature != this.feature || !iteration.isCurrent() || !featureMethod.isCurrent()) return false;
+    for (Level level : levels) {
+      if (!level.initializer.isCurrent() || !level.setup.isCurrent() || !level.cleanup.isCurrent()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Binds the methods that run as part of an iteration to the given iteration,
+   * or unbinds them if the iteration is {@code null}.
+   */
+  void bind(@Nullable IterationInfo currentIteration) {
+    iteration.setIteration(currentIteration);
+    featureMethod.setIteration(currentIteration);
+    for (Level level : levels) {
+      level.setup.setIteration(currentIteration);
+      level.cleanup.setIteration(currentIteration);
+    }
+  }
+
+  MethodInfo getIteration() {
+    return iteration;
+  }
+
+  MethodInfo getFeatureMethod() {
+    return featureMethod;
+  }
+
+  MethodInfo getInitializer(SpecInfo spec) {
+    return getLevel(spec).initializer;
+  }
+
+  MethodInfo getSetup(SpecInfo spec) {
+    return getLevel(spec).setup;
+  }
+
+  MethodInfo getCleanup(SpecInfo spec) {
+    return getLevel(spec).cleanup;
+  }
+
+  /**
+   * Returns a method that can be kept around after the iteration has finished, for example
+   * in an {@link ErrorInfo}. Planned methods are rebound to the next iteration, and hence
+   * get copied.
+   */
+  static MethodInfo detach(MethodInfo method) {
+    return method instanceof PlannedMethod ? ((PlannedMethod) method).detach() : method;
+  }
+
+  private Level getLevel(SpecInfo spec) {
+    for (Level level : levels) {
+      if (level.spec == spec) return level;
+    }
+    throw new InternalSpockError("Spec '%s' isn't part of the invocation plan").withArgs(spec.getName());
+  }
+
+  private static class Level {
+    final SpecInfo spec;
+    final PlannedMethod initializer;
+    final PlannedMethod setup;
+    final PlannedMethod cleanup;
+
+    Level(SpecInfo spec, PlannedMethod initializer, PlannedMethod setup, PlannedMethod cleanup) {
+      this.spec = spec;
+      this.initializer = initializer;
+      this.setup = setup;
+      this.cleanup = cleanup;
+    }
+  }
+
+  /**
+   * A method whose interceptor chain is a snapshot of the interceptor list it was created from.
+   * Except for the feature method, invoking a planned method calls back into the runner it is
+   * invoked on.
+   *
+   * <p>Interceptors added to a planned method, or to the list returned by {@link #getInterceptors()},
+   * are added to the list the method was created from, and interceptors removed from that list are
+   * removed from the list the method was created from. Hence they don't change the chain of the
+   * current invocation, but the plan is no longer current, and the next iteration uses a new plan.
+   * As the chain and the list it was created from may differ, the chain can't be changed by index.
+   *
+   * <p>Iterations that run concurrently may change the list the method was created from while
+   * another thread checks whether the plan is current. All accesses of planned methods to that
+   * list are therefore synchronized on the list.
+   */
+  private static class PlannedMethod extends MethodInfo {
+    private final SpecInfo spec;
+    private final List<IMethodInterceptor> source;
+    private final List<IMethodInterceptor> interceptors;
+    private final List<IMethodInterceptor> interceptorsView = new AbstractList<IMethodInterceptor>() {
+      @Override
+      public IMethodInterceptor get(int index) {
+        return interceptors.get(index);
+      }
+
+      @Override
+      public int size() {
+        return interceptors.size();
+      }
+
+      @Override
+      public boolean add(IMethodInterceptor interceptor) {
+        synchronized (source) {
+          return source.add(interceptor);
+        }
+      }
+
+      @Override
+      public boolean remove(Object interceptor) {
+        synchronized (source) {
+          return source.remove(interceptor);
+        }
+      }
+
+      @Override
+      public void clear() {
+        synchronized (source) {
+          source.clear();
+        }
+      }
+    };
+
+    PlannedMethod(MethodKind kind, @Nullable SpecInfo spec, FeatureInfo feature, List<IMethodInterceptor> source) {
+      this.spec = spec;
+      this.source = source;
+      this.interceptors = snapshot(source);
+      setParent(feature.getParent());
+      setKind(kind);
+      setFeature(feature);
+      setDescription(feature.getDescription());
+    }
+
+    PlannedMethod(MethodInfo featureMethod) {
+      super(featureMethod);
+      spec = null;
+      source = featureMethod.getInterceptors();
+      interceptors = snapshot(source);
+    }
+
+    PlannedMethod(PlannedMethod other) {
+      super(other);
+      spec = other.spec;
+      source = other.source;
+      interceptors = other.interceptors;
+    }
+
+    private static List<IMethodInterceptor> snapshot(List<IMethodInterceptor> source) {
+      synchronized (source) {
+        return Collections.unmodifiableList(new ArrayList<>(source));
+      }
+    }
+
+    boolean isCurrent() {
+      synchronized (source) {
+        if (source.size() != interceptors.size()) return false;
+        for (int i = 0; i < interceptors.size(); i++) {
+          if (source.get(i) != interceptors.get(i)) return false;
+        }
+        return true;
+      }
+    }
+
+    /**
+     * Returns a copy whose interceptors are the ones this method was invoked with.
+     */
+    MethodInfo detach() {
+      MethodInfo result = new MethodInfo(this);
+      result.getInterceptors().clear();
+      result.getInterceptors().addAll(interceptors);
+      return result;
+    }
+
+    /**
+     * Returns the interceptor chain of this method; changes are made to the list it was created from.
+     * Changes by index are not supported.
+     */
+    @Override
+    public List<IMethodInterceptor> getInterceptors() {
+      return interceptorsView;
+    }
+
+    @Override
+    public void addInterceptor(IMethodInterceptor interceptor) {
+      synchronized (source) {
+        source.add(interceptor);
+      }
+    }
+
+    @Override
+    public Object invoke(Object target, Object... arguments) throws Throwable {
+      switch (getKind()) {
+        case INITIALIZER:
+          ((BaseSpecRunner) target).doRunInitializer(spec);
+          return null;
+        case SETUP:
+          ((BaseSpecRunner) target).doRunSetup(spec);
+          return null;
+        case CLEANUP:
+          ((BaseSpecRunner) target).doRunCleanup(spec);
+          return null;
+        case ITERATION_EXECUTION:
+          ((BaseSpecRunner) target).doRunIteration();
+          return null;
+        default:
+          return super.invoke(target, arguments);
+      }
+    }
+  }
+}
@@ -14,7 +14,7 @@
 
 package org.spockframework.runtime;
 
-import org.spockframework.runtime.condition.IObjectRenderer;
+import org.spockframework.runtime.condition.*;
 import org.spockframework.runtime.model.*;
 import org.spockframework.util.*;
 
@@ -32,6 +32,7 @@ public class JUnitSupervisor implements IRunSupervisor {
   private final IStackTraceFilter filter;
   private final IRunListener masterListener;
   private final IObjectRenderer<Object> diffedObjectRenderer;
+  private final StructuralDiffRenderer structuralDiffRenderer;
 
   private FeatureInfo currentFeature;
   private IterationInfo currentIteration;
@@ -41,11 +42,22 @@ public class JUnitSupervisor implements IRunSupervisor {
 
   public JUnitSupervisor(SpecInfo spec, RunNotifier notifier, IStackTraceFilter filter,
       IObjectRenderer<Object> diffedObjectRenderer) {
+    this(spec, notifier, filter, diffedObjectRenderer, null);
+  }
+
+  public JUnitSupervisor(SpecInfo spec, RunNotifier notifier, IStackTraceFilter filter,
+      IObjectRenderer<Object> diffedObjectRenderer, @Nullable StructuralDiffRenderer structuralDiffRenderer) {
     this.spec = spec;
     this.notifier = notifier;
     this.filter = filter;
     this.masterListener = new MasterRunListener(spec);
     this.diffedObjectRenderer = diffedObjectRenderer;
+    this.structuralDiffRenderer = structuralDiffRenderer;
+  }
+
+  // supervisor for a feature that is run concurrently with other features, which needs its own current feature
+  JUnitSupervisor copy() {
+    return new JUnitSupervisor(spec, notifier, filter, diffedObjectRenderer, structuralDiffRenderer);
   }
 
   @Override
@@ -133,8 +145,11 @@ public class JUnitSupervisor implements IRunSupervisor {
     Condition condition = conditionNotSatisfiedError.getCondition();
     ExpressionInfo expr = condition.getExpression();
 
-    String actual = renderValue(expr.getChildren().get(0).getValue());
-    String expected = renderValue(expr.getChildren().get(1).getValue());
+    Object actualValue = expr.getChildren().get(0).getValue();
+    Object expectedValue = expr.getChildren().get(1).getValue();
+    Pair<String, String> differences = renderDifferences(actualValue, expectedValue);
+    String actual = differences != null ? differences.first() : renderValue(actualValue);
+    String expected = differences != null ? differences.second() : renderValue(expectedValue);
     ComparisonFailure failure = new SpockComparisonFailure(condition, expected, actual);
     failure.setStackTrace(exception.getStackTrace());
 
@@ -153,7 +168,19 @@ public class JUnitSupervisor implements IRunSupervisor {
     }
   }
 
-  private int statusFor(ErrorInfo error) {
+  // renders only the differences of large values, as rendering them in full can take long
+  @Nullable
+  private Pair<String, String> renderDifferences(Object actual, Object expected) {
+    if (structuralDiffRenderer == null) return null;
+
+    try {
+      return structuralDiffRenderer.render(actual, expected);
+    } catch (Exception e) {
+      return null; // fall back to rendering the values in full
+    }
+  }
+
+  static int statusFor(ErrorInfo error) {
     switch (error.getMethod().getKind()) {
       case DATA_PROCESSOR:
       case INITIALIZER:
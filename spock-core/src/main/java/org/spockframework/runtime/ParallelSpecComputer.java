@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.Beta;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runner.*;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.*;
+
+/**
+ * A JUnit <tt>Computer</tt> that runs spec classes concurrently within a single JVM,
+ * as an alternative to forking one JVM per test worker. All specs share the same
+ * run context and hence the same started global extensions.
+ *
+ * <p>Example:
+ * <pre>
+ * JUnitCore.runClasses(new ParallelSpecComputer(4), FooSpec, BarSpec, BazSpec)
+ * </pre>
+ *
+ * <p>Only the specs are run concurrently; features of a spec are still run in sequence
+ * unless the spec is annotated with {@link spock.lang.Parallel}. Report log output
+ * captured from the standard streams may be attributed to the wrong spec while
+ * specs run concurrently.
+ */
+@Beta
+public class ParallelSpecComputer extends Computer {
+  private final ForkJoinPool pool;
+
+  public ParallelSpecComputer() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public ParallelSpecComputer(int parallelism) {
+    pool = new ForkJoinPool(parallelism, new SpecWorkerThreadFactory(), null, false);
+  }
+
+  @Override
+  public Runner getSuite(RunnerBuilder builder, Class<?>[] classes) throws InitializationError {
+    Runner suite = super.getSuite(builder, classes);
+    if (suite instanceof ParentRunner) {
+      ((ParentRunner<?>) suite).setScheduler(new WorkStealingRunnerScheduler(pool));
+    }
+    return suite;
+  }
+
+  private static class SpecWorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("spock-spec-" + threadCount.incrementAndGet());
+      return thread;
+    }
+  }
+}
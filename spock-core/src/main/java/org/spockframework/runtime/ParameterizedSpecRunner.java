@@ -17,6 +17,7 @@
 package org.spockframework.runtime;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.spockframework.runtime.RunStatus.*;
 import org.spockframework.runtime.model.*;
@@ -31,15 +32,27 @@ public class ParameterizedSpecRunner extends BaseSpecRunner {
     super(spec, supervisor);
   }
 
+  protected ParameterizedSpecRunner(ParameterizedSpecRunner parent, IRunSupervisor supervisor) {
+    super(parent, supervisor);
+  }
+
+  @Override
+  protected BaseSpecRunner createFeatureRunner(IRunSupervisor supervisor) {
+    return new ParameterizedSpecRunner(this, supervisor);
+  }
+
   @Override
   protected void runParameterizedFeature() {
     if (runStatus != OK) return;
 
     Object[] dataProviders = createDataProviders();
-    int numIterations = estimateNumIterations(dataProviders);
-    Iterator[] iterators = createIterators(dataProviders);
-    runIterations(iterators, numIterations);
-    closeDataProviders(dataProviders);
+    try {
+      int numIterations = estimateNumIterations(dataProviders);
+      Iterator[] iterators = createIterators(dataProviders);
+      runIterations(iterators, numIterations);
+    } finally {
+      closeDataProviders(dataProviders);
+    }
   }
 
   private Object[] createDataProviders() {
@@ -56,11 +69,13 @@ public class ParameterizedSpecRunner extends BaseSpecRunner {
         Object[] arguments = Arrays.copyOf(dataProviders, getDataTableOffset(dataProviderInfo));
         Object provider = invokeRaw(sharedInstance, method, arguments);
         
-        if (runStatus != OK) 
+        if (runStatus != OK) {
+          closeDataProviders(dataProviders);
           return null;
-        else if (provider == null) {
+        } else if (provider == null) {
           SpockExecutionException error = new SpockExecutionException("Data provider is null!");
           runStatus = supervisor.error(new ErrorInfo(method, error));
+          closeDataProviders(dataProviders);
           return null;
         }
         dataProviders[i] = provider;
@@ -120,10 +135,16 @@ public class ParameterizedSpecRunner extends BaseSpecRunner {
         // although it is of course destructive (i.e. it exhausts the Iterator)
         continue;
 
-      Object rawSize = GroovyRuntimeUtil.invokeMethodQuietly(prov, "size");
-      if (!(rawSize instanceof Number)) continue;
+      int size;
+      if (prov instanceof IDataProvider) {
+        // size() could materialize the provider, so only ask for its estimate
+        size = estimatedSize((IDataProvider<?>) prov);
+      } else {
+        Object rawSize = GroovyRuntimeUtil.invokeMethodQuietly(prov, "size");
+        if (!(rawSize instanceof Number)) continue;
+        size = ((Number) rawSize).intValue();
+      }
 
-      int size = ((Number) rawSize).intValue();
       if (size < 0 || size >= result) continue;
 
       result = size;
@@ -135,6 +156,12 @@ public class ParameterizedSpecRunner extends BaseSpecRunner {
   private void runIterations(Iterator[] iterators, int estimatedNumIterations) {
     if (runStatus != OK) return;
 
+    // no iterators => only derived parameterizations => only one iteration, nothing to parallelize
+    if (currentFeature.getIterationParallelism() > 1 && iterators.length > 0) {
+      runIterationsConcurrently(iterators, estimatedNumIterations);
+      return;
+    }
+
     while (haveNext(iterators)) {
       initializeAndRunIteration(nextArgs(iterators), estimatedNumIterations);
 
@@ -144,12 +171,114 @@ public class ParameterizedSpecRunner extends BaseSpecRunner {
     }
   }
 
+  // The data providers are advanced on this thread, one iteration at a time. Each iteration
+  // is handled by its own runner, whose supervisor records all notifications (including
+  // errors raised by the data providers). Recordings are replayed to our supervisor in
+  // iteration order. At most twice as many iterations as there are threads are pending at
+  // any time, which keeps memory bounded for large data providers.
+  private void runIterationsConcurrently(Iterator[] iterators, final int estimatedNumIterations) {
+    int parallelism = currentFeature.getIterationParallelism();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+        new WorkerThreadFactory("spock-iteration", currentFeature.getName(), RunContext.get()));
+    Deque<Future<ParameterizedSpecRunner>> pendingIterations = new ArrayDeque<>();
+
+    try {
+      while (runStatus == OK) {
+        final ParameterizedSpecRunner iterationRunner = createIterationRunner();
+        boolean haveNext = iterationRunner.haveNext(iterators);
+        Object[] args = haveNext ? iterationRunner.nextArgs(iterators) : null;
+
+        if (iterationRunner.runStatus != OK) {
+          pendingIterations.addLast(completedRun(iterationRunner));
+          if (scope(iterationRunner.runStatus) > ITERATION) break;
+        } else if (!haveNext) {
+          break;
+        } else {
+          // name the iteration on this thread, as name providers aren't thread-safe
+          final IterationInfo iteration = iterationRunner.createIterationInfo(args, estimatedNumIterations);
+          pendingIterations.addLast(executor.submit(new Callable<ParameterizedSpecRunner>() {
+            @Override
+            public ParameterizedSpecRunner call() {
+              iterationRunner.initializeAndRunIteration(iteration);
+              return iterationRunner;
+            }
+          }));
+        }
+
+        if (!replayIterations(pendingIterations, 2 * parallelism)) return;
+      }
+
+      replayIterations(pendingIterations, 0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private ParameterizedSpecRunner createIterationRunner() {
+    ParameterizedSpecRunner runner = (ParameterizedSpecRunner) createFeatureRunner(new RecordingRunSupervisor());
+    runner.currentFeature = currentFeature;
+    updateInvocationPlan();
+    runner.invocationPlan = invocationPlan.copy();
+    return runner;
+  }
+
+  private static Future<ParameterizedSpecRunner> completedRun(ParameterizedSpecRunner runner) {
+    FutureTask<ParameterizedSpecRunner> run = new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {}
+    }, runner);
+    run.run();
+    return run;
+  }
+
+  // replays finished iterations in order, waiting for the oldest ones while more than
+  // maxPending iterations are pending; returns false if the thread was interrupted
+  private boolean replayIterations(Deque<Future<ParameterizedSpecRunner>> pendingIterations, int maxPending) {
+    while (!pendingIterations.isEmpty()
+        && (pendingIterations.size() > maxPending || pendingIterations.peekFirst().isDone())) {
+      ParameterizedSpecRunner runner;
+      try {
+        runner = awaitRun(pendingIterations.removeFirst());
+      } catch (InterruptedException e) {
+        for (Future<ParameterizedSpecRunner> run : pendingIterations) run.cancel(true);
+        Thread.currentThread().interrupt();
+        return false;
+      } catch (ExecutionException e) {
+        // the runner itself failed, e.g. because a run listener threw an exception
+        supervisor.error(new ErrorInfo(currentFeature.getFeatureMethod(), e.getCause()));
+        continue;
+      }
+      if (runner == null) continue;
+
+      ((RecordingRunSupervisor) runner.supervisor).replay(supervisor);
+      if (scope(runner.runStatus) > ITERATION)
+        runStatus = combine(runStatus, runner.runStatus);
+    }
+    return true;
+  }
+
+  private int estimatedSize(IDataProvider<?> provider) {
+    try {
+      return provider.estimatedSize();
+    } catch (Throwable ignored) {
+      return -1;
+    }
+  }
+
+  // also called if the feature failed, in which case providers may only be partially created
   private void closeDataProviders(Object[] dataProviders) {
-    if (action(runStatus) == ABORT) return;
-    if (dataProviders == null) return; // there was an error creating the providers
+    if (dataProviders == null) return; // already closed after an error creating the providers
 
     for (Object provider : dataProviders) {
-      GroovyRuntimeUtil.invokeMethodQuietly(provider, "close");
+      if (provider == null) continue;
+
+      if (provider instanceof IDataProvider) {
+        try {
+          ((IDataProvider<?>) provider).close();
+        } catch (Throwable ignored) {}
+      } else {
+        GroovyRuntimeUtil.invokeMethodQuietly(provider, "close");
+      }
     }
   }
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+/**
+ * Thrown instead of a detailed condition failure while failures are quiet on the current thread.
+ * Used by callers that evaluate conditions repeatedly, and only report the failure of the last
+ * evaluation, to avoid recording and describing failures that nobody will look at. Has neither
+ * a condition nor a stack trace, and is hence cheap to create.
+ */
+public class QuietConditionFailure extends SpockAssertionError {
+  private static final long serialVersionUID = 1L;
+
+  private static final ThreadLocal<Boolean> quiet = new ThreadLocal<Boolean>() {
+    @Override
+    protected Boolean initialValue() {
+      return false;
+    }
+  };
+
+  public static boolean isQuiet() {
+    return quiet.get();
+  }
+
+  /**
+   * Sets whether condition failures on the current thread are quiet.
+   *
+   * @return whether condition failures were quiet before
+   */
+  public static boolean setQuiet(boolean value) {
+    boolean previous = quiet.get();
+    quiet.set(value);
+    return previous;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Condition not satisfied";
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
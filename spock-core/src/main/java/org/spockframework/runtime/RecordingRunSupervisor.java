@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime;
+
+import org.spockframework.runtime.model.*;
+import org.spockframework.util.*;
+
+import java.util.*;
+
+/**
+ * Records the supervisor callbacks of an iteration that is run concurrently with
+ * other iterations of the same feature, and replays them to the feature's
+ * supervisor once it is this iteration's turn to be reported. This keeps the
+ * iterations of a feature reported in iteration order.
+ *
+ * <p>Calls to {@link #error} are answered immediately with the same run status
+ * that {@link JUnitSupervisor} would return.
+ */
+@ThreadSafe
+class RecordingRunSupervisor implements IRunSupervisor {
+  private enum Kind {
+    BEFORE_SPEC, BEFORE_FEATURE, BEFORE_ITERATION, AFTER_ITERATION, AFTER_FEATURE, AFTER_SPEC,
+    ERROR, SPEC_SKIPPED, FEATURE_SKIPPED
+  }
+
+  private final List<Event> events = new ArrayList<>();
+
+  @Override
+  public void beforeSpec(SpecInfo spec) {
+    record(Kind.BEFORE_SPEC, spec);
+  }
+
+  @Override
+  public void beforeFeature(FeatureInfo feature) {
+    record(Kind.BEFORE_FEATURE, feature);
+  }
+
+  @Override
+  public void beforeIteration(IterationInfo iteration) {
+    record(Kind.BEFORE_ITERATION, iteration);
+  }
+
+  @Override
+  public void afterIteration(IterationInfo iteration) {
+    record(Kind.AFTER_ITERATION, iteration);
+  }
+
+  @Override
+  public void afterFeature(FeatureInfo feature) {
+    record(Kind.AFTER_FEATURE, feature);
+  }
+
+  @Override
+  public void afterSpec(SpecInfo spec) {
+    record(Kind.AFTER_SPEC, spec);
+  }
+
+  @Override
+  public int error(ErrorInfo error) {
+    record(Kind.ERROR, error);
+    return JUnitSupervisor.statusFor(error);
+  }
+
+  @Override
+  public void specSkipped(SpecInfo spec) {
+    record(Kind.SPEC_SKIPPED, spec);
+  }
+
+  @Override
+  public void featureSkipped(FeatureInfo feature) {
+    record(Kind.FEATURE_SKIPPED, feature);
+  }
+
+  /**
+   * Replays all events recorded so far to the given supervisor, in the order
+   * they were recorded, and forgets about them.
+   */
+  public void replay(IRunSupervisor supervisor) {
+    List<Event> recorded;
+    synchronized (events) {
+      recorded = new ArrayList<>(events);
+      events.clear();
+    }
+    for (Event event : recorded) {
+      event.replay(supervisor);
+    }
+  }
+
+  private void record(Kind kind, Object argument) {
+    synchronized (events) {
+      events.add(new Event(kind, argument));
+    }
+  }
+
+  private static class Event {
+    private final Kind kind;
+    private final Object argument;
+
+    Event(Kind kind, Object argument) {
+      this.kind = kind;
+      this.argument = argument;
+    }
+
+    void replay(IRunSupervisor supervisor) {
+      switch (kind) {
+        case BEFORE_SPEC:
+          supervisor.beforeSpec((SpecInfo) argument);
+          break;
+        case BEFORE_FEATURE:
+          supervisor.beforeFeature((FeatureInfo) argument);
+          break;
+        case BEFORE_ITERATION:
+          supervisor.beforeIteration((IterationInfo) argument);
+          break;
+        case AFTER_ITERATION:
+          supervisor.afterIteration((IterationInfo) argument);
+          break;
+        case AFTER_FEATURE:
+          supervisor.afterFeature((FeatureInfo) argument);
+          break;
+        case AFTER_SPEC:
+          supervisor.afterSpec((SpecInfo) argument);
+          break;
+        case ERROR:
+          supervisor.error((ErrorInfo) argument);
+          break;
+        case SPEC_SKIPPED:
+          supervisor.specSkipped((SpecInfo) argument);
+          break;
+        case FEATURE_SKIPPED:
+          supervisor.featureSkipped((FeatureInfo) argument);
+          break;
+        default:
+          throw new InternalSpockError("unknown event kind");
+      }
+    }
+  }
+}
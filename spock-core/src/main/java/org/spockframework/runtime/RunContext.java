@@ -35,6 +35,8 @@ public class RunContext {
         }
       };
 
+  private static volatile RunContext bottomContext;
+
   private final String name;
   private final File spockUserHome;
   private final DelegatingScript configurationScript;
@@ -43,6 +45,9 @@ public class RunContext {
 
   private final IObjectRenderer<Object> diffedObjectRenderer = createDiffedObjectRenderer();
 
+  // access guarded by this
+  private TimerWheel timerWheel;
+
   private RunContext(String name, File spockUserHome,
       @Nullable DelegatingScript configurationScript, List<Class<?>> globalExtensionClasses) {
     this.name = name;
@@ -65,6 +70,10 @@ public class RunContext {
 
   private void stop() {
     globalExtensionRegistry.stopGlobalExtensions();
+
+    synchronized (this) {
+      if (timerWheel != null) timerWheel.stop();
+    }
   }
 
   public String getName() {
@@ -82,7 +91,19 @@ public class RunContext {
 
   public ParameterizedSpecRunner createSpecRunner(SpecInfo spec, RunNotifier notifier) {
     return new ParameterizedSpecRunner(spec,
-        new JUnitSupervisor(spec, notifier, createStackTraceFilter(spec), diffedObjectRenderer));
+        new JUnitSupervisor(spec, notifier, createStackTraceFilter(spec), diffedObjectRenderer,
+            createStructuralDiffRenderer()));
+  }
+
+  /**
+   * Returns the timer wheel shared by all timed invocations of this context.
+   * The wheel's thread is only started once a task gets scheduled.
+   */
+  public synchronized TimerWheel getTimerWheel() {
+    if (timerWheel == null) {
+      timerWheel = new TimerWheel(String.format("[spock.lang.Timeout] Timer for run context '%s'", name));
+    }
+    return timerWheel;
   }
 
   @Nullable
@@ -95,6 +116,13 @@ public class RunContext {
     return runnerConfig.filterStackTrace ? new StackTraceFilter(spec) : new DummyStackTraceFilter();
   }
 
+  @Nullable
+  private StructuralDiffRenderer createStructuralDiffRenderer() {
+    RunnerConfiguration runnerConfig = globalExtensionRegistry.getConfigurationByType(RunnerConfiguration.class);
+    if (runnerConfig.structuralDiffThreshold < 0) return null;
+    return new StructuralDiffRenderer(runnerConfig.structuralDiffThreshold, Math.max(1, runnerConfig.maxDiffEntries));
+  }
+
   private IObjectRenderer<Object> createDiffedObjectRenderer() {
     IObjectRendererService service = new ObjectRendererService();
 
@@ -146,34 +174,59 @@ public class RunContext {
   }
 
   public static RunContext get() {
+    RunContext context = contextStacks.get().peek();
+    return context != null ? context : getBottomContext();
+  }
+
+  /**
+   * Runs the given command with the given context as the current context of this thread.
+   * Used by threads that run specs on behalf of another thread.
+   */
+  static void runWithContext(RunContext context, Runnable command) {
     LinkedList<RunContext> contextStack = contextStacks.get();
-    RunContext context = contextStack.peek();
-    if (context == null) {
+    contextStack.addFirst(context);
+    try {
+      command.run();
+    } finally {
+      contextStack.removeFirst();
+    }
+  }
+
+  // The bottom context is shared by all threads, so that specs run on
+  // different threads see the same (started) global extensions.
+  private static RunContext getBottomContext() {
+    RunContext context = bottomContext;
+    if (context != null) return context;
+
+    synchronized (RunContext.class) {
+      if (bottomContext != null) return bottomContext;
+
       context = createBottomContext();
-      contextStack.addFirst(context);
-      final RunContext bottomContext = context;
+      final RunContext contextToStop = context;
       try {
         Runtime.getRuntime().addShutdownHook(new Thread("org.spockframework.runtime.RunContext.stop()") {
           @Override
           public void run() {
-            bottomContext.stop();
+            contextToStop.stop();
           }
         });
       } catch (AccessControlException ignored) {
         // GAE doesn't support creating a new thread
       }
       context.start();
+      bottomContext = context;
+      return context;
     }
-    return context;
   }
 
   private static List<Class<?>> getCurrentExtensions() {
     RunContext context = contextStacks.get().peek();
+    if (context == null) context = bottomContext;
     if (context == null) return Collections.emptyList();
     return context.globalExtensionClasses;
   }
 
-  // This context will stay around until the thread dies.
+  // This context will stay around until the JVM exits.
   // It would be more accurate to remove the context once the test run
   // has finished, but the JUnit Runner SPI doesn't provide an adequate hook.
   // That said, since most environments fork a new JVM for each test run,
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A single file that holds the run histories of all specs. Each time a spec has run, its
+ * history is appended to the file, and the last history appended for a spec wins. Once
+ * the file has grown to twice its size after the previous compaction, the next append
+ * compacts it to the latest history of each spec. Compaction writes a new file next to
+ * the old one and renames it over the old one, so that the store is never left half-written.
+ *
+ * <p>Reading and writing is guarded by locks on a separate lock file, so that many
+ * (forked) JVMs can share the store, and keep sharing it after the file has been replaced.
+ * A history that was only partly written, for example because a JVM was killed, is skipped
+ * when reading, and removed by the next compaction.
+ *
+ * <p>File format: a header consisting of magic number, format version, and size after
+ * the last compaction, followed by records. Each record starts with its length, followed
+ * by the spec name, spec duration and confidence, and the name, confidence and
+ * duration of each feature.
+ */
+@ThreadSafe
+public class RunHistoryStore {
+  private static final int MAGIC = 0x53524831; // "SRH1"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+  // file locks are held on behalf of the whole JVM, and can't be used to guard against other threads
+  private static final Object jvmLock = new Object();
+
+  private static volatile RunHistoryStore defaultStore;
+
+  private final File file;
+  private final File lockFile;
+  private final File legacyDirectory;
+  private volatile boolean compactionRequested;
+  private volatile boolean legacyDirectoryDeleted;
+  private volatile Map<String, SpecRunHistory> snapshot;
+
+  public RunHistoryStore(File file) {
+    this(file, null);
+  }
+
+  /**
+   * Creates a store that deletes the given directory of per-spec history files,
+   * as written by earlier versions of Spock, the first time it appends a history.
+   */
+  public RunHistoryStore(File file, @Nullable File legacyDirectory) {
+    this.file = file;
+    this.lockFile = new File(file.getPath() + ".lock");
+    this.legacyDirectory = legacyDirectory;
+  }
+
+  /**
+   * Returns the store in the Spock user home. The same store is returned
+   * until the Spock user home changes.
+   */
+  public static RunHistoryStore getDefault() {
+    File file = SpockUserHomeUtil.getFileInSpockUserHome("RunHistory.bin");
+    RunHistoryStore store = defaultStore;
+    if (store == null || !store.file.equals(file)) {
+      store = new RunHistoryStore(file, SpockUserHomeUtil.getFileInSpockUserHome("RunHistory"));
+      defaultStore = store;
+    }
+    return store;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Reads the latest history of each spec, keyed by spec name.
+   */
+  public Map<String, SpecRunHistory> load() throws IOException {
+    if (!file.isFile()) return new HashMap<>();
+
+    synchronized (jvmLock) {
+      RandomAccessFile lockRaf = new RandomAccessFile(lockFile, "rw");
+      try {
+        FileLock lock = lockRaf.getChannel().lock(0, Long.MAX_VALUE, true);
+        try {
+          return read();
+        } finally {
+          lock.release();
+        }
+      } finally {
+        IoUtil.closeQuietly(lockRaf);
+      }
+    }
+  }
+
+  /**
+   * Returns the histories read by the first call of this method on this store. Loading the
+   * histories of many specs one at a time thus only reads the file once. Histories appended
+   * later are not reflected.
+   */
+  public Map<String, SpecRunHistory> loadSnapshot() throws IOException {
+    Map<String, SpecRunHistory> result = snapshot;
+    if (result == null) {
+      result = Collections.unmodifiableMap(load());
+      snapshot = result;
+    }
+    return result;
+  }
+
+  /**
+   * Appends the given history, compacting the file first if necessary.
+   */
+  public void append(SpecRunHistory history) throws IOException {
+    byte[] record = toRecord(history);
+
+    synchronized (jvmLock) {
+      IoUtil.createDirectory(file.getParentFile());
+      RandomAccessFile lockRaf = new RandomAccessFile(lockFile, "rw");
+      try {
+        FileLock lock = lockRaf.getChannel().lock();
+        try {
+          deleteLegacyDirectory();
+          if (needsCompaction()) compact();
+          appendRecord(record);
+        } finally {
+          lock.release();
+        }
+      } finally {
+        IoUtil.closeQuietly(lockRaf);
+      }
+    }
+  }
+
+  private Map<String, SpecRunHistory> read() throws IOException {
+    RandomAccessFile raf;
+    try {
+      raf = new RandomAccessFile(file, "r");
+    } catch (FileNotFoundException e) {
+      return new HashMap<>();
+    }
+
+    try {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      if (size < HEADER_SIZE) return new HashMap<>();
+      if (size > Integer.MAX_VALUE) {
+        compactionRequested = true;
+        return new HashMap<>();
+      }
+      return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    } finally {
+      IoUtil.closeQuietly(raf);
+    }
+  }
+
+  private Map<String, SpecRunHistory> parse(ByteBuffer buffer) {
+    Map<String, SpecRunHistory> histories = new HashMap<>();
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+      compactionRequested = true;
+      return histories;
+    }
+    buffer.getLong(); // compacted size
+
+    while (buffer.remaining() >= 4) {
+      int length = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) {
+        compactionRequested = true;
+        break;
+      }
+      ByteBuffer record = buffer.slice();
+      record.limit(length);
+      buffer.position(buffer.position() + length);
+      try {
+        SpecRunHistory history = SpecRunHistory.read(record);
+        histories.put(history.getSpecName(), history);
+      } catch (BufferUnderflowException | IllegalArgumentException e) {
+        compactionRequested = true;
+      }
+    }
+
+    return histories;
+  }
+
+  // whether the file is missing, has an invalid header, holds partly written records, or has doubled in size
+  private boolean needsCompaction() throws IOException {
+    if (compactionRequested) return true;
+
+    RandomAccessFile raf;
+    try {
+      raf = new RandomAccessFile(file, "r");
+    } catch (FileNotFoundException e) {
+      return true;
+    }
+
+    try {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      if (size < HEADER_SIZE) return true;
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      readFully(channel, header, 0);
+      if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) return true;
+      return size > Math.max(MIN_COMPACTION_SIZE, 2 * header.getLong());
+    } finally {
+      IoUtil.closeQuietly(raf);
+    }
+  }
+
+  // Writes the latest history of each spec to a new file, and renames it over the old one.
+  // Readers that still have the old file mapped keep seeing the old file. Where that prevents
+  // the old file from being replaced (Windows), compaction is retried with the next append.
+  private void compact() throws IOException {
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    for (SpecRunHistory history : read().values()) {
+      records.write(toRecord(history));
+    }
+
+    File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    try {
+      FileOutputStream out = new FileOutputStream(tempFile);
+      try {
+        out.write(header(HEADER_SIZE + records.size()).array());
+        records.writeTo(out);
+      } finally {
+        IoUtil.closeQuietly(out);
+      }
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      compactionRequested = false;
+    } catch (IOException e) {
+      if (!file.isFile()) throw e;
+    } finally {
+      tempFile.delete(); // only exists if it couldn't be renamed
+    }
+  }
+
+  private void appendRecord(byte[] record) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      FileChannel channel = raf.getChannel();
+      writeFully(channel, ByteBuffer.wrap(record), channel.size());
+    } finally {
+      IoUtil.closeQuietly(raf);
+    }
+  }
+
+  // the histories of earlier versions can't be read anymore, and would stay around forever
+  private void deleteLegacyDirectory() {
+    if (legacyDirectory == null || legacyDirectoryDeleted) return;
+
+    try {
+      for (File legacyFile : IoUtil.listFilesRecursively(legacyDirectory)) {
+        legacyFile.delete();
+      }
+      legacyDirectory.delete();
+    } catch (IOException ignored) {
+      // try again next run
+    }
+    legacyDirectoryDeleted = true;
+  }
+
+  private static ByteBuffer header(long compactedSize) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(compactedSize);
+    header.flip();
+    return header;
+  }
+
+  private static byte[] toRecord(SpecRunHistory history) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(0); // placeholder for length
+    history.write(out);
+    out.close();
+
+    byte[] record = bytes.toByteArray();
+    ByteBuffer.wrap(record).putInt(record.length - 4);
+    return record;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) throw new EOFException();
+    }
+    buffer.flip();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+}
@@ -19,10 +19,13 @@ import org.spockframework.util.*;
 
 import java.io.*;
 import java.math.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.*;
 
 public class SpecRunHistory implements Comparable<SpecRunHistory> {
   private static final int MAX_CONFIDENCE = 5;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
 
   private final String specName;
   private Data data = new Data();
@@ -35,30 +38,27 @@ public class SpecRunHistory implements Comparable<SpecRunHistory> {
     return specName;
   }
 
+  /**
+   * Returns the duration of the spec's last run in nanoseconds, or 0 if it hasn't been run yet.
+   */
+  public long getSpecDuration() {
+    return data.specDuration;
+  }
+
+  /**
+   * Loads this spec's history from the {@link RunHistoryStore#getDefault() default store}.
+   * The store is only read once per run, see {@link RunHistoryStore#loadSnapshot()}.
+   */
   public void loadFromDisk() throws IOException {
-    ObjectInputStream in = new ObjectInputStream(new FileInputStream(getDataFile()));
-    try {
-      data = (Data) in.readObject();
-    } catch (ClassNotFoundException e) {
-      // in JDK 1.5, there is no IOException constructor that takes a cause
-      IOException io = new IOException("deserialization error");
-      io.initCause(e);
-      throw io;
-    } finally {
-      IoUtil.closeQuietly(in);
-    }
+    SpecRunHistory stored = RunHistoryStore.getDefault().loadSnapshot().get(specName);
+    if (stored != null) data = stored.data.copy();
   }
 
+  /**
+   * Appends this spec's history to the {@link RunHistoryStore#getDefault() default store}.
+   */
   public void saveToDisk() throws IOException {
-    File file = getDataFile();
-    IoUtil.createDirectory(file.getParentFile());
-
-    ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
-    try {
-      out.writeObject(data);
-    } finally {
-      IoUtil.closeQuietly(out);
-    }
+    RunHistoryStore.getDefault().append(this);
   }
 
   public void sortFeatures(SpecInfo spec) {
@@ -127,11 +127,47 @@ public class SpecRunHistory implements Comparable<SpecRunHistory> {
     return featureNames;
   }
 
-  private File getDataFile() {
-    return SpockUserHomeUtil.getFileInSpockUserHome("RunHistory", specName);
+  void write(DataOutputStream out) throws IOException {
+    writeString(out, specName);
+    out.writeLong(data.specDuration);
+    writeString(out, data.specConfidence.toString());
+    out.writeInt(data.featureConfidences.size());
+    for (Map.Entry<String, Integer> entry : data.featureConfidences.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeInt(entry.getValue());
+      out.writeLong(data.featureDurations.get(entry.getKey())); // never null
+    }
+  }
+
+  static SpecRunHistory read(ByteBuffer in) {
+    SpecRunHistory history = new SpecRunHistory(readString(in));
+    Data data = history.data;
+    data.specDuration = in.getLong();
+    data.specConfidence = new BigDecimal(readString(in));
+    int numFeatures = in.getInt();
+    for (int i = 0; i < numFeatures; i++) {
+      String name = readString(in);
+      data.featureConfidences.put(name, in.getInt());
+      data.featureDurations.put(name, in.getLong());
+    }
+    return history;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
   }
 
-  private static class Data implements Serializable {
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("invalid string length: " + length);
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static class Data {
     // BigDecimal ensures that specs with equal confidence will be ordered
     // according to their duration, instead of falling prey to some rounding error
     BigDecimal specConfidence = new BigDecimal(0);
@@ -139,6 +175,15 @@ public class SpecRunHistory implements Comparable<SpecRunHistory> {
 
     Map<String, Integer> featureConfidences = new HashMap<>();
     Map<String, Long> featureDurations = new HashMap<>();
+
+    Data copy() {
+      Data copy = new Data();
+      copy.specConfidence = specConfidence;
+      copy.specDuration = specDuration;
+      copy.featureConfidences.putAll(featureConfidences);
+      copy.featureDurations.putAll(featureDurations);
+      return copy;
+    }
   }
 }
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.Beta;
+
+import java.io.IOException;
+import java.util.*;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Sorter;
+
+/**
+ * Schedules specs based on the durations recorded in their {@link SpecRunHistory run histories}.
+ * Specs can be ordered longest first, which reduces the time that the last spec of a concurrent
+ * run keeps the run going, and split into shards of about equal total duration with the
+ * longest processing time (LPT) rule. Specs that haven't been run yet are assumed to take
+ * as long as the average spec that has.
+ *
+ * <p>Scheduling is deterministic, so that independent processes that schedule the same specs
+ * with the same histories agree on the shards.
+ */
+@Beta
+public class SpecScheduler {
+  private final Map<String, SpecRunHistory> histories;
+  private final long defaultDuration;
+
+  public SpecScheduler(Map<String, SpecRunHistory> histories) {
+    this.histories = histories;
+    defaultDuration = computeAverageDuration(histories.values());
+  }
+
+  /**
+   * Creates a scheduler for the histories in the {@link RunHistoryStore#getDefault() default store}.
+   */
+  public static SpecScheduler fromDefaultStore() {
+    try {
+      return new SpecScheduler(RunHistoryStore.getDefault().load());
+    } catch (IOException e) {
+      return new SpecScheduler(Collections.<String, SpecRunHistory>emptyMap());
+    }
+  }
+
+  /**
+   * Returns the estimated duration of the given spec in nanoseconds.
+   */
+  public long estimateDuration(String specName) {
+    SpecRunHistory history = histories.get(specName);
+    return history == null || history.getSpecDuration() <= 0 ? defaultDuration : history.getSpecDuration();
+  }
+
+  public List<String> orderLongestFirst(Collection<String> specNames) {
+    List<String> result = new ArrayList<>(specNames);
+    Collections.sort(result, new Comparator<String>() {
+      @Override
+      public int compare(String spec1, String spec2) {
+        return compareLongestFirst(spec1, spec2);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Splits the given specs into the given number of shards, each of which holds specs
+   * ordered longest first. Some shards may be empty if there are fewer specs than shards.
+   */
+  public List<List<String>> partition(Collection<String> specNames, int shardCount) {
+    if (shardCount < 1) throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+
+    List<List<String>> shards = new ArrayList<>(shardCount);
+    PriorityQueue<Shard> byLoad = new PriorityQueue<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      shards.add(new ArrayList<String>());
+      byLoad.add(new Shard(i));
+    }
+
+    for (String specName : orderLongestFirst(specNames)) {
+      Shard leastLoaded = byLoad.poll();
+      shards.get(leastLoaded.index).add(specName);
+      leastLoaded.load += estimateDuration(specName);
+      byLoad.add(leastLoaded);
+    }
+
+    return shards;
+  }
+
+  /**
+   * Returns a sorter that runs longer specs first.
+   */
+  public Sorter createSorter() {
+    return new Sorter(new Comparator<Description>() {
+      @Override
+      public int compare(Description desc1, Description desc2) {
+        String spec1 = desc1.getClassName();
+        String spec2 = desc2.getClassName();
+        // descriptions without a class name go last, so that the order stays transitive
+        if (spec1 == null) return spec2 == null ? 0 : 1;
+        if (spec2 == null) return -1;
+        if (spec1.equals(spec2)) return 0; // keep the order of features
+        return compareLongestFirst(spec1, spec2);
+      }
+    });
+  }
+
+  /**
+   * Returns a filter that only runs the specs of the shard with the given (zero-based) index.
+   */
+  public Filter createShardFilter(Collection<String> specNames, final int shardCount, final int shardIndex) {
+    if (shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException(String.format("shardIndex must be between 0 and %d: %d", shardCount - 1, shardIndex));
+    }
+    final Set<String> shard = new HashSet<>(partition(specNames, shardCount).get(shardIndex));
+
+    return new Filter() {
+      @Override
+      public boolean shouldRun(Description description) {
+        if (shard.contains(description.getClassName())) return true;
+        for (Description child : description.getChildren()) {
+          if (shouldRun(child)) return true;
+        }
+        return false;
+      }
+
+      @Override
+      public String describe() {
+        return String.format("shard %d of %d", shardIndex + 1, shardCount);
+      }
+    };
+  }
+
+  private int compareLongestFirst(String spec1, String spec2) {
+    long duration1 = estimateDuration(spec1);
+    long duration2 = estimateDuration(spec2);
+    if (duration1 != duration2) return duration1 > duration2 ? -1 : 1;
+    return spec1.compareTo(spec2);
+  }
+
+  private static long computeAverageDuration(Collection<SpecRunHistory> histories) {
+    long total = 0;
+    int count = 0;
+    for (SpecRunHistory history : histories) {
+      if (history.getSpecDuration() <= 0) continue;
+      total += history.getSpecDuration();
+      count++;
+    }
+    return count == 0 ? 1 : total / count;
+  }
+
+  private static class Shard implements Comparable<Shard> {
+    final int index;
+    long load;
+
+    Shard(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int compareTo(Shard other) {
+      if (load != other.load) return load < other.load ? -1 : 1;
+      return index - other.index;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.*;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Splits the specs found in one or more class directories into shards of about equal
+ * duration with a {@link SpecScheduler}, and writes the names of each shard's specs to
+ * {@code shard-<n>.txt} (one-based) in the output directory. Must be run with the test
+ * runtime class path.
+ *
+ * <p>Usage: {@code SpecShardPlanner <shard count> <output directory> <class directory>...}
+ */
+@Beta
+public class SpecShardPlanner {
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: SpecShardPlanner <shard count> <output directory> <class directory>...");
+      System.exit(1);
+    }
+
+    int shardCount = Integer.parseInt(args[0]);
+    File outputDir = new File(args[1]);
+    List<File> classDirs = new ArrayList<>();
+    for (String classDir : Arrays.asList(args).subList(2, args.length)) {
+      classDirs.add(new File(classDir));
+    }
+
+    List<List<String>> shards = SpecScheduler.fromDefaultStore().partition(findSpecs(classDirs), shardCount);
+    writeShards(shards, outputDir);
+    System.out.println(String.format("Planned %d shards in %s", shardCount, outputDir));
+  }
+
+  public static List<String> findSpecs(List<File> classDirs) throws IOException {
+    ClassLoader classLoader = SpecShardPlanner.class.getClassLoader();
+    List<String> specNames = new ArrayList<>();
+
+    for (File classDir : classDirs) {
+      if (!classDir.isDirectory()) continue;
+      String basePath = classDir.getCanonicalPath() + File.separator;
+      for (File file : IoUtil.listFilesRecursively(classDir)) {
+        if (!"class".equals(IoUtil.getFileExtension(file.getName()))) continue;
+        String path = file.getCanonicalPath().substring(basePath.length());
+        String className = path.substring(0, path.length() - ".class".length()).replace(File.separatorChar, '.');
+        if (isRunnableSpec(className, classLoader)) specNames.add(className);
+      }
+    }
+
+    return specNames;
+  }
+
+  public static void writeShards(List<List<String>> shards, File outputDir) throws IOException {
+    IoUtil.createDirectory(outputDir);
+    for (int i = 0; i < shards.size(); i++) {
+      Writer writer = new OutputStreamWriter(new FileOutputStream(new File(outputDir, "shard-" + (i + 1) + ".txt")), "UTF-8");
+      try {
+        for (String specName : shards.get(i)) {
+          writer.write(specName);
+          writer.write('\n');
+        }
+      } finally {
+        IoUtil.closeQuietly(writer);
+      }
+    }
+  }
+
+  private static boolean isRunnableSpec(String className, ClassLoader classLoader) {
+    try {
+      Class<?> clazz = Class.forName(className, false, classLoader);
+      return SpecUtil.isRunnableSpec(clazz) && Modifier.isPublic(clazz.getModifiers());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+}
@@ -101,12 +101,16 @@ public final class SpecUtil {
   private static List<SpecRunHistory> loadHistories(List<String> specNames) {
     List<SpecRunHistory> histories = new ArrayList<>(specNames.size());
 
+    Map<String, SpecRunHistory> stored;
+    try {
+      stored = RunHistoryStore.getDefault().load();
+    } catch (IOException e) {
+      stored = Collections.emptyMap(); // histories stay empty, so specs will be run early on
+    }
+
     for (String name : specNames) {
-      SpecRunHistory history = new SpecRunHistory(name);
-      try {
-        history.loadFromDisk();
-      } catch (IOException ignored) {} // history stays empty, so spec will be run early on
-      histories.add(history);
+      SpecRunHistory history = stored.get(name);
+      histories.add(history == null ? new SpecRunHistory(name) : history);
     }
 
     return histories;
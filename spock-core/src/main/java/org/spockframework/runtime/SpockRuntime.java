@@ -32,6 +32,10 @@ public abstract class SpockRuntime {
   public static void verifyCondition(@Nullable ErrorCollector errorCollector, @Nullable ValueRecorder recorder,
       @Nullable String text, int line, int column, @Nullable Object message, @Nullable Object condition) {
     if (!GroovyRuntimeUtil.isTruthy(condition)) {
+      if (QuietConditionFailure.isQuiet()) {
+        errorCollector.collectOrThrow(new QuietConditionFailure());
+        return;
+      }
       final ConditionNotSatisfiedError conditionNotSatisfiedError = new ConditionNotSatisfiedError(
         new Condition(getValues(recorder), text, TextPosition.create(line, column), messageToString(message), null, null));
       errorCollector.collectOrThrow(conditionNotSatisfiedError);
@@ -51,6 +55,10 @@ public abstract class SpockRuntime {
         errorCollector.collectOrThrow(spockException); // this is our exception - it already has good message
         return;
       }
+      if (QuietConditionFailure.isQuiet()) {
+        errorCollector.collectOrThrow(new QuietConditionFailure());
+        return;
+      }
     final ConditionFailedWithExceptionError conditionNotSatisfiedError = new ConditionFailedWithExceptionError(
         new Condition(
             getValues(recorder),
@@ -83,6 +91,10 @@ public abstract class SpockRuntime {
     if (!explicit && result == null && GroovyRuntimeUtil.isVoidMethod(target, method, args)) return;
 
     if (!GroovyRuntimeUtil.isTruthy(result)) {
+      if (QuietConditionFailure.isQuiet()) {
+        errorCollector.collectOrThrow(new QuietConditionFailure());
+        return;
+      }
       List<Object> values = getValues(recorder);
       if (values != null) CollectionUtil.setLastElement(values, result);
       final ConditionNotSatisfiedError conditionNotSatisfiedError = new ConditionNotSatisfiedError(
@@ -91,6 +103,63 @@ public abstract class SpockRuntime {
     }
   }
 
+  public static final String IS_CONDITION_SATISFIED = "isConditionSatisfied";
+
+  /**
+   * Evaluates a condition whose value recording has been deferred. Only if the condition
+   * isn't satisfied (or throws), it is evaluated again with value recording.
+   */
+  public static boolean isConditionSatisfied(@Nullable Object condition) {
+    return GroovyRuntimeUtil.isTruthy(condition);
+  }
+
+  public static final String NEEDS_RECORDED_EVALUATION = "needsRecordedEvaluation";
+
+  public static boolean needsRecordedEvaluation(@Nullable ErrorCollector errorCollector, boolean satisfied) {
+    if (satisfied) return false;
+    if (QuietConditionFailure.isQuiet()) {
+      // the failure won't be rendered, hence there is no point in evaluating the condition again
+      errorCollector.collectOrThrow(new QuietConditionFailure());
+      return false;
+    }
+    return true;
+  }
+
+  public static final String VERIFY_DEFERRED_CONDITION = "verifyDeferredCondition";
+
+  /**
+   * Like {@link #verifyCondition}, but for the recorded evaluation of a condition that
+   * wasn't satisfied when first evaluated. Hence the condition fails even if it is satisfied now,
+   * in which case the outcome of the first evaluation is reported.
+   */
+  public static void verifyDeferredCondition(@Nullable ErrorCollector errorCollector, @Nullable ValueRecorder recorder,
+      @Nullable String text, int line, int column, @Nullable Object message, @Nullable Object condition,
+      @Nullable Throwable originalError) {
+    if (GroovyRuntimeUtil.isTruthy(condition)) {
+      conditionChangedOnReevaluation(errorCollector, text, line, column, originalError);
+      return;
+    }
+    verifyCondition(errorCollector, recorder, text, line, column, message, condition);
+  }
+
+  private static void conditionChangedOnReevaluation(@Nullable ErrorCollector errorCollector, @Nullable String text,
+      int line, int column, @Nullable Throwable originalError) {
+    if (originalError == null) {
+      errorCollector.collectOrThrow(new ConditionNotSatisfiedError(
+          new Condition(null, text, TextPosition.create(line, column),
+              "Condition not satisfied, but satisfied when evaluated again to record its values", null, null)));
+      return;
+    }
+    if (originalError instanceof SpockAssertionError) {
+      errorCollector.collectOrThrow((SpockAssertionError) originalError);
+      return;
+    }
+    errorCollector.collectOrThrow(new ConditionFailedWithExceptionError(
+        new Condition(null, text, TextPosition.create(line, column),
+            "Condition failed with Exception, but satisfied when evaluated again to record its values", null, null),
+        originalError));
+  }
+
   public static final String DESPREAD_LIST = "despreadList";
 
   public static Object[] despreadList(Object[] args, Object[] spreads, int[] positions) {
@@ -126,6 +195,10 @@ public abstract class SpockRuntime {
 
     void verify(@Nullable ErrorCollector errorCollector, @Nullable List<Object> values, @Nullable String text, int line, int column, @Nullable String message) {
       if (HamcrestFacade.matches(matcher, actual)) return;
+      if (QuietConditionFailure.isQuiet()) {
+        errorCollector.collectOrThrow(new QuietConditionFailure());
+        return;
+      }
 
       if (values != null) {
         CollectionUtil.setLastElement(values, shortSyntax ? actual : false);
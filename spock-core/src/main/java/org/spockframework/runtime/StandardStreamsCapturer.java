@@ -20,6 +20,11 @@ import java.io.PrintStream;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * Captures standard out and standard err, and notifies listeners one line at a time.
+ * Output that doesn't end with a line separator is held back until {@link #flush()}
+ * is called by the thread that wrote it, or capturing is stopped.
+ */
 @ThreadSafe
 public class StandardStreamsCapturer implements IStoppable {
   private final Set<IStandardStreamsListener> standardStreamsListeners =
@@ -27,6 +32,8 @@ public class StandardStreamsCapturer implements IStoppable {
 
   private volatile TeePrintStream outStream;
   private volatile TeePrintStream errStream;
+  private volatile LineBufferedPrintStream outNotifier;
+  private volatile LineBufferedPrintStream errNotifier;
 
   public synchronized void start() {
     startCapture(System.out, outStream, true);
@@ -40,14 +47,14 @@ public class StandardStreamsCapturer implements IStoppable {
       teeStream.stopDelegation();
     }
 
-    StringMessagePrintStream notifyingStream = new StringMessagePrintStream() {
+    LineBufferedPrintStream notifyingStream = new LineBufferedPrintStream() {
       @Override
-      protected void printed(String message) {
+      protected void printed(String line) {
         for (IStandardStreamsListener listener : standardStreamsListeners) {
           if (isOut) {
-            listener.standardOut(message);
+            listener.standardOut(line);
           } else {
-            listener.standardErr(message);
+            listener.standardErr(line);
           }
         }
       }
@@ -56,26 +63,42 @@ public class StandardStreamsCapturer implements IStoppable {
     teeStream = new TeePrintStream(originalStream, notifyingStream);
     if (isOut) {
       outStream = teeStream;
+      outNotifier = notifyingStream;
       System.setOut(teeStream);
     } else {
       errStream = teeStream;
+      errNotifier = notifyingStream;
       System.setErr(teeStream);
     }
   }
 
+  /**
+   * Notifies listeners of the incomplete lines written by the current thread.
+   */
+  public void flush() {
+    flushLines(outNotifier);
+    flushLines(errNotifier);
+  }
+
+  private void flushLines(@Nullable LineBufferedPrintStream notifier) {
+    if (notifier != null) notifier.flushLines();
+  }
+
   @Override
   public synchronized void stop() {
-    stopCapture(System.out, outStream, true);
-    stopCapture(System.err, errStream, false);
+    stopCapture(System.out, outStream, outNotifier, true);
+    stopCapture(System.err, errStream, errNotifier, false);
   }
 
-  private void stopCapture(PrintStream originalStream, TeePrintStream teeStream, boolean isOut) {
+  private void stopCapture(PrintStream originalStream, TeePrintStream teeStream,
+      LineBufferedPrintStream notifier, boolean isOut) {
     if (originalStream != teeStream) return;
     if (isOut) {
       System.setOut(teeStream.getDelegates().get(0));
     } else {
       System.setErr(teeStream.getDelegates().get(0));
     }
+    notifier.flushAllLines();
   }
 
   public void addStandardStreamsListener(IStandardStreamsListener listener) {
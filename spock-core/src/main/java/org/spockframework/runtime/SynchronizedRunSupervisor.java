@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.runtime.model.*;
+import org.spockframework.util.ThreadSafe;
+
+/**
+ * Forwards all supervisor callbacks to a delegate while holding a lock that is
+ * shared by all supervisors of a spec whose features run concurrently. This
+ * keeps JUnit's <tt>RunNotifier</tt> and all run listeners from being called
+ * by more than one thread at a time, while still notifying them as soon as
+ * something happens.
+ */
+@ThreadSafe
+class SynchronizedRunSupervisor implements IRunSupervisor {
+  private final IRunSupervisor delegate;
+  private final Object lock;
+
+  SynchronizedRunSupervisor(IRunSupervisor delegate, Object lock) {
+    this.delegate = delegate;
+    this.lock = lock;
+  }
+
+  @Override
+  public void beforeSpec(SpecInfo spec) {
+    synchronized (lock) {
+      delegate.beforeSpec(spec);
+    }
+  }
+
+  @Override
+  public void beforeFeature(FeatureInfo feature) {
+    synchronized (lock) {
+      delegate.beforeFeature(feature);
+    }
+  }
+
+  @Override
+  public void beforeIteration(IterationInfo iteration) {
+    synchronized (lock) {
+      delegate.beforeIteration(iteration);
+    }
+  }
+
+  @Override
+  public void afterIteration(IterationInfo iteration) {
+    synchronized (lock) {
+      delegate.afterIteration(iteration);
+    }
+  }
+
+  @Override
+  public void afterFeature(FeatureInfo feature) {
+    synchronized (lock) {
+      delegate.afterFeature(feature);
+    }
+  }
+
+  @Override
+  public void afterSpec(SpecInfo spec) {
+    synchronized (lock) {
+      delegate.afterSpec(spec);
+    }
+  }
+
+  @Override
+  public int error(ErrorInfo error) {
+    synchronized (lock) {
+      return delegate.error(error);
+    }
+  }
+
+  @Override
+  public void specSkipped(SpecInfo spec) {
+    synchronized (lock) {
+      delegate.specSkipped(spec);
+    }
+  }
+
+  @Override
+  public void featureSkipped(FeatureInfo feature) {
+    synchronized (lock) {
+      delegate.featureSkipped(feature);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.ThreadSafe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel that runs tasks once their deadline has passed. Tasks are kept in doubly linked
+ * lists, one per slot of the wheel, hence scheduling and cancelling a task takes constant time and doesn't
+ * allocate. Deadlines are rounded up to the next tick. A single daemon thread advances the wheel, and
+ * runs expired tasks; it only wakes up once per tick while tasks are scheduled.
+ *
+ * <p>Tasks must not block, as they delay all other tasks of the wheel.
+ */
+@ThreadSafe
+public class TimerWheel {
+  private static final int WHEEL_SIZE = 512;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final String threadName;
+  private final long tickNanos;
+  private final long startTime = System.nanoTime();
+
+  // access guarded by this
+  private final Task[] wheel = new Task[WHEEL_SIZE];
+  private long processedTick;
+  private int scheduledCount;
+  private Thread thread;
+  private boolean stopped;
+
+  public TimerWheel(String threadName) {
+    this(threadName, DEFAULT_TICK_NANOS, TimeUnit.NANOSECONDS);
+  }
+
+  public TimerWheel(String threadName, long tick, TimeUnit unit) {
+    this.threadName = threadName;
+    this.tickNanos = unit.toNanos(tick);
+  }
+
+  /**
+   * A task that can be scheduled with a timer wheel. The same task may be scheduled again
+   * once it has expired or has been cancelled.
+   */
+  public abstract static class Task {
+    // access guarded by the wheel
+    private Task prev;
+    private Task next;
+    private Task nextExpired;
+    private long deadlineTick;
+    private boolean scheduled;
+    private boolean running;
+
+    /**
+     * Called on the wheel's thread once the task's deadline has passed.
+     */
+    protected abstract void expired();
+
+    /**
+     * Called on the wheel's thread if {@link #expired()} threw the given exception. Passes
+     * the exception to the thread's uncaught exception handler, unless overridden.
+     */
+    protected void failed(Throwable failure) {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+    }
+  }
+
+  /**
+   * Schedules the given task to expire after the given delay. If the task is already
+   * scheduled, it is rescheduled.
+   */
+  public synchronized void schedule(Task task, long delay, TimeUnit unit) {
+    if (stopped) throw new IllegalStateException("Timer wheel has been stopped");
+
+    if (task.scheduled) unlink(task);
+    // rounds up, and makes sure the task doesn't land in a tick that has already been processed
+    task.deadlineTick = getCurrentTick() + unit.toNanos(delay) / tickNanos + 1;
+    int slot = (int) (task.deadlineTick & WHEEL_MASK);
+    task.prev = null;
+    task.next = wheel[slot];
+    if (task.next != null) task.next.prev = task;
+    wheel[slot] = task;
+    task.scheduled = true;
+
+    if (++scheduledCount == 1) {
+      if (thread == null) {
+        startThread();
+      } else {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Cancels the given task. Does nothing if the task isn't scheduled.
+   */
+  public synchronized void cancel(Task task) {
+    if (task.scheduled) unlink(task);
+  }
+
+  /**
+   * Tells whether the given task is neither scheduled nor running.
+   */
+  public synchronized boolean isIdle(Task task) {
+    return !task.scheduled && !task.running;
+  }
+
+  public synchronized void stop() {
+    stopped = true;
+    notifyAll();
+  }
+
+  private void unlink(Task task) {
+    if (task.prev != null) {
+      task.prev.next = task.next;
+    } else {
+      wheel[(int) (task.deadlineTick & WHEEL_MASK)] = task.next;
+    }
+    if (task.next != null) task.next.prev = task.prev;
+    task.prev = null;
+    task.next = null;
+    task.scheduled = false;
+    scheduledCount--;
+  }
+
+  private long getCurrentTick() {
+    return (System.nanoTime() - startTime) / tickNanos;
+  }
+
+  private void startThread() {
+    thread = new Thread(threadName) {
+      @Override
+      public void run() {
+        try {
+          advance();
+        } catch (InterruptedException ignored) {
+          // stop
+        }
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void advance() throws InterruptedException {
+    while (true) {
+      Task expired;
+      synchronized (this) {
+        while (scheduledCount == 0 && !stopped) wait();
+        if (stopped) return;
+
+        long currentTick = getCurrentTick();
+        if (currentTick == processedTick) {
+          long nextTickTime = startTime + (currentTick + 1) * tickNanos;
+          TimeUnit.NANOSECONDS.timedWait(this, nextTickTime - System.nanoTime());
+          continue;
+        }
+        expired = collectExpired(currentTick);
+        processedTick = currentTick;
+      }
+
+      runExpired(expired);
+    }
+  }
+
+  private Task collectExpired(long currentTick) {
+    Task expired = null;
+    // after a long idle period, visiting every slot once is enough
+    long ticks = Math.min(currentTick - processedTick, WHEEL_SIZE);
+    for (long tick = processedTick + 1; tick <= processedTick + ticks; tick++) {
+      Task task = wheel[(int) (tick & WHEEL_MASK)];
+      while (task != null) {
+        Task next = task.next;
+        if (task.deadlineTick <= currentTick) {
+          unlink(task);
+          task.running = true;
+          task.nextExpired = expired;
+          expired = task;
+        }
+        task = next;
+      }
+    }
+    return expired;
+  }
+
+  private void runExpired(Task expired) {
+    while (expired != null) {
+      Task next;
+      synchronized (this) {
+        next = expired.nextExpired;
+        expired.nextExpired = null;
+      }
+      try {
+        expired.expired();
+      } catch (Throwable t) {
+        reportFailure(expired, t);
+      } finally {
+        synchronized (this) {
+          expired.running = false;
+        }
+      }
+      expired = next;
+    }
+  }
+
+  // keeps the wheel going whatever the task does
+  private void reportFailure(Task task, Throwable failure) {
+    try {
+      task.failed(failure);
+    } catch (Throwable t) {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+    }
+  }
+}
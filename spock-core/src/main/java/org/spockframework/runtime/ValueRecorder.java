@@ -17,6 +17,7 @@
 package org.spockframework.runtime;
 
 import org.spockframework.runtime.model.ExpressionInfo;
+import org.spockframework.util.Nullable;
 
 import java.util.*;
 
@@ -27,15 +28,28 @@ import java.util.*;
  */
 public class ValueRecorder {
   private final ArrayList<Object> values = new ArrayList<>();
-  private final Deque<Integer> startedRecordings = new ArrayDeque<>();
+  // stack of the indices of recordings that have been started but not yet completed
+  private int[] startedRecordings = new int[16];
+  private int startedRecordingsSize;
 
   public static final String RESET = "reset";
 
   public ValueRecorder reset() {
     values.clear();
+    startedRecordingsSize = 0;
     return this;
   }
 
+  public static final String RESET_OR_CREATE = "resetOrCreate";
+
+  /**
+   * Resets the given recorder, or creates one if it is {@code null}. Used when the value recording
+   * of conditions is deferred, so that a recorder is only created once a condition fails.
+   */
+  public static ValueRecorder resetOrCreate(@Nullable ValueRecorder recorder) {
+    return recorder == null ? new ValueRecorder() : recorder.reset();
+  }
+
   public static final String RECORD = "record";
 
   /**
@@ -47,8 +61,8 @@ public class ValueRecorder {
     values.add(value);
 
     boolean foundThisCallOnStack = false;
-    while (!startedRecordings.isEmpty()){
-      final Integer indexFromStack = startedRecordings.pop();
+    while (startedRecordingsSize > 0){
+      final int indexFromStack = startedRecordings[--startedRecordingsSize];
       if (indexFromStack==index){
         foundThisCallOnStack = true;
         break;
@@ -64,7 +78,10 @@ public class ValueRecorder {
   public static final String START_RECORDING_VALUE = "startRecordingValue";
 
   public int startRecordingValue(int index){
-    startedRecordings.push(index);
+    if (startedRecordingsSize == startedRecordings.length) {
+      startedRecordings = Arrays.copyOf(startedRecordings, startedRecordingsSize * 2);
+    }
+    startedRecordings[startedRecordingsSize++] = index;
     return index;
   }
 
@@ -84,10 +101,10 @@ public class ValueRecorder {
   }
 
   public Integer getCurrentRecordingVarNum() {
-    if (startedRecordings.isEmpty()) {
+    if (startedRecordingsSize == 0) {
       return null;
     } else {
-      return startedRecordings.peek();
+      return startedRecordings[startedRecordingsSize - 1];
     }
   }
 }
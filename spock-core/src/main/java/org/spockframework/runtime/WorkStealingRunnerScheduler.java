@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime;
+
+import org.spockframework.util.Beta;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * A JUnit <tt>RunnerScheduler</tt> that runs the children of a runner (e.g. the
+ * specs of a suite) on a shared <tt>ForkJoinPool</tt>. Children scheduled from within
+ * a pool thread (e.g. by a nested suite) are forked onto that thread's work queue,
+ * where idle threads can steal them. Each child runs with the run context that was
+ * current when it was scheduled.
+ */
+@Beta
+public class WorkStealingRunnerScheduler implements RunnerScheduler {
+  private final ForkJoinPool pool;
+  private final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+  public WorkStealingRunnerScheduler(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public void schedule(final Runnable childStatement) {
+    final RunContext context = RunContext.get();
+    ForkJoinTask<?> task = ForkJoinTask.adapt(new Runnable() {
+      @Override
+      public void run() {
+        RunContext.runWithContext(context, childStatement);
+      }
+    });
+
+    synchronized (tasks) {
+      tasks.add(task);
+    }
+
+    if (ForkJoinTask.getPool() == pool) {
+      task.fork();
+    } else {
+      pool.execute(task);
+    }
+  }
+
+  @Override
+  public void finished() {
+    List<ForkJoinTask<?>> scheduled;
+    synchronized (tasks) {
+      scheduled = new ArrayList<>(tasks);
+      tasks.clear();
+    }
+
+    // joining from a pool thread runs or steals other tasks while waiting
+    for (ForkJoinTask<?> task : scheduled) {
+      task.join();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.condition;
+
+import java.util.*;
+
+import org.spockframework.util.TextUtil;
+
+/**
+ * Renders an edit path between two sequences of lines, one line per row. Lines of the first
+ * sequence only are prefixed with {@code -}, lines of the second sequence only with {@code +}.
+ * Of the lines common to both sequences, only those close to a difference are shown.
+ */
+public class LineDiffRenderer {
+  private static final int CONTEXT_LINES = 2;
+  private static final String ELLIPSIS = "  ...";
+
+  public String render(List<String> lines1, List<String> lines2, List<EditOperation> ops) {
+    List<String> rows = new ArrayList<>();
+    int index1 = 0;
+    int index2 = 0;
+
+    for (int i = 0; i < ops.size(); i++) {
+      EditOperation op = ops.get(i);
+      switch (op.getKind()) {
+        case SKIP:
+          renderCommonLines(lines1, index1, op.getLength(), i == 0, i == ops.size() - 1, rows);
+          index1 += op.getLength();
+          index2 += op.getLength();
+          break;
+        case DELETE:
+          index1 = renderLines("- ", lines1, index1, op.getLength(), rows);
+          break;
+        case INSERT:
+          index2 = renderLines("+ ", lines2, index2, op.getLength(), rows);
+          break;
+        case SUBSTITUTE:
+          index1 = renderLines("- ", lines1, index1, op.getLength(), rows);
+          index2 = renderLines("+ ", lines2, index2, op.getLength(), rows);
+          break;
+      }
+    }
+
+    return TextUtil.join("\n", rows);
+  }
+
+  /**
+   * Splits text into lines. Unlike {@link String#split}, keeps empty trailing lines.
+   */
+  public static List<String> splitLines(String text) {
+    List<String> result = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        result.add(text.substring(start, i));
+        start = i + 1;
+      }
+    }
+    result.add(text.substring(start));
+    return result;
+  }
+
+  private int renderLines(String prefix, List<String> lines, int index, int count, List<String> rows) {
+    for (int i = 0; i < count; i++) {
+      rows.add(prefix + TextUtil.escape(lines.get(index + i)));
+    }
+    return index + count;
+  }
+
+  private void renderCommonLines(List<String> lines, int index, int count, boolean first, boolean last, List<String> rows) {
+    int head = first ? 0 : Math.min(count, CONTEXT_LINES);
+    int tail = last ? 0 : Math.min(count - head, CONTEXT_LINES);
+    // eliding a single line doesn't make the rendering any shorter
+    if (count - head - tail <= 1) {
+      head = count;
+      tail = 0;
+    }
+
+    renderLines("  ", lines, index, head, rows);
+    if (head + tail < count) rows.add(ELLIPSIS);
+    renderLines("  ", lines, index + count - tail, tail, rows);
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.condition;
+
+import java.util.*;
+
+import static org.spockframework.runtime.condition.EditOperation.Kind.*;
+
+/**
+ * Calculates an edit path between two sequences of characters or lines with Myers' O(ND) difference
+ * algorithm (E. Myers, "An O(ND) Difference Algorithm and Its Variations", 1986), in linear space.
+ * Rather than keeping the edit graph, the sequences are split at the middle of an optimal path,
+ * found by searching from both ends at once, and both halves are diffed recursively (divide and
+ * conquer as in Hirschberg's algorithm). Memory use is O(N+M), and run time O((N+M)D),
+ * where D is the number of insertions and deletions.
+ *
+ * <p>To bound run time, the search for the middle of a path gives up after {@code maxEdits}
+ * edits, in which case the remaining parts of the sequences are treated as entirely different.
+ * The path is then still valid, but not necessarily minimal.
+ *
+ * <p>Unlike {@link EditDistance}, insertions and deletions are the only edits. To render paths
+ * the same way, adjacent deletions and insertions are combined into substitutions, and the
+ * distance counts each substitution as a single edit.
+ */
+public class MyersDiff {
+  public static final int DEFAULT_MAX_EDITS = 4096;
+
+  private final int[] seq1;
+  private final int[] seq2;
+  private final int maxEdits;
+  private final List<EditOperation> path = new ArrayList<>();
+  private int distance;
+
+  private MyersDiff(int[] seq1, int[] seq2, int maxEdits) {
+    this.seq1 = seq1;
+    this.seq2 = seq2;
+    this.maxEdits = maxEdits;
+    diff(0, seq1.length, 0, seq2.length);
+    combineSubstitutions();
+  }
+
+  public static MyersDiff ofChars(CharSequence seq1, CharSequence seq2) {
+    return ofChars(seq1, seq2, DEFAULT_MAX_EDITS);
+  }
+
+  public static MyersDiff ofChars(CharSequence seq1, CharSequence seq2, int maxEdits) {
+    return new MyersDiff(toCodes(seq1), toCodes(seq2), maxEdits);
+  }
+
+  public static MyersDiff ofLines(List<String> lines1, List<String> lines2) {
+    return ofLines(lines1, lines2, DEFAULT_MAX_EDITS);
+  }
+
+  public static MyersDiff ofLines(List<String> lines1, List<String> lines2, int maxEdits) {
+    Map<String, Integer> codes = new HashMap<>();
+    return new MyersDiff(toCodes(lines1, codes), toCodes(lines2, codes), maxEdits);
+  }
+
+  public int getDistance() {
+    return distance;
+  }
+
+  public int getSimilarityInPercent() {
+    int maxDistance = Math.max(seq1.length, seq2.length);
+    return maxDistance == 0 ? 100 : (maxDistance - distance) * 100 / maxDistance;
+  }
+
+  public List<EditOperation> calculatePath() {
+    return path;
+  }
+
+  private void diff(int start1, int end1, int start2, int end2) {
+    int prefix = 0;
+    while (start1 < end1 && start2 < end2 && seq1[start1] == seq2[start2]) {
+      start1++; start2++; prefix++;
+    }
+    int suffix = 0;
+    while (start1 < end1 && start2 < end2 && seq1[end1 - 1] == seq2[end2 - 1]) {
+      end1--; end2--; suffix++;
+    }
+
+    add(SKIP, prefix);
+    if (start1 == end1) {
+      add(INSERT, end2 - start2);
+    } else if (start2 == end2) {
+      add(DELETE, end1 - start1);
+    } else if (!bisect(start1, end1, start2, end2)) {
+      add(DELETE, end1 - start1);
+      add(INSERT, end2 - start2);
+    }
+    add(SKIP, suffix);
+  }
+
+  // finds the middle of an optimal path, and diffs the parts before and after it;
+  // returns false if the middle wasn't found within maxEdits
+  private boolean bisect(int start1, int end1, int start2, int end2) {
+    int length1 = end1 - start1;
+    int length2 = end2 - start2;
+    int maxD = Math.min((length1 + length2 + 1) / 2, maxEdits);
+    int offset = maxD + 1;
+    // furthest reaching x per diagonal, for paths from the start and from the end
+    int[] forward = new int[2 * maxD + 3];
+    int[] backward = new int[2 * maxD + 3];
+    Arrays.fill(forward, -1);
+    Arrays.fill(backward, -1);
+    forward[offset + 1] = 0;
+    backward[offset + 1] = 0;
+
+    int delta = length1 - length2;
+    // if the total number of edits is odd, the paths will overlap on a forward step
+    boolean front = (delta & 1) != 0;
+    // diagonals outside of the edit graph that need not be searched any further
+    int forwardStart = 0, forwardEnd = 0, backwardStart = 0, backwardEnd = 0;
+
+    for (int d = 0; d < maxD; d++) {
+      for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+        int index = offset + k;
+        int x = k == -d || (k != d && forward[index - 1] < forward[index + 1])
+            ? forward[index + 1] : forward[index - 1] + 1;
+        int y = x - k;
+        while (x < length1 && y < length2 && seq1[start1 + x] == seq2[start2 + y]) {
+          x++; y++;
+        }
+        forward[index] = x;
+
+        if (x > length1) {
+          forwardEnd += 2;
+        } else if (y > length2) {
+          forwardStart += 2;
+        } else if (front) {
+          int backwardIndex = offset + delta - k;
+          if (backwardIndex >= 0 && backwardIndex < backward.length && backward[backwardIndex] != -1
+              && x >= length1 - backward[backwardIndex]) {
+            split(start1, end1, start2, end2, x, y);
+            return true;
+          }
+        }
+      }
+
+      for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+        int index = offset + k;
+        int x = k == -d || (k != d && backward[index - 1] < backward[index + 1])
+            ? backward[index + 1] : backward[index - 1] + 1;
+        int y = x - k;
+        while (x < length1 && y < length2 && seq1[end1 - 1 - x] == seq2[end2 - 1 - y]) {
+          x++; y++;
+        }
+        backward[index] = x;
+
+        if (x > length1) {
+          backwardEnd += 2;
+        } else if (y > length2) {
+          backwardStart += 2;
+        } else if (!front) {
+          int forwardIndex = offset + delta - k;
+          if (forwardIndex >= 0 && forwardIndex < forward.length && forward[forwardIndex] != -1) {
+            int forwardX = forward[forwardIndex];
+            int forwardY = forwardX - (delta - k);
+            if (forwardX >= length1 - x) {
+              split(start1, end1, start2, end2, forwardX, forwardY);
+              return true;
+            }
+          }
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private void split(int start1, int end1, int start2, int end2, int x, int y) {
+    diff(start1, start1 + x, start2, start2 + y);
+    diff(start1 + x, end1, start2 + y, end2);
+  }
+
+  private void add(EditOperation.Kind kind, int length) {
+    if (length == 0) return;
+
+    if (!path.isEmpty() && path.get(path.size() - 1).getKind() == kind)
+      path.get(path.size() - 1).incLength(length);
+    else
+      path.add(new EditOperation(kind, length));
+  }
+
+  // replaces each run of deletions and insertions with substitutions, followed by the remaining deletions or insertions
+  private void combineSubstitutions() {
+    List<EditOperation> ops = new ArrayList<>(path);
+    path.clear();
+
+    int deletions = 0;
+    int insertions = 0;
+    for (EditOperation op : ops) {
+      switch (op.getKind()) {
+        case DELETE:
+          deletions += op.getLength();
+          break;
+        case INSERT:
+          insertions += op.getLength();
+          break;
+        default:
+          addChanges(deletions, insertions);
+          deletions = insertions = 0;
+          add(op.getKind(), op.getLength());
+      }
+    }
+    addChanges(deletions, insertions);
+  }
+
+  private void addChanges(int deletions, int insertions) {
+    int substitutions = Math.min(deletions, insertions);
+    add(SUBSTITUTE, substitutions);
+    add(DELETE, deletions - substitutions);
+    add(INSERT, insertions - substitutions);
+    distance += Math.max(deletions, insertions);
+  }
+
+  private static int[] toCodes(CharSequence seq) {
+    int[] result = new int[seq.length()];
+    for (int i = 0; i < result.length; i++) result[i] = seq.charAt(i);
+    return result;
+  }
+
+  private static int[] toCodes(List<String> lines, Map<String, Integer> codes) {
+    int[] result = new int[lines.size()];
+    for (int i = 0; i < result.length; i++) {
+      Integer code = codes.get(lines.get(i));
+      if (code == null) {
+        code = codes.size();
+        codes.put(lines.get(i), code);
+      }
+      result[i] = code;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.condition;
+
+import org.spockframework.runtime.GroovyRuntimeUtil;
+import org.spockframework.util.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * Renders the differences between two collections, maps, arrays, or beans of the same class.
+ * Rather than rendering both values in full, the renderer walks both object graphs in parallel
+ * and renders only the paths (indexes, keys, and properties) whose values differ, one per line,
+ * with the value of the respective side. The walk stops once {@code maxDifferences} differences
+ * have been found, which bounds rendering cost by the size of the difference, not the values.
+ *
+ * <p>Since rendering in full gives better results for small values, only values that hold at
+ * least {@code threshold} values in total (e.g. list elements, map entries, or bean fields)
+ * are rendered this way.
+ */
+public class StructuralDiffRenderer {
+  private static final int MAX_DEPTH = 32;
+  private static final int MAX_VALUE_LENGTH = 1000;
+  private static final String MISSING = "<missing>";
+  private static final String PRESENT = "<present>";
+  private static final Class<?>[] VALUE_TYPES =
+      {CharSequence.class, Number.class, Character.class, Boolean.class, Class.class};
+
+  private final int threshold;
+  private final int maxDifferences;
+
+  public StructuralDiffRenderer(int threshold, int maxDifferences) {
+    Assert.that(threshold >= 0, "threshold must not be negative");
+    Assert.that(maxDifferences > 0, "maxDifferences must be positive");
+    this.threshold = threshold;
+    this.maxDifferences = maxDifferences;
+  }
+
+  /**
+   * Returns the renderings of the differences of both values, in the same order as the values,
+   * or {@code null} if the values should rather be rendered in full.
+   */
+  @Nullable
+  public Pair<String, String> render(@Nullable Object actual, @Nullable Object expected) {
+    if (!isStructured(actual) || !isStructured(expected)) return null;
+    if (getKind(actual) != getKind(expected)) return null;
+    if (!holdsAtLeast(actual, threshold) && !holdsAtLeast(expected, threshold)) return null;
+
+    Walker walker = new Walker();
+    walker.diff(Path.ROOT, actual, expected, 0);
+    if (walker.differences == 0) return null; // not equal, but no differing path was found
+
+    if (walker.truncated) {
+      String note = String.format("... (stopped after %d differences)\n", maxDifferences);
+      walker.actual.append(note);
+      walker.expected.append(note);
+    }
+    return Pair.of(walker.actual.toString(), walker.expected.toString());
+  }
+
+  private enum Kind { SEQUENCE, SET, MAP, BEAN, OTHER }
+
+  private static Kind getKind(@Nullable Object value) {
+    if (value == null) return Kind.OTHER;
+    if (value instanceof Set) return Kind.SET;
+    if (value instanceof Collection || value.getClass().isArray()) return Kind.SEQUENCE;
+    if (value instanceof Map) return Kind.MAP;
+    if (isBean(value.getClass())) return Kind.BEAN;
+    return Kind.OTHER;
+  }
+
+  private static boolean isStructured(@Nullable Object value) {
+    return getKind(value) != Kind.OTHER;
+  }
+
+  private static boolean isBean(Class<?> clazz) {
+    if (clazz.isPrimitive() || clazz.isEnum() || clazz.isArray()) return false;
+    for (Class<?> valueType : VALUE_TYPES) {
+      if (valueType.isAssignableFrom(clazz)) return false;
+    }
+    String name = clazz.getName();
+    // the fields of library types are implementation details
+    return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("groovy.")
+        && !name.startsWith("org.codehaus.groovy.");
+  }
+
+  private static List<Field> getFields(Class<?> clazz) {
+    List<Field> result = new ArrayList<>();
+    for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (field.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+        result.add(field);
+      }
+    }
+    return result;
+  }
+
+  // counts values until the limit is reached, so that the cost is bounded by the limit
+  private static boolean holdsAtLeast(Object value, int limit) {
+    int count = 0;
+    Deque<Object> pending = new ArrayDeque<>();
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    pending.add(value);
+
+    while (!pending.isEmpty()) {
+      Object current = pending.removeFirst();
+      if (!seen.add(current)) continue;
+
+      Collection<?> children;
+      switch (getKind(current)) {
+        case SEQUENCE:
+        case SET:
+          children = current instanceof Collection ? (Collection<?>) current : asList(current);
+          break;
+        case MAP:
+          children = ((Map<?, ?>) current).values();
+          break;
+        case BEAN:
+          children = getFieldValues(current);
+          break;
+        default:
+          continue;
+      }
+
+      if (count + children.size() >= limit) return true;
+      count += children.size();
+      for (Object child : children) {
+        if (child != null) pending.add(child);
+      }
+    }
+
+    return false;
+  }
+
+  private static List<Object> asList(Object array) {
+    int length = Array.getLength(array);
+    List<Object> result = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) result.add(Array.get(array, i));
+    return result;
+  }
+
+  private static List<Object> getFieldValues(Object bean) {
+    List<Object> result = new ArrayList<>();
+    for (Field field : getFields(bean.getClass())) {
+      result.add(GroovyRuntimeUtil.getAttribute(bean, field.getName()));
+    }
+    return result;
+  }
+
+  private static String renderValue(@Nullable Object value) {
+    String result = GroovyRuntimeUtil.toString(value);
+    if (result.length() <= MAX_VALUE_LENGTH) return result;
+    return result.substring(0, MAX_VALUE_LENGTH) + "...";
+  }
+
+  private class Walker {
+    final StringBuilder actual = new StringBuilder();
+    final StringBuilder expected = new StringBuilder();
+    // the beans on the current path, to stop at cycles
+    final Set<Object> enteredBeans = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    int differences;
+    boolean truncated;
+
+    boolean isDone() {
+      return truncated;
+    }
+
+    void diff(Path path, @Nullable Object actualValue, @Nullable Object expectedValue, int depth) {
+      if (isDone() || actualValue == expectedValue) return;
+
+      Kind kind = getKind(actualValue);
+      if (depth < MAX_DEPTH && kind == getKind(expectedValue)) {
+        switch (kind) {
+          case SEQUENCE:
+            diffSequences(path, iterator(actualValue), iterator(expectedValue), depth);
+            return;
+          case SET:
+            diffSets(path, (Set<?>) actualValue, (Set<?>) expectedValue);
+            return;
+          case MAP:
+            diffMaps(path, (Map<?, ?>) actualValue, (Map<?, ?>) expectedValue, depth);
+            return;
+          default:
+        }
+      }
+
+      if (GroovyRuntimeUtil.equals(actualValue, expectedValue)) return;
+
+      if (depth < MAX_DEPTH && kind == Kind.BEAN && actualValue.getClass() == expectedValue.getClass()) {
+        // a cycle; its differences are found where the bean was first entered
+        if (!enteredBeans.add(actualValue)) return;
+        int differencesBefore = differences;
+        try {
+          diffBeans(path, actualValue, expectedValue, depth);
+        } finally {
+          enteredBeans.remove(actualValue);
+        }
+        if (differences > differencesBefore || isDone()) return;
+      }
+
+      record(path, renderValue(actualValue), renderValue(expectedValue));
+    }
+
+    void diffSequences(Path path, Iterator<?> actualValues, Iterator<?> expectedValues, int depth) {
+      int index = 0;
+      while (!isDone() && actualValues.hasNext() && expectedValues.hasNext()) {
+        diff(path.index(index++), actualValues.next(), expectedValues.next(), depth + 1);
+      }
+      while (!isDone() && actualValues.hasNext()) {
+        record(path.index(index++), renderValue(actualValues.next()), MISSING);
+      }
+      while (!isDone() && expectedValues.hasNext()) {
+        record(path.index(index++), MISSING, renderValue(expectedValues.next()));
+      }
+    }
+
+    void diffSets(Path path, Set<?> actualValues, Set<?> expectedValues) {
+      for (Object element : actualValues) {
+        if (isDone()) return;
+        if (!expectedValues.contains(element)) record(path.element(element), PRESENT, MISSING);
+      }
+      for (Object element : expectedValues) {
+        if (isDone()) return;
+        if (!actualValues.contains(element)) record(path.element(element), MISSING, PRESENT);
+      }
+    }
+
+    void diffMaps(Path path, Map<?, ?> actualMap, Map<?, ?> expectedMap, int depth) {
+      for (Map.Entry<?, ?> entry : actualMap.entrySet()) {
+        if (isDone()) return;
+        Object key = entry.getKey();
+        if (expectedMap.containsKey(key)) {
+          diff(path.key(key), entry.getValue(), expectedMap.get(key), depth + 1);
+        } else {
+          record(path.key(key), renderValue(entry.getValue()), MISSING);
+        }
+      }
+      for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
+        if (isDone()) return;
+        if (!actualMap.containsKey(entry.getKey())) {
+          record(path.key(entry.getKey()), MISSING, renderValue(entry.getValue()));
+        }
+      }
+    }
+
+    void diffBeans(Path path, Object actualBean, Object expectedBean, int depth) {
+      for (Field field : getFields(actualBean.getClass())) {
+        if (isDone()) return;
+        diff(path.property(field.getName()),
+            GroovyRuntimeUtil.getAttribute(actualBean, field.getName()),
+            GroovyRuntimeUtil.getAttribute(expectedBean, field.getName()), depth + 1);
+      }
+    }
+
+    void record(Path path, String actualText, String expectedText) {
+      if (differences == maxDifferences) {
+        truncated = true;
+        return;
+      }
+      differences++;
+      appendLine(actual, path, actualText);
+      appendLine(expected, path, expectedText);
+    }
+
+    private void appendLine(StringBuilder builder, Path path, String text) {
+      int start = builder.length();
+      path.appendTo(builder);
+      if (builder.length() > start) builder.append(": ");
+      builder.append(text).append('\n');
+    }
+
+    private Iterator<?> iterator(Object sequence) {
+      if (sequence instanceof Collection) return ((Collection<?>) sequence).iterator();
+
+      final Object array = sequence;
+      final int length = Array.getLength(array);
+      return new Iterator<Object>() {
+        int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < length;
+        }
+
+        @Override
+        public Object next() {
+          if (index == length) throw new NoSuchElementException();
+          return Array.get(array, index++);
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException("remove");
+        }
+      };
+    }
+  }
+
+  // paths are only rendered for differences, so that walking equal values stays cheap
+  private static class Path {
+    static final Path ROOT = new Path(null, ' ', 0, null);
+
+    final Path parent;
+    final char kind; // one of '[' (index), 'k' (key), '{' (set element), '.' (property)
+    final int index;
+    final Object key;
+
+    private Path(@Nullable Path parent, char kind, int index, @Nullable Object key) {
+      this.parent = parent;
+      this.kind = kind;
+      this.index = index;
+      this.key = key;
+    }
+
+    Path index(int index) {
+      return new Path(this, '[', index, null);
+    }
+
+    Path key(@Nullable Object key) {
+      return new Path(this, 'k', 0, key);
+    }
+
+    Path element(@Nullable Object element) {
+      return new Path(this, '{', 0, element);
+    }
+
+    Path property(String name) {
+      return new Path(this, '.', 0, name);
+    }
+
+    void appendTo(StringBuilder builder) {
+      if (parent == null) return;
+      parent.appendTo(builder);
+      switch (kind) {
+        case '[':
+          builder.append('[').append(index).append(']');
+          break;
+        case 'k':
+          builder.append('[').append(renderValue(key)).append(']');
+          break;
+        case '{':
+          builder.append('{').append(renderValue(key)).append('}');
+          break;
+        default:
+          if (parent != ROOT) builder.append('.');
+          builder.append(key);
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@ import org.spockframework.runtime.model.*;
 import spock.config.RunnerConfiguration;
 
 import java.io.IOException;
+import java.util.*;
 
 /**
  * Inspired from JUnit's MaxCore.
@@ -28,12 +29,25 @@ import java.io.IOException;
 public class OptimizeRunOrderExtension extends AbstractGlobalExtension {
   private RunnerConfiguration configuration;
 
+  private final RunHistoryStore store = RunHistoryStore.getDefault();
+  // loaded once per run context, rather than once per spec
+  private volatile Map<String, SpecRunHistory> histories = Collections.emptyMap();
+
+  @Override
+  public void start() {
+    if (!configuration.optimizeRunOrder) return;
+
+    try {
+      histories = store.load();
+    } catch (IOException ignored) {}
+  }
+
   @Override
   public void visitSpec(SpecInfo spec) {
     if (!configuration.optimizeRunOrder) return;
 
-    final SpecRunHistory history = new SpecRunHistory(spec.getReflection().getName());
-    safeLoadFromDisk(history);
+    SpecRunHistory stored = histories.get(spec.getReflection().getName());
+    final SpecRunHistory history = stored == null ? new SpecRunHistory(spec.getReflection().getName()) : stored;
     history.sortFeatures(spec);
 
     spec.addListener(new AbstractRunListener() {
@@ -65,20 +79,14 @@ public class OptimizeRunOrderExtension extends AbstractGlobalExtension {
       @Override
       public void afterSpec(SpecInfo spec) {
         history.collectSpecData(spec, System.nanoTime() - specStarted);
-        safeSaveToDisk(history);
+        safeAppend(history);
       }
     });
   }
 
-  private void safeLoadFromDisk(SpecRunHistory history) {
-    try {
-      history.loadFromDisk();
-    } catch (IOException ignored) {}
-  }
-
-  private void safeSaveToDisk(SpecRunHistory history) {
+  private void safeAppend(SpecRunHistory history) {
     try {
-      history.saveToDisk();
+      store.append(history);
     } catch (IOException ignored) {}
   }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.extension.builtin;
+
+import org.spockframework.runtime.extension.AbstractGlobalExtension;
+import org.spockframework.runtime.model.*;
+import spock.config.RunnerConfiguration;
+import spock.lang.*;
+
+/**
+ * Decides how many features of a spec, and how many iterations of a data-driven
+ * feature, may run concurrently, based on {@link Parallel} and the
+ * {@code parallelFeatures} runner configuration. Specs whose features may depend
+ * on each other are always run sequentially.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ParallelExtension extends AbstractGlobalExtension {
+  private RunnerConfiguration configuration;
+
+  @Override
+  public void visitSpec(SpecInfo spec) {
+    visitFeatures(spec);
+
+    Parallel parallel = spec.getAnnotation(Parallel.class);
+    if (parallel == null && !configuration.parallelFeatures) return;
+    if (isStepwise(spec) || hasSharedFields(spec)) return;
+
+    spec.setFeatureParallelism(getThreads(parallel));
+  }
+
+  private void visitFeatures(SpecInfo spec) {
+    for (FeatureInfo feature : spec.getAllFeatures()) {
+      if (!feature.isParameterized()) continue;
+
+      Parallel parallel = feature.getFeatureMethod().getAnnotation(Parallel.class);
+      if (parallel != null) feature.setIterationParallelism(getThreads(parallel));
+    }
+  }
+
+  private int getThreads(Parallel parallel) {
+    int threads = parallel != null && parallel.value() > 0 ? parallel.value() : configuration.parallelThreads;
+    return Math.max(1, threads);
+  }
+
+  private boolean isStepwise(SpecInfo spec) {
+    for (SpecInfo curr : spec.getSpecsBottomToTop())
+      if (curr.isAnnotationPresent(Stepwise.class)) return true;
+
+    return false;
+  }
+
+  private boolean hasSharedFields(SpecInfo spec) {
+    for (FieldInfo field : spec.getAllFields())
+      if (field.isShared()) return true;
+
+    return false;
+  }
+}
@@ -20,7 +20,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.runners.model.MultipleFailureException;
+import org.spockframework.runtime.*;
 import org.spockframework.runtime.extension.IMethodInvocation;
+import org.spockframework.runtime.model.*;
 
 import spock.lang.Retry;
 
@@ -47,21 +49,50 @@ public class RetryBaseInterceptor {
   protected void handleInvocation(IMethodInvocation invocation) throws Throwable {
     List<Throwable> throwables = new ArrayList<>(retry.count() + 1);
     for (int i = 0; i <= retry.count(); i++) {
+      long startTime = System.nanoTime();
       try {
         invocation.proceed();
+        notifyListeners(invocation, i, startTime, null, false);
         return;
       } catch (Throwable e) {
         if (isExpected(e)) {
           throwables.add(e);
-          if (retry.delay() > 0) {
-            Thread.sleep(retry.delay());
-          }
+          boolean willRetry = i < retry.count();
+          notifyListeners(invocation, i, startTime, e, willRetry);
+          if (willRetry) delay(i + 1);
           continue;
         } else {
+          notifyListeners(invocation, i, startTime, e, false);
           throw e;
         }
       }
     }
     throw new MultipleFailureException(throwables);
   }
+
+  /**
+   * Returns the delay in millis before the given retry (starting at 1).
+   */
+  protected long getDelay(int retryNumber) {
+    double delay = retry.delay() * Math.pow(retry.delayMultiplier(), retryNumber - 1);
+    return (long) Math.min(delay, retry.maxDelay());
+  }
+
+  protected void delay(int retryNumber) throws InterruptedException {
+    long delay = getDelay(retryNumber);
+    if (delay > 0) Thread.sleep(delay);
+  }
+
+  protected void notifyListeners(IMethodInvocation invocation, int attempt, long startTime,
+                                 Throwable failure, boolean willRetry) {
+    RetryAttemptInfo info = null;
+    for (IRunListener listener : invocation.getSpec().getBottomSpec().getListeners()) {
+      if (!(listener instanceof IRetryListener)) continue;
+      if (info == null) {
+        info = new RetryAttemptInfo(invocation.getFeature(), invocation.getIteration(), attempt + 1,
+          System.nanoTime() - startTime, failure, willRetry);
+      }
+      ((IRetryListener) listener).afterRetryAttempt(info);
+    }
+  }
 }
@@ -16,6 +16,7 @@
 
 package org.spockframework.runtime.extension.builtin;
 
+import org.spockframework.runtime.InvalidSpecException;
 import org.spockframework.runtime.extension.AbstractAnnotationDrivenExtension;
 import org.spockframework.runtime.model.FeatureInfo;
 
@@ -27,6 +28,13 @@ import spock.lang.Retry;
 public class RetryExtension extends AbstractAnnotationDrivenExtension<Retry> {
   @Override
   public void visitFeatureAnnotation(Retry annotation, FeatureInfo feature) {
+    if (annotation.delay() < 0 || annotation.maxDelay() < 0) {
+      throw new InvalidSpecException("@Retry delays must not be negative (feature '%s')").withArgs(feature.getName());
+    }
+    if (!(annotation.delayMultiplier() >= 1)) {
+      throw new InvalidSpecException("@Retry delayMultiplier must be at least 1 (feature '%s')").withArgs(feature.getName());
+    }
+
     if (feature.isParameterized() && (annotation.mode() == Retry.Mode.FEATURE)) {
       feature.addInterceptor(new RetryIterationInterceptor(annotation));
     } else {
@@ -28,27 +28,45 @@ import org.spockframework.runtime.extension.IMethodInvocation;
 import spock.lang.Retry;
 
 /**
+ * Retries a whole data driven feature if any of its iterations fails. The failures of
+ * the iterations are collected by an interceptor that is added to the feature method when
+ * the feature is first run, so that it comes after any interceptors added by extensions,
+ * and that the interceptor chain doesn't grow with every attempt.
+ *
  * @author Leonard Brünings
  */
 public class RetryIterationInterceptor extends RetryBaseInterceptor implements IMethodInterceptor {
+  // a feature isn't run concurrently with itself, hence one queue per feature is enough
+  private final Queue<Throwable> throwables = new ConcurrentLinkedQueue<>();
+  private boolean innerInterceptorAdded;
+
   public RetryIterationInterceptor(Retry retry) {
     super(retry);
   }
 
   @Override
   public void intercept(IMethodInvocation invocation) throws Throwable {
+    if (!innerInterceptorAdded) {
+      invocation.getFeature().getFeatureMethod().addInterceptor(new InnerRetryInterceptor(retry, throwables));
+      innerInterceptorAdded = true;
+    }
     List<Throwable> throwableList = new ArrayList<>();
     for (int i = 0; i <= retry.count(); i++) {
-      Queue<Throwable> throwables = new ConcurrentLinkedQueue<>();
-      invocation.getFeature().getFeatureMethod().addInterceptor(new InnerRetryInterceptor(retry, throwables));
+      throwables.clear();
+      long startTime = System.nanoTime();
       invocation.proceed();
       if (throwables.isEmpty()) {
+        notifyListeners(invocation, i, startTime, null, false);
+        throwableList.clear();
         break;
       } else {
+        boolean willRetry = i < retry.count();
+        notifyListeners(invocation, i, startTime, throwables.peek(), willRetry);
         throwableList.addAll(throwables);
-        if (retry.delay() > 0) Thread.sleep(retry.delay());
+        if (willRetry) delay(i + 1);
       }
     }
+    throwables.clear();
     if (!throwableList.isEmpty()) {
       throw new MultipleFailureException(throwableList);
     }
@@ -16,22 +16,31 @@
 
 package org.spockframework.runtime.extension.builtin;
 
-import org.spockframework.runtime.SpockTimeoutError;
+import org.spockframework.runtime.*;
 import org.spockframework.runtime.extension.*;
 import org.spockframework.util.TimeUtil;
 import spock.lang.Timeout;
 
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Times out a method invocation if it takes too long. The method invocation
  * will occur on the regular test framework thread. This can be important
  * for integration tests with thread-local state.
  *
+ * <p>Deadlines are tracked by the {@link TimerWheel} of the current {@link RunContext},
+ * rather than by a watcher thread per invocation. The timeout task of a thread is reused
+ * for its next invocation, hence invocations that return in time neither start a thread
+ * nor allocate. Only once an invocation times out, its stack trace is captured and
+ * the thread is repeatedly interrupted until the invocation returns. If timing out the
+ * invocation fails, the invocation fails with the same exception.
+ *
  * @author Peter Niederwieser
  */
 
 public class TimeoutInterceptor implements IMethodInterceptor {
+  private static final ThreadLocal<TimeoutTask> cachedTask = new ThreadLocal<>();
+
   private final Timeout timeout;
 
   public TimeoutInterceptor(Timeout timeout) {
@@ -40,53 +49,11 @@ public class TimeoutInterceptor implements IMethodInterceptor {
 
   @Override
   public void intercept(final IMethodInvocation invocation) throws Throwable {
-    final Thread mainThread = Thread.currentThread();
-    final SynchronousQueue<StackTraceElement[]> sync = new SynchronousQueue<>();
-    final CountDownLatch startLatch = new CountDownLatch(2);
-
-    new Thread(String.format("[spock.lang.Timeout] Watcher for method '%s'", invocation.getMethod().getName())) {
-      @Override
-      public void run() {
-        StackTraceElement[] stackTrace = new StackTraceElement[0];
-        long waitMillis = timeout.unit().toMillis(timeout.value());
-        boolean synced = false;
-
-        try {
-          startLatch.countDown();
-          startLatch.await(5, TimeUnit.SECONDS);
-        } catch (InterruptedException ignored) {
-          System.out.printf("[spock.lang.Timeout] Could not sync with Feature for method '%s'", invocation.getMethod().getName());
-        }
-
-        while (!synced) {
-          try {
-            synced = sync.offer(stackTrace, waitMillis, TimeUnit.MILLISECONDS);
-          } catch (InterruptedException ignored) {
-            // The mission of this thread is to repeatedly interrupt the main thread until
-            // the latter returns. Once this mission has been accomplished, this thread will die quickly
-          }
-          if (!synced) {
-            if (stackTrace.length == 0) {
-              stackTrace = mainThread.getStackTrace();
-              waitMillis = 250;
-            } else {
-              waitMillis *= 2;
-              System.out.printf("[spock.lang.Timeout] Method '%s' has not yet returned - interrupting. Next try in %1.2f seconds.\n",
-                  invocation.getMethod().getName(), waitMillis / 1000.);
-            }
-            mainThread.interrupt();
-          }
-        }
-      }
-    }.start();
-
+    TimerWheel wheel = RunContext.get().getTimerWheel();
+    TimeoutTask task = obtainTask(wheel);
 
-    try {
-      startLatch.countDown();
-      startLatch.await(5, TimeUnit.SECONDS);
-    } catch (InterruptedException ignored) {
-      System.out.printf("[spock.lang.Timeout] Could not sync with Watcher for method '%s'", invocation.getMethod().getName());
-    }
+    task.start(Thread.currentThread(), invocation.getMethod().getName());
+    wheel.schedule(task, timeout.value(), timeout.unit());
 
     Throwable saved = null;
     try {
@@ -94,33 +61,101 @@ public class TimeoutInterceptor implements IMethodInterceptor {
     } catch (Throwable t) {
       saved = t;
     }
-    StackTraceElement[] stackTrace = null;
-    while (stackTrace == null) {
-      try {
-        stackTrace = sync.take();
-      } catch (InterruptedException e) {
-        // There is a small chance that this came from the watcher thread,
-        // i.e. the two threads narrowly missed each other at the sync point.
-        // Therefore, let's sync again to learn whether this thread has timed out or not.
-        // As this won't take long, it should also be acceptable if this thread
-        // got interrupted by some other thread. To report on the latter case,
-        // we save off the exception, overriding any previously saved exception.
-        saved = e;
-      }
-    }
-    if (stackTrace.length > 0) {
-      // We know that this thread got timed out (and interrupted) by the watcher thread and
+
+    StackTraceElement[] stackTrace = task.finish();
+    Throwable failure = task.getFailure();
+    wheel.cancel(task);
+
+    if (stackTrace != null) {
+      // We know that this thread got timed out (and interrupted) by the timer and
       // act accordingly. We gloss over the fact that some other thread might also have tried to
       // interrupt this thread. This shouldn't be a problem in practice, in particular because
       // throwing an InterruptedException wouldn't abort the whole test run anyway.
+      Thread.interrupted();
       double timeoutSeconds = TimeUtil.toSeconds(timeout.value(), timeout.unit());
       String msg = String.format("Method timed out after %1.2f seconds", timeoutSeconds);
       SpockTimeoutError error = new SpockTimeoutError(timeoutSeconds, msg);
       error.setStackTrace(stackTrace);
+      if (failure != null) error.addSuppressed(failure);
       throw error;
     }
     if (saved != null) {
+      if (failure != null) saved.addSuppressed(failure);
       throw saved;
     }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static TimeoutTask obtainTask(TimerWheel wheel) {
+    TimeoutTask task = cachedTask.get();
+    if (task != null && task.wheel == wheel && wheel.isIdle(task)) return task;
+
+    // nested timed invocation, a task that is still being expired, or a new run context
+    TimeoutTask newTask = new TimeoutTask(wheel);
+    if (task == null || task.wheel != wheel) cachedTask.set(newTask);
+    return newTask;
+  }
+
+  private static class TimeoutTask extends TimerWheel.Task {
+    final TimerWheel wheel;
+
+    // access guarded by this
+    private Thread thread;
+    private String methodName;
+    private StackTraceElement[] stackTrace;
+    private Throwable failure;
+    private long waitMillis;
+    private boolean done = true;
+
+    TimeoutTask(TimerWheel wheel) {
+      this.wheel = wheel;
+    }
+
+    synchronized void start(Thread thread, String methodName) {
+      this.thread = thread;
+      this.methodName = methodName;
+      stackTrace = null;
+      failure = null;
+      done = false;
+    }
+
+    // returns the stack trace of the thread at the time it timed out, or null if it didn't time out
+    synchronized StackTraceElement[] finish() {
+      done = true;
+      thread = null;
+      return stackTrace;
+    }
+
+    // returns the exception thrown while timing out the invocation, if any
+    synchronized Throwable getFailure() {
+      return failure;
+    }
+
+    @Override
+    protected synchronized void expired() {
+      if (done) return;
+
+      if (stackTrace == null) {
+        stackTrace = thread.getStackTrace();
+        waitMillis = 250;
+      } else {
+        waitMillis *= 2;
+        System.out.printf("[spock.lang.Timeout] Method '%s' has not yet returned - interrupting. Next try in %1.2f seconds.\n",
+            methodName, waitMillis / 1000.);
+      }
+      thread.interrupt();
+      wheel.schedule(this, waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected synchronized void failed(Throwable failure) {
+      if (done) {
+        super.failed(failure);
+        return;
+      }
+      if (this.failure == null) this.failure = failure;
+    }
   }
 }
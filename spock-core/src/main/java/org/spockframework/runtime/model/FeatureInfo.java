@@ -23,6 +23,7 @@ public class FeatureInfo extends SpecElementInfo<SpecInfo, AnnotatedElement> {
   private final List<DataProviderInfo> dataProviders = new ArrayList<>();
 
   private boolean reportIterations = false;
+  private int iterationParallelism = 1;
 
   public SpecInfo getSpec() {
     return getParent();
@@ -113,6 +114,20 @@ public class FeatureInfo extends SpecElementInfo<SpecInfo, AnnotatedElement> {
     reportIterations = flag;
   }
 
+  /**
+   * Returns the maximum number of iterations of this feature that are run at the same time.
+   * A value of one (the default) means that iterations are run sequentially.
+   *
+   * @return the maximum number of concurrently running iterations
+   */
+  public int getIterationParallelism() {
+    return iterationParallelism;
+  }
+
+  public void setIterationParallelism(int iterationParallelism) {
+    this.iterationParallelism = iterationParallelism;
+  }
+
   @Nullable
   public NameProvider<IterationInfo> getIterationNameProvider() {
     return iterationNameProvider;
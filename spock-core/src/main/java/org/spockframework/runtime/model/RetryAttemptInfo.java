@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime.model;
+
+import org.spockframework.util.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Information about a single attempt of a method annotated with {@link spock.lang.Retry}.
+ */
+@Beta
+@Immutable
+public class RetryAttemptInfo {
+  private final FeatureInfo feature;
+  private final IterationInfo iteration;
+  private final int attempt;
+  private final long durationNanos;
+  private final Throwable failure;
+  private final boolean willRetry;
+
+  public RetryAttemptInfo(FeatureInfo feature, @Nullable IterationInfo iteration, int attempt,
+                          long durationNanos, @Nullable Throwable failure, boolean willRetry) {
+    this.feature = feature;
+    this.iteration = iteration;
+    this.attempt = attempt;
+    this.durationNanos = durationNanos;
+    this.failure = failure;
+    this.willRetry = willRetry;
+  }
+
+  public FeatureInfo getFeature() {
+    return feature;
+  }
+
+  /**
+   * Returns the retried iteration, or {@code null} if the whole feature was retried.
+   */
+  @Nullable
+  public IterationInfo getIteration() {
+    return iteration;
+  }
+
+  /**
+   * Returns the number of this attempt, starting at 1 for the first (regular) attempt.
+   */
+  public int getAttempt() {
+    return attempt;
+  }
+
+  public long getDuration(TimeUnit unit) {
+    return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the (first) failure of this attempt, or {@code null} if it succeeded.
+   */
+  @Nullable
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  public boolean isSuccessful() {
+    return failure == null;
+  }
+
+  /**
+   * Tells whether this attempt failed and will be followed by another one.
+   */
+  public boolean willRetry() {
+    return willRetry;
+  }
+}
@@ -41,6 +41,7 @@ public class SpecInfo extends SpecElementInfo<NodeInfo, Class<?>> implements IMe
   private String pkg;
   private String filename;
   private String narrative;
+  private int featureParallelism = 1;
 
   private SpecInfo superSpec;
   private SpecInfo subSpec;
@@ -80,6 +81,20 @@ public class SpecInfo extends SpecElementInfo<NodeInfo, Class<?>> implements IMe
     this.narrative = narrative;
   }
 
+  /**
+   * Returns the maximum number of features of this spec that are run at the same time.
+   * A value of one (the default) means that features are run sequentially.
+   *
+   * @return the maximum number of concurrently running features
+   */
+  public int getFeatureParallelism() {
+    return featureParallelism;
+  }
+
+  public void setFeatureParallelism(int featureParallelism) {
+    this.featureParallelism = featureParallelism;
+  }
+
   public SpecInfo getSuperSpec() {
     return superSpec;
   }
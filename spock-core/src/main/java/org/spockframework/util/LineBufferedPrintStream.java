@@ -0,0 +1,265 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.util;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Delegates all PrintStream invocations to {@link #printed(String)}, one line at a time.
+ * Output is collected per thread, so that lines written by different threads don't get
+ * mixed up. Bytes are decoded with the platform's default charset, using a decoder and
+ * buffers that are reused for all writes of a thread. Lines longer than
+ * {@link #MAX_LINE_LENGTH} characters are split.
+ *
+ * <p>Output that doesn't end with a line separator is held back until
+ * {@link #flushLines()} or {@link #flushAllLines()} is called.
+ */
+@ThreadSafe
+public abstract class LineBufferedPrintStream extends PrintStream {
+  public static final int MAX_LINE_LENGTH = 8192;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Charset charset = Charset.defaultCharset();
+  private final Map<Thread, LineBuffer> allBuffers = new WeakHashMap<>(); // guarded by itself
+  private final ThreadLocal<LineBuffer> buffers = new ThreadLocal<LineBuffer>() {
+    @Override
+    protected LineBuffer initialValue() {
+      LineBuffer buffer = new LineBuffer();
+      synchronized (allBuffers) {
+        allBuffers.put(Thread.currentThread(), buffer);
+      }
+      return buffer;
+    }
+  };
+
+  public LineBufferedPrintStream() {
+    super(new ByteArrayOutputStream(0));
+  }
+
+  /**
+   * Notifies the incomplete line written by the current thread, if any.
+   */
+  public void flushLines() {
+    buffers.get().flush();
+  }
+
+  /**
+   * Notifies the incomplete lines written by all threads.
+   */
+  public void flushAllLines() {
+    List<LineBuffer> toFlush;
+    synchronized (allBuffers) {
+      toFlush = new ArrayList<>(allBuffers.values());
+    }
+    for (LineBuffer buffer : toFlush) {
+      buffer.flush();
+    }
+  }
+
+  @Override
+  public void write(int b) {
+    buffers.get().write(b);
+  }
+
+  @Override
+  public void write(byte[] buf, int off, int len) {
+    buffers.get().write(buf, off, len);
+  }
+
+  @Override
+  public void write(byte[] b) throws IOException {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void print(boolean b) {
+    buffers.get().append(String.valueOf(b), false);
+  }
+
+  @Override
+  public void print(char c) {
+    buffers.get().append(c);
+  }
+
+  @Override
+  public void print(int i) {
+    buffers.get().append(String.valueOf(i), false);
+  }
+
+  @Override
+  public void print(long l) {
+    buffers.get().append(String.valueOf(l), false);
+  }
+
+  @Override
+  public void print(float f) {
+    buffers.get().append(String.valueOf(f), false);
+  }
+
+  @Override
+  public void print(double d) {
+    buffers.get().append(String.valueOf(d), false);
+  }
+
+  @Override
+  public void print(char[] s) {
+    buffers.get().append(CharBuffer.wrap(s), false);
+  }
+
+  @Override
+  public void print(String s) {
+    buffers.get().append(String.valueOf(s), false);
+  }
+
+  @Override
+  public void print(Object obj) {
+    buffers.get().append(String.valueOf(obj), false);
+  }
+
+  @Override
+  public void println() {
+    buffers.get().append('\n');
+  }
+
+  @Override
+  public void println(boolean x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(char x) {
+    LineBuffer buffer = buffers.get();
+    buffer.append(x);
+    buffer.append('\n');
+  }
+
+  @Override
+  public void println(int x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(long x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(float x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(double x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(char[] x) {
+    buffers.get().append(CharBuffer.wrap(x), true);
+  }
+
+  @Override
+  public void println(String x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public void println(Object x) {
+    buffers.get().append(String.valueOf(x), true);
+  }
+
+  @Override
+  public PrintStream append(CharSequence csq) {
+    buffers.get().append(csq == null ? "null" : csq, false);
+    return this;
+  }
+
+  @Override
+  public PrintStream append(CharSequence csq, int start, int end) {
+    CharSequence seq = csq == null ? "null" : csq;
+    buffers.get().append(seq.subSequence(start, end), false);
+    return this;
+  }
+
+  @Override
+  public PrintStream append(char c) {
+    buffers.get().append(c);
+    return this;
+  }
+
+  protected abstract void printed(String line);
+
+  // only contended when lines of all threads are flushed
+  private class LineBuffer {
+    final CharsetDecoder decoder = charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE); // may hold the start of a multi-byte character
+    final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    final StringBuilder line = new StringBuilder();
+
+    synchronized void write(int b) {
+      bytes.put((byte) b);
+      decode();
+    }
+
+    synchronized void write(byte[] buf, int off, int len) {
+      while (len > 0) {
+        int chunk = Math.min(len, bytes.remaining());
+        bytes.put(buf, off, chunk);
+        off += chunk;
+        len -= chunk;
+        decode();
+      }
+    }
+
+    synchronized void append(CharSequence text, boolean newLine) {
+      for (int i = 0; i < text.length(); i++) {
+        append(text.charAt(i));
+      }
+      if (newLine) append('\n');
+    }
+
+    synchronized void append(char c) {
+      line.append(c);
+      if (c == '\n' || line.length() >= MAX_LINE_LENGTH) flush();
+    }
+
+    synchronized void flush() {
+      if (line.length() == 0) return;
+      String text = line.toString();
+      line.setLength(0);
+      printed(text);
+    }
+
+    private void decode() {
+      bytes.flip();
+      CoderResult result;
+      do {
+        result = decoder.decode(bytes, chars, false);
+        chars.flip();
+        while (chars.hasRemaining()) append(chars.get());
+        chars.clear();
+      } while (result.isOverflow());
+      bytes.compact();
+    }
+  }
+}
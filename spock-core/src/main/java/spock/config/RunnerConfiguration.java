@@ -29,8 +29,17 @@ package spock.config;
  *     baseClass IntegrationSpec
  *   }
  *   filterStackTrace true // this is the default
+ *   parallelFeatures false // this is the default
+ *   parallelThreads 4 // defaults to the number of available processors
+ *   structuralDiffThreshold -1 // this is the default (off)
+ *   maxDiffEntries 100 // this is the default
  * }
  * </pre>
+ *
+ * <p>Failed comparisons of collections, maps, arrays, or beans that hold at least
+ * {@code structuralDiffThreshold} values in total only report the paths whose values
+ * differ (at most {@code maxDiffEntries}), rather than both values in full. This is off
+ * by default, as a negative {@code structuralDiffThreshold} turns it off.
  */
 @ConfigurationObject("runner")
 public class RunnerConfiguration {
@@ -38,4 +47,8 @@ public class RunnerConfiguration {
   public IncludeExcludeCriteria exclude = new IncludeExcludeCriteria();
   public boolean filterStackTrace = true;
   public boolean optimizeRunOrder = false;
+  public boolean parallelFeatures = false;
+  public int parallelThreads = Runtime.getRuntime().availableProcessors();
+  public int structuralDiffThreshold = -1;
+  public int maxDiffEntries = 100;
 }
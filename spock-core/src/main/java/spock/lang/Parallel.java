@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.lang;
+
+import java.lang.annotation.*;
+
+import org.spockframework.util.Beta;
+
+/**
+ * Indicates that a spec's feature methods may be run concurrently. Every feature
+ * gets its own spec instance, as it does for sequential runs, but features no longer
+ * wait for each other. Results are reported to JUnit as they happen, by one thread
+ * at a time, so notifications of different features may interleave.
+ *
+ * <p>Parallel execution is only safe for features that do not depend on each other.
+ * Therefore the annotation has no effect on specs that are (or extend) a
+ * {@link Stepwise} spec, or that declare {@link Shared} fields, as features
+ * may communicate through them.
+ *
+ * <p>Parallel execution can also be enabled for all specs with the
+ * {@code parallelFeatures} setting of the {@code runner} configuration.
+ *
+ * <p>When applied to a data-driven feature method, the feature's iterations are
+ * run concurrently instead. Data providers are still advanced by a single thread,
+ * in order, and each iteration gets its own spec instance. Iteration names and
+ * results are reported in the same order as for a sequential run.
+ *
+ * @see spock.config.RunnerConfiguration
+ */
+@Beta
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Parallel {
+  /**
+   * The maximum number of features (or iterations) that are run at the same time. A value of
+   * zero or less means that the {@code parallelThreads} setting of the
+   * {@code runner} configuration is used.
+   *
+   * @return the maximum number of concurrently running features (or iterations)
+   */
+  int value() default 0;
+}
@@ -57,6 +57,22 @@ public @interface Retry {
    */
   int delay() default 0;
 
+  /**
+   * Factor by which the delay grows with every further retry, 1 to retry with a constant delay.
+   * For example, a delay of 100 and a multiplier of 2 back off exponentially
+   * with delays of 100, 200, 400, ... millis.
+   *
+   * @return the factor to multiply the delay with after each retry.
+   */
+  double delayMultiplier() default 1;
+
+  /**
+   * Upper bound for the delay between retries in millis, only relevant if the delay grows.
+   *
+   * @return the maximum number of millis to wait.
+   */
+  int maxDelay() default Integer.MAX_VALUE;
+
   /**
    * Retry mode, only relevant for data driven features.
    *
@@ -16,12 +16,13 @@ package spock.util.concurrent;
 
 import org.spockframework.util.ThreadSafe;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.concurrent.*;
 
 @ThreadSafe
 class BlockingVariablesImpl {
   private final double timeout;
-  private final ConcurrentHashMap<String, BlockingVariable<Object>> map =
+  private final ConcurrentHashMap<String, Variable> map =
     new ConcurrentHashMap<>();
 
   public BlockingVariablesImpl(double timeout) {
@@ -29,20 +30,129 @@ class BlockingVariablesImpl {
   }
 
   public Object get(String name) throws InterruptedException {
-    BlockingVariable<Object> entry = new BlockingVariable<>(timeout);
-    BlockingVariable<Object> oldEntry = map.putIfAbsent(name, entry);
-    if (oldEntry == null)
-      return entry.get();
-    else
-      return oldEntry.get();
+    return getVariable(name).get(timeout);
   }
 
   public void put(String name, Object value) {
-    BlockingVariable<Object> entry = new BlockingVariable<>(timeout);
-    BlockingVariable<Object> oldEntry = map.putIfAbsent(name, entry);
-    if (oldEntry == null)
-      entry.set(value);
-    else
-      oldEntry.set(value);
+    getVariable(name).set(value);
+  }
+
+  public void setTimeout(String name, double seconds) {
+    getVariable(name).timeout = seconds;
+  }
+
+  public Future<Map<String, Object>> waitFor(boolean all, double overallTimeout, String... names) {
+    Set<String> distinctNames = new LinkedHashSet<>(Arrays.asList(names));
+    Variable[] variables = new Variable[distinctNames.size()];
+    int index = 0;
+    for (String name : distinctNames) {
+      variables[index++] = getVariable(name);
+    }
+
+    VariablesWait wait = new VariablesWait(all, overallTimeout, variables, FutureAdapter.<Map<String, Object>>create());
+    wait.start();
+    return wait.getFuture();
+  }
+
+  private Variable getVariable(String name) {
+    Variable variable = map.get(name);
+    if (variable != null) return variable;
+
+    variable = new Variable(name);
+    Variable oldVariable = map.putIfAbsent(name, variable);
+    return oldVariable == null ? variable : oldVariable;
+  }
+
+  static class Variable {
+    final String name;
+    // NaN if the variable doesn't have its own timeout
+    volatile double timeout = Double.NaN;
+
+    // access guarded by this
+    private boolean set;
+    private Object value;
+    private VariablesWait[] waits;
+    private int[] waitIndexes;
+    private int waitCount;
+
+    Variable(String name) {
+      this.name = name;
+    }
+
+    Object get(double defaultTimeout) throws InterruptedException {
+      double seconds = Double.isNaN(timeout) ? defaultTimeout : timeout;
+      long remaining = VariablesWait.toNanos(seconds);
+      long deadline = System.nanoTime() + remaining;
+
+      synchronized (this) {
+        while (!set) {
+          if (remaining <= 0) {
+            String msg = String.format("BlockingVariables.get() timed out after %1.2f seconds waiting for variable '%s'", seconds, name);
+            throw new VariablesTimeoutError(seconds, msg, Collections.singleton(name));
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+          remaining = deadline - System.nanoTime();
+        }
+        return value;
+      }
+    }
+
+    void set(Object value) {
+      VariablesWait[] waitsToNotify;
+      int[] indexesToNotify;
+      int countToNotify;
+
+      synchronized (this) {
+        this.value = value;
+        if (set) return;
+        set = true;
+        notifyAll();
+
+        waitsToNotify = waits;
+        indexesToNotify = waitIndexes;
+        countToNotify = waitCount;
+        waits = null;
+        waitIndexes = null;
+        waitCount = 0;
+      }
+
+      for (int i = 0; i < countToNotify; i++) {
+        waitsToNotify[i].resolved(indexesToNotify[i], value);
+      }
+    }
+
+    // notifies the wait right away if the variable has already been set
+    void addWait(VariablesWait wait, int index) {
+      Object currentValue;
+      synchronized (this) {
+        if (!set) {
+          if (waits == null) {
+            waits = new VariablesWait[2];
+            waitIndexes = new int[2];
+          } else if (waitCount == waits.length) {
+            waits = Arrays.copyOf(waits, waitCount * 2);
+            waitIndexes = Arrays.copyOf(waitIndexes, waitCount * 2);
+          }
+          waits[waitCount] = wait;
+          waitIndexes[waitCount] = index;
+          waitCount++;
+          return;
+        }
+        currentValue = value;
+      }
+      wait.resolved(index, currentValue);
+    }
+
+    synchronized void removeWait(VariablesWait wait) {
+      for (int i = 0; i < waitCount; i++) {
+        if (waits[i] == wait) {
+          waitCount--;
+          waits[i] = waits[waitCount];
+          waitIndexes[i] = waitIndexes[waitCount];
+          waits[waitCount] = null;
+          return;
+        }
+      }
+    }
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells waiting threads that some state may have changed. Lets {@link PollingConditions}
+ * evaluate its conditions whenever the signal is raised, rather than at fixed intervals.
+ * The code under specification, or a callback registered with it, raises the signal.
+ * A signal is a {@link Runnable}, so it can be passed wherever a callback is expected.
+ *
+ * <p>Usage example:</p>
+ *
+ * <pre>
+ * def signal = new ChangeSignal()
+ * def conditions = new PollingConditions(timeout: 10, signal: signal)
+ * def machine = new Machine()
+ * machine.onTemperatureChange { signal.signal() }
+ *
+ * when:
+ * machine.start()
+ *
+ * then:
+ * conditions.eventually {
+ *   assert machine.temperature >= 100
+ * }
+ * </pre>
+ */
+@Beta
+@ThreadSafe
+public class ChangeSignal implements Runnable {
+  private long generation; // guarded by this
+
+  /**
+   * Raises the signal, waking up all threads that are waiting for it.
+   */
+  public synchronized void signal() {
+    generation++;
+    notifyAll();
+  }
+
+  /**
+   * Same as {@link #signal()}.
+   */
+  @Override
+  public void run() {
+    signal();
+  }
+
+  /**
+   * Returns the number of times that the signal has been raised.
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Waits until the signal has been raised since it had the given generation, or
+   * the given time has elapsed.
+   *
+   * @param generation the generation after which the signal has to be raised
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return whether the signal has been raised
+   * @throws InterruptedException if waiting is interrupted
+   */
+  public synchronized boolean awaitChange(long generation, long timeout, TimeUnit unit) throws InterruptedException {
+    long remaining = unit.toNanos(timeout);
+    long deadline = System.nanoTime() + remaining;
+    while (this.generation == generation && remaining > 0) {
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      remaining = deadline - System.nanoTime();
+    }
+    return this.generation != generation;
+  }
+}
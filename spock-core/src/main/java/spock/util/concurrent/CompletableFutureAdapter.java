@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.ReflectionUtil;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Future;
+
+/**
+ * Completes a {@code CompletableFuture}. Accesses it reflectively, so that this class
+ * can be compiled and loaded on Java 7. Must only be instantiated if
+ * {@link #isAvailable()} returns {@code true}.
+ */
+class CompletableFutureAdapter<T> extends FutureAdapter<T> {
+  private static final Class<?> COMPLETABLE_FUTURE =
+      ReflectionUtil.loadClassIfAvailable("java.util.concurrent.CompletableFuture");
+  private static final Method COMPLETE_METHOD = getMethodIfAvailable("complete", Object.class);
+  private static final Method COMPLETE_EXCEPTIONALLY_METHOD = getMethodIfAvailable("completeExceptionally", Throwable.class);
+
+  private final Future<T> future;
+
+  @SuppressWarnings("unchecked")
+  CompletableFutureAdapter() {
+    try {
+      future = (Future<T>) COMPLETABLE_FUTURE.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException("Failed to create CompletableFuture", e);
+    }
+  }
+
+  static boolean isAvailable() {
+    return COMPLETE_METHOD != null && COMPLETE_EXCEPTIONALLY_METHOD != null;
+  }
+
+  @Override
+  Future<T> getFuture() {
+    return future;
+  }
+
+  @Override
+  void complete(T value) {
+    ReflectionUtil.invokeMethod(future, COMPLETE_METHOD, value);
+  }
+
+  @Override
+  void fail(Throwable error) {
+    ReflectionUtil.invokeMethod(future, COMPLETE_EXCEPTIONALLY_METHOD, error);
+  }
+
+  private static Method getMethodIfAvailable(String name, Class<?> parameterType) {
+    return COMPLETABLE_FUTURE == null ? null : ReflectionUtil.getMethodBySignature(COMPLETABLE_FUTURE, name, parameterType);
+  }
+}
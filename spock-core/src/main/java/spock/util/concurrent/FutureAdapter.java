@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Completes a future from the outside. On Java 8 and higher, the future is a {@code CompletableFuture};
+ * otherwise, it is a basic future that supports blocking retrieval of its result.
+ *
+ * @param <T> the type of the future's result
+ */
+abstract class FutureAdapter<T> {
+  private static final boolean COMPLETABLE_FUTURE_AVAILABLE =
+      ReflectionUtil.isClassAvailable("java.util.concurrent.CompletableFuture");
+
+  abstract Future<T> getFuture();
+
+  abstract void complete(T value);
+
+  abstract void fail(Throwable error);
+
+  static <T> FutureAdapter<T> create() {
+    if (COMPLETABLE_FUTURE_AVAILABLE) {
+      try {
+        if (CompletableFutureAdapter.isAvailable()) return new CompletableFutureAdapter<>();
+      } catch (LinkageError ignored) {
+        // fall back to a basic future
+      }
+    }
+    return new BasicFuture<>();
+  }
+
+  @ThreadSafe
+  private static class BasicFuture<T> extends FutureAdapter<T> implements Future<T> {
+    private static final int PENDING = 0, COMPLETED = 1, FAILED = 2, CANCELLED = 3;
+
+    // access guarded by this
+    private int state = PENDING;
+    private T value;
+    private Throwable error;
+
+    @Override
+    Future<T> getFuture() {
+      return this;
+    }
+
+    @Override
+    synchronized void complete(T value) {
+      if (state != PENDING) return;
+      this.value = value;
+      state = COMPLETED;
+      notifyAll();
+    }
+
+    @Override
+    synchronized void fail(Throwable error) {
+      if (state != PENDING) return;
+      this.error = error;
+      state = FAILED;
+      notifyAll();
+    }
+
+    @Override
+    public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+      if (state != PENDING) return false;
+      state = CANCELLED;
+      notifyAll();
+      return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+      return state == CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+      return state != PENDING;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+      while (state == PENDING) wait();
+      return getResult();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      long remaining = unit.toNanos(timeout);
+      long deadline = System.nanoTime() + remaining;
+      while (state == PENDING) {
+        if (remaining <= 0) throw new TimeoutException();
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        remaining = deadline - System.nanoTime();
+      }
+      return getResult();
+    }
+
+    private T getResult() throws ExecutionException {
+      if (state == CANCELLED) throw new CancellationException();
+      if (state == FAILED) throw new ExecutionException(error);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.Beta;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clock that {@link PollingConditions} measures and waits with. {@link #SYSTEM} uses real time;
+ * {@link VirtualClock} lets specs run against time that only passes when they say so.
+ * All durations are in nanoseconds.
+ */
+@Beta
+public interface PollingClock {
+  /**
+   * The system clock, based on {@link System#nanoTime()}.
+   */
+  PollingClock SYSTEM = new PollingClock() {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    @Override
+    public boolean awaitChange(ChangeSignal signal, long generation, long nanos) throws InterruptedException {
+      return signal.awaitChange(generation, nanos, TimeUnit.NANOSECONDS);
+    }
+  };
+
+  /**
+   * Returns the current time of this clock. Like {@link System#nanoTime()}, the value is only
+   * meaningful when compared to other values returned by the same clock.
+   */
+  long nanoTime();
+
+  /**
+   * Waits until the given time has elapsed on this clock.
+   */
+  void sleep(long nanos) throws InterruptedException;
+
+  /**
+   * Waits until the given signal has been raised since it had the given generation,
+   * or the given time has elapsed on this clock.
+   *
+   * @return whether the signal has been raised
+   */
+  boolean awaitChange(ChangeSignal signal, long generation, long nanos) throws InterruptedException;
+}
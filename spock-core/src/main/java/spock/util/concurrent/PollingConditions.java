@@ -18,8 +18,10 @@ import groovy.lang.Closure;
 
 import org.spockframework.lang.ConditionBlock;
 import org.spockframework.runtime.GroovyRuntimeUtil;
+import org.spockframework.runtime.QuietConditionFailure;
 import org.spockframework.runtime.SpockTimeoutError;
 import org.spockframework.util.Beta;
+import org.spockframework.util.Nullable;
 
 /**
  * Repeatedly evaluates one or more conditions until they are satisfied or a timeout has elapsed.
@@ -40,6 +42,11 @@ import org.spockframework.util.Beta;
  *   assert machine.efficiency >= 0.9
  * }
  * </pre>
+ *
+ * <p>Time is measured and waited for with a {@linkplain #setClock pluggable clock}, which can be
+ * a {@link VirtualClock} that doesn't take any real time. Instead of waiting for a fixed delay,
+ * the conditions can also be evaluated whenever a {@linkplain #setSignal change signal} is raised.
+ * Only the last evaluation of the conditions reports failures in detail.</p>
  */
 @Beta
 public class PollingConditions {
@@ -47,6 +54,8 @@ public class PollingConditions {
   private double initialDelay = 0;
   private double delay = 0.1;
   private double factor = 1.0;
+  private PollingClock clock = PollingClock.SYSTEM;
+  private ChangeSignal signal;
 
   /**
    * Returns the timeout (in seconds) until which the conditions have to be satisfied.
@@ -122,6 +131,43 @@ public class PollingConditions {
     this.factor = factor;
   }
 
+  /**
+   * Returns the clock that is used to measure and wait for time.
+   * Defaults to the {@linkplain PollingClock#SYSTEM system clock}.
+   */
+  public PollingClock getClock() {
+    return clock;
+  }
+
+  /**
+   * Sets the clock that is used to measure and wait for time.
+   * Defaults to the {@linkplain PollingClock#SYSTEM system clock}.
+   *
+   * @param clock the clock that is used to measure and wait for time
+   */
+  public void setClock(PollingClock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the signal that triggers evaluation of the conditions, if any.
+   */
+  @Nullable
+  public ChangeSignal getSignal() {
+    return signal;
+  }
+
+  /**
+   * Sets a signal that triggers evaluation of the conditions. If set, failed conditions are
+   * evaluated again whenever the signal is raised, and once more when the timeout has elapsed,
+   * rather than after each delay. Defaults to {@code null}.
+   *
+   * @param signal the signal that triggers evaluation of the conditions
+   */
+  public void setSignal(@Nullable ChangeSignal signal) {
+    this.signal = signal;
+  }
+
   /**
    * Repeatedly evaluates the specified conditions until they are satisfied or the timeout has elapsed.
    *
@@ -143,35 +189,56 @@ public class PollingConditions {
    */
   @ConditionBlock
   public void within(double seconds, Closure<?> conditions) throws InterruptedException  {
-    long timeoutMillis = toMillis(seconds);
-    long start = System.currentTimeMillis();
-    long lastAttempt = 0;
-    Thread.sleep(toMillis(initialDelay));
+    long timeoutNanos = toNanos(seconds);
+    long start = clock.nanoTime();
+    clock.sleep(toNanos(initialDelay));
 
-    long currDelay = toMillis(delay);
+    long currDelay = toNanos(delay);
     int attempts = 0;
 
     while(true) {
-      try {
-        attempts++;
-        lastAttempt = System.currentTimeMillis();
-        GroovyRuntimeUtil.invokeClosure(conditions);
-        return;
-      } catch (Throwable e) {
-        long elapsedTime = lastAttempt - start;
-        if (elapsedTime >= timeoutMillis) {
-          String msg = String.format("Condition not satisfied after %1.2f seconds and %d attempts", elapsedTime / 1000d, attempts);
+      long generation = signal == null ? 0 : signal.getGeneration();
+      attempts++;
+      long elapsedTime = clock.nanoTime() - start;
+
+      if (elapsedTime >= timeoutNanos) {
+        // last attempt, which reports failures in detail
+        try {
+          GroovyRuntimeUtil.invokeClosure(conditions);
+          return;
+        } catch (Throwable e) {
+          String msg = String.format("Condition not satisfied after %1.2f seconds and %d attempts", elapsedTime / 1000000000d, attempts);
           throw new SpockTimeoutError(seconds, msg, e);
         }
-        final long timeout = Math.min(currDelay, start + timeoutMillis - System.currentTimeMillis());
+      }
+
+      if (evaluateQuietly(conditions)) return;
+
+      long remaining = start + timeoutNanos - clock.nanoTime();
+      if (signal != null) {
+        clock.awaitChange(signal, generation, remaining);
+      } else {
+        long timeout = Math.min(currDelay, remaining);
         if (timeout > 0) {
-          Thread.sleep(timeout);
+          clock.sleep(timeout);
         }
         currDelay *= factor;
       }
     }
   }
 
+  private boolean evaluateQuietly(Closure<?> conditions) {
+    boolean wasQuiet = QuietConditionFailure.setQuiet(true);
+    try {
+      GroovyRuntimeUtil.invokeClosure(conditions);
+      return true;
+    } catch (Throwable e) {
+      return false;
+    } finally {
+      QuietConditionFailure.setQuiet(wasQuiet);
+    }
+  }
+
   /**
    * Alias for {@link #eventually(groovy.lang.Closure)}.
    */
@@ -188,7 +255,7 @@ public class PollingConditions {
     within(seconds, conditions);
   }
 
-  private long toMillis(double seconds) {
-    return (long) (seconds * 1000);
+  private long toNanos(double seconds) {
+    return (long) (seconds * 1000000000d);
   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.runtime.SpockTimeoutError;
+
+import java.util.*;
+
+/**
+ * Indicates that one or more {@link BlockingVariables} haven't been set in time.
+ */
+public class VariablesTimeoutError extends SpockTimeoutError {
+  private final Set<String> unresolvedVariables;
+
+  public VariablesTimeoutError(double timeout, String message, Set<String> unresolvedVariables) {
+    super(timeout, message);
+    this.unresolvedVariables = Collections.unmodifiableSet(new LinkedHashSet<>(unresolvedVariables));
+  }
+
+  /**
+   * Returns the names of the variables that haven't been set in time.
+   *
+   * @return the names of the variables that haven't been set in time
+   */
+  public Set<String> getUnresolvedVariables() {
+    return unresolvedVariables;
+  }
+}
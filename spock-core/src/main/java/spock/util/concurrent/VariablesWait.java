@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.ThreadSafe;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Waits for all or any of a set of {@link BlockingVariables}, without blocking a thread. The wait
+ * is notified by the threads that set the variables, and completes its future on the last (or first)
+ * of them. Deadlines are checked by a single timer thread that is shared by all waits.
+ */
+@ThreadSafe
+class VariablesWait implements Runnable {
+  private static volatile ScheduledThreadPoolExecutor timer;
+
+  private final boolean all;
+  private final double overallTimeout;
+  private final BlockingVariablesImpl.Variable[] variables;
+  private final FutureAdapter<Map<String, Object>> future;
+
+  private final long start = System.nanoTime();
+  private final long overallDeadline;
+  private final long[] deadlines;
+  private final boolean[] hasDeadline;
+
+  // access guarded by this
+  private final Object[] values;
+  private final boolean[] resolved;
+  private int unresolvedCount;
+  private boolean done;
+  private ScheduledFuture<?> timeoutCheck;
+
+  VariablesWait(boolean all, double overallTimeout, BlockingVariablesImpl.Variable[] variables,
+      FutureAdapter<Map<String, Object>> future) {
+    this.all = all;
+    this.overallTimeout = overallTimeout;
+    this.variables = variables;
+    this.future = future;
+
+    overallDeadline = start + toNanos(overallTimeout);
+    deadlines = new long[variables.length];
+    hasDeadline = new boolean[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      double timeout = variables[i].timeout;
+      if (!Double.isNaN(timeout)) {
+        deadlines[i] = start + toNanos(timeout);
+        hasDeadline[i] = true;
+      }
+    }
+    values = new Object[variables.length];
+    resolved = new boolean[variables.length];
+    unresolvedCount = variables.length;
+  }
+
+  Future<Map<String, Object>> getFuture() {
+    return future.getFuture();
+  }
+
+  void start() {
+    if (variables.length == 0) {
+      complete(new LinkedHashMap<String, Object>());
+      return;
+    }
+
+    for (int i = 0; i < variables.length && !isDone(); i++) {
+      variables[i].addWait(this, i);
+    }
+    synchronized (this) {
+      if (!done) scheduleTimeoutCheck(System.nanoTime());
+    }
+  }
+
+  void resolved(int index, Object value) {
+    Map<String, Object> result;
+    synchronized (this) {
+      if (done || resolved[index]) return;
+      resolved[index] = true;
+      values[index] = value;
+      unresolvedCount--;
+
+      if (all) {
+        if (unresolvedCount > 0) return;
+        result = new LinkedHashMap<>(variables.length * 2);
+        for (int i = 0; i < variables.length; i++) {
+          result.put(variables[i].name, values[i]);
+        }
+      } else {
+        result = Collections.singletonMap(variables[index].name, value);
+      }
+      finish();
+    }
+    complete(result);
+  }
+
+  // checks the deadlines
+  @Override
+  public void run() {
+    VariablesTimeoutError error;
+    synchronized (this) {
+      if (done) return;
+      long now = System.nanoTime();
+      if (now - getFailureTime() < 0) {
+        scheduleTimeoutCheck(now);
+        return;
+      }
+      error = createTimeoutError(now);
+      finish();
+    }
+    unregister();
+    future.fail(error);
+  }
+
+  private synchronized boolean isDone() {
+    return done;
+  }
+
+  private void complete(Map<String, Object> result) {
+    if (!all) unregister();
+    future.complete(result);
+  }
+
+  private void finish() {
+    done = true;
+    if (timeoutCheck != null) {
+      timeoutCheck.cancel(false);
+      timeoutCheck = null;
+    }
+  }
+
+  // lets variables that won't be set forget about this wait; must not hold the lock of this wait
+  private void unregister() {
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].removeWait(this);
+    }
+  }
+
+  // the time at which the wait fails unless it has completed
+  private long getFailureTime() {
+    long failureTime = overallDeadline;
+    if (all) {
+      // fails as soon as any unresolved variable misses its own deadline
+      for (int i = 0; i < variables.length; i++) {
+        if (!resolved[i] && hasDeadline[i] && deadlines[i] - failureTime < 0) failureTime = deadlines[i];
+      }
+    } else {
+      // fails once all variables have missed their own deadlines
+      long latest = deadlines[0];
+      for (int i = 0; i < variables.length; i++) {
+        if (!hasDeadline[i]) return failureTime;
+        if (deadlines[i] - latest > 0) latest = deadlines[i];
+      }
+      if (latest - failureTime < 0) failureTime = latest;
+    }
+    return failureTime;
+  }
+
+  private void scheduleTimeoutCheck(long now) {
+    timeoutCheck = getTimer().schedule(this, Math.max(0, getFailureTime() - now), TimeUnit.NANOSECONDS);
+  }
+
+  private VariablesTimeoutError createTimeoutError(long now) {
+    Set<String> unresolved = new LinkedHashSet<>();
+    int missedDeadline = -1;
+    for (int i = 0; i < variables.length; i++) {
+      if (resolved[i]) continue;
+      unresolved.add(variables[i].name);
+      if (missedDeadline == -1 && hasDeadline[i] && now - deadlines[i] >= 0 && now - overallDeadline < 0) {
+        missedDeadline = i;
+      }
+    }
+
+    double elapsed = (now - start) / 1000000000d;
+    String msg;
+    if (missedDeadline != -1 && all) {
+      msg = String.format("Variable '%s' was not set within its timeout of %1.2f seconds; unresolved variables: %s",
+          variables[missedDeadline].name, variables[missedDeadline].timeout, unresolved);
+    } else {
+      msg = String.format("Timed out after %1.2f seconds waiting for %s of the variables; unresolved variables: %s",
+          elapsed, all ? "all" : "any", unresolved);
+    }
+    return new VariablesTimeoutError(Math.min(elapsed, overallTimeout), msg, unresolved);
+  }
+
+  static long toNanos(double seconds) {
+    return (long) (seconds * 1000000000d);
+  }
+
+  private static ScheduledThreadPoolExecutor getTimer() {
+    if (timer == null) {
+      synchronized (VariablesWait.class) {
+        if (timer == null) {
+          ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "spock-blocking-variables-timer");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+          executor.setRemoveOnCancelPolicy(true);
+          timer = executor;
+        }
+      }
+    }
+    return timer;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spock.util.concurrent;
+
+import org.spockframework.util.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock whose time only passes when it is advanced. Waiting on a virtual clock doesn't take any
+ * real time, but advances the clock by the time waited. Hence {@link PollingConditions} driven by
+ * a virtual clock complete instantly, even if they have a long timeout. If the code under specification
+ * reads the time from the same clock, specs can control exactly how much time it sees passing.
+ *
+ * <p>Usage example:</p>
+ *
+ * <pre>
+ * def clock = new VirtualClock()
+ * def conditions = new PollingConditions(clock: clock, timeout: 60, delay: 1)
+ * def cache = new Cache(expiry: 30, timeSource: { clock.nanoTime() })
+ *
+ * when:
+ * cache.put("key", "value")
+ *
+ * then:
+ * conditions.eventually {
+ *   assert cache.get("key") == null
+ * }
+ * </pre>
+ *
+ * Conditions that depend on work done by other threads should use the {@linkplain PollingClock#SYSTEM system clock},
+ * as a virtual clock doesn't give other threads any time to do their work.
+ */
+@Beta
+@ThreadSafe
+public class VirtualClock implements PollingClock {
+  private final AtomicLong time = new AtomicLong();
+
+  @Override
+  public long nanoTime() {
+    return time.get();
+  }
+
+  /**
+   * Advances this clock by the given time.
+   */
+  public void advance(long duration, TimeUnit unit) {
+    if (duration < 0) throw new IllegalArgumentException("duration must not be negative");
+    time.addAndGet(unit.toNanos(duration));
+  }
+
+  /**
+   * Advances this clock by the given number of seconds.
+   */
+  public void advance(double seconds) {
+    advance((long) (seconds * 1000000000d), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns immediately after advancing this clock by the given time.
+   */
+  @Override
+  public void sleep(long nanos) {
+    if (nanos > 0) advance(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns immediately. Unless the signal has already been raised, this clock
+   * is first advanced by the given time.
+   */
+  @Override
+  public boolean awaitChange(ChangeSignal signal, long generation, long nanos) {
+    if (signal.getGeneration() == generation) sleep(nanos);
+    return signal.getGeneration() != generation;
+  }
+}
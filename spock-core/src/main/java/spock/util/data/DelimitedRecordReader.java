@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.util.data;
+
+import org.spockframework.runtime.SpockExecutionException;
+import org.spockframework.util.Nullable;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reads records separated by line breaks, whose fields are separated by a
+ * separator character. The first record holds the column names. Blank lines
+ * are skipped. If quoting is enabled, fields may be enclosed in double quotes
+ * (as in RFC 4180), in which case they may contain separators, line breaks,
+ * and doubled double quotes.
+ */
+class DelimitedRecordReader extends RecordReader {
+  private static final int EOF = -1;
+
+  private final Reader in;
+  private final char separator;
+  private final boolean quoting;
+  private final String sourceName;
+  private final char[] buffer = new char[8192];
+  private final StringBuilder field = new StringBuilder();
+  private final List<String> fields = new ArrayList<>();
+  private int position;
+  private int limit;
+  private int line = 1;
+  private int recordLine;
+
+  private List<String> columnNames;
+  private List<String> selectedColumns;
+  private int[] selectedIndexes;
+
+  DelimitedRecordReader(Reader in, char separator, boolean quoting, String sourceName) {
+    this.in = in;
+    this.separator = separator;
+    this.quoting = quoting;
+    this.sourceName = sourceName;
+  }
+
+  @Override
+  List<String> readColumnNames() throws IOException {
+    if (!readFields()) {
+      throw new SpockExecutionException("Data table %s has no header line").withArgs(sourceName);
+    }
+    // a byte order mark isn't consumed by the decoder
+    String first = fields.get(0);
+    if (!first.isEmpty() && first.charAt(0) == '\uFEFF') fields.set(0, first.substring(1));
+    columnNames = new ArrayList<>(fields);
+    return columnNames;
+  }
+
+  @Override
+  @Nullable
+  Object[] readRecord(List<String> columns) throws IOException {
+    if (columns != selectedColumns) selectColumns(columns);
+    if (!readFields()) return null;
+
+    if (fields.size() != columnNames.size()) {
+      throw new SpockExecutionException("Data table %s has %d fields on line %d, but %d columns")
+          .withArgs(sourceName, fields.size(), recordLine, columnNames.size());
+    }
+    Object[] values = new Object[selectedIndexes.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = fields.get(selectedIndexes[i]);
+    }
+    return values;
+  }
+
+  @Override
+  int getLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private void selectColumns(List<String> columns) {
+    int[] indexes = new int[columns.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = columnNames.indexOf(columns.get(i));
+      if (indexes[i] == -1) {
+        throw new SpockExecutionException("Data table %s has no column '%s' (available columns: %s)")
+            .withArgs(sourceName, columns.get(i), columnNames);
+      }
+    }
+    selectedColumns = columns;
+    selectedIndexes = indexes;
+  }
+
+  // reads the fields of the next non-blank line into 'fields'; returns false at the end of input
+  private boolean readFields() throws IOException {
+    fields.clear();
+
+    int c = read();
+    while (c == '\n' || c == '\r') c = read();
+    if (c == EOF) return false;
+    recordLine = line;
+
+    while (true) {
+      field.setLength(0);
+      if (quoting && c == '"') {
+        c = readQuotedField();
+      } else {
+        while (c != separator && c != '\n' && c != '\r' && c != EOF) {
+          field.append((char) c);
+          c = read();
+        }
+      }
+      fields.add(field.toString());
+
+      if (c != separator) return true;
+      c = read();
+    }
+  }
+
+  // reads the rest of a quoted field and returns the character following it
+  private int readQuotedField() throws IOException {
+    while (true) {
+      int c = read();
+      if (c == EOF) {
+        throw new SpockExecutionException("Data table %s has an unterminated quoted field starting on line %d")
+            .withArgs(sourceName, recordLine);
+      }
+      if (c == '"') {
+        c = read();
+        if (c != '"') {
+          if (c != separator && c != '\n' && c != '\r' && c != EOF) {
+            throw new SpockExecutionException("Data table %s has an unexpected character after a quoted field on line %d")
+                .withArgs(sourceName, line);
+          }
+          return c;
+        }
+      }
+      field.append((char) c);
+    }
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      limit = in.read(buffer);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return EOF;
+      }
+    }
+    char c = buffer[position++];
+    if (c == '\n') line++;
+    return c;
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.util.data;
+
+import org.spockframework.runtime.*;
+import org.spockframework.util.*;
+
+import java.io.*;
+import java.math.*;
+import java.net.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * A data table that is read from an external file, for tables that are too large
+ * to be written in a where-block. The file is read row by row while the feature
+ * runs, so the table is never held in memory as a whole.
+ *
+ * <p>Each row is provided as a list of the values of the selected columns, which
+ * is best consumed with a multi-variable data pipe:
+ *
+ * <pre>
+ * def "maximum of two numbers"(int a, int b, int c) {
+ *   expect:
+ *   Math.max(a, b) == c
+ *
+ *   where:
+ *   [a, b, c] &lt;&lt; ExternalDataTable.csv("max.csv").columns("a", "b", "c").types(int, int, int)
+ * }
+ * </pre>
+ *
+ * <p>Supported formats are CSV (RFC 4180, with a header line), TSV (tab separated,
+ * with a header line, without quoting), and JSON lines (one JSON object per line).
+ * CSV and TSV values are strings, JSON values keep their JSON types. Values can be
+ * converted to the numeric types, {@code boolean}, {@code char}, {@code String},
+ * enums, and any type that Groovy can coerce them to. Empty CSV and TSV values are
+ * converted to {@code null}, unless the column's type is {@code String}.
+ *
+ * <p>A path is resolved against the working directory and, if no such file exists,
+ * as class path resource.
+ */
+@Beta
+@NotThreadSafe
+public class ExternalDataTable implements IDataProvider<List<Object>> {
+  private enum Format { CSV, TSV, JSON_LINES }
+
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  private final Format format;
+  private final String path;
+  private final File file;
+  private Charset charset = Charset.forName("UTF-8");
+  private List<String> columns;
+  private final Map<String, Class<?>> columnTypes = new HashMap<>();
+  private RecordReader reader;
+
+  private ExternalDataTable(Format format, @Nullable String path, @Nullable File file) {
+    this.format = format;
+    this.path = path;
+    this.file = file;
+  }
+
+  public static ExternalDataTable csv(String path) {
+    return new ExternalDataTable(Format.CSV, path, null);
+  }
+
+  public static ExternalDataTable csv(File file) {
+    return new ExternalDataTable(Format.CSV, null, file);
+  }
+
+  public static ExternalDataTable tsv(String path) {
+    return new ExternalDataTable(Format.TSV, path, null);
+  }
+
+  public static ExternalDataTable tsv(File file) {
+    return new ExternalDataTable(Format.TSV, null, file);
+  }
+
+  public static ExternalDataTable jsonLines(String path) {
+    return new ExternalDataTable(Format.JSON_LINES, path, null);
+  }
+
+  public static ExternalDataTable jsonLines(File file) {
+    return new ExternalDataTable(Format.JSON_LINES, null, file);
+  }
+
+  /**
+   * Selects the columns to provide, in the given order. By default, all columns are
+   * provided in the order of the file.
+   */
+  public ExternalDataTable columns(String... names) {
+    columns = Arrays.asList(names);
+    return this;
+  }
+
+  /**
+   * Sets the types of the selected columns, in the order of {@link #columns}.
+   */
+  public ExternalDataTable types(Class<?>... types) {
+    if (columns == null) {
+      throw new IllegalStateException("types() requires the columns to be selected with columns()");
+    }
+    if (types.length != columns.size()) {
+      throw new IllegalArgumentException(String.format("Got %d types for %d columns", types.length, columns.size()));
+    }
+    for (int i = 0; i < types.length; i++) {
+      columnTypes.put(columns.get(i), types[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Sets the type of a single column.
+   */
+  public ExternalDataTable type(String column, Class<?> type) {
+    columnTypes.put(column, type);
+    return this;
+  }
+
+  /**
+   * Sets the charset of the file. Defaults to UTF-8.
+   */
+  public ExternalDataTable charset(String charset) {
+    this.charset = Charset.forName(charset);
+    return this;
+  }
+
+  @Override
+  public int estimatedSize() {
+    return -1; // counting the rows would mean reading the whole file
+  }
+
+  @Override
+  public Iterator<List<Object>> iterator() {
+    if (reader != null) throw new IllegalStateException("iterator() may only be called once");
+
+    try {
+      reader = openReader();
+      List<String> columnNames = reader.readColumnNames();
+      final List<String> selectedColumns = columns == null ? columnNames : columns;
+      final Class<?>[] types = new Class<?>[selectedColumns.size()];
+      for (int i = 0; i < types.length; i++) {
+        Class<?> type = columnTypes.get(selectedColumns.get(i));
+        types[i] = type == null ? Object.class : type;
+      }
+      return new RowIterator(selectedColumns, types);
+    } catch (IOException e) {
+      throw new SpockExecutionException("Failed to read data table %s", e).withArgs(getSourceName());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (reader != null) reader.close();
+  }
+
+  private RecordReader openReader() throws IOException {
+    Reader in = new InputStreamReader(openStream(), charset);
+    switch (format) {
+      case CSV:
+        return new DelimitedRecordReader(in, ',', true, getSourceName());
+      case TSV:
+        return new DelimitedRecordReader(in, '\t', false, getSourceName());
+      case JSON_LINES:
+        return new JsonLinesRecordReader(in, getSourceName());
+      default:
+        throw new UnreachableCodeError();
+    }
+  }
+
+  private InputStream openStream() throws IOException {
+    if (file != null) return buffered(new FileInputStream(file));
+
+    File localFile = new File(path);
+    if (localFile.isFile()) return buffered(new FileInputStream(localFile));
+
+    URL resource = findResource(path);
+    if (resource == null) {
+      throw new SpockExecutionException("Data table %s not found (neither as file nor as class path resource)")
+          .withArgs(getSourceName());
+    }
+    return buffered(resource.openStream());
+  }
+
+  // the file is read sequentially, so a large buffer is all it takes to keep the number of reads low
+  private static InputStream buffered(InputStream stream) {
+    return new BufferedInputStream(stream, STREAM_BUFFER_SIZE);
+  }
+
+  @Nullable
+  private static URL findResource(String path) {
+    String name = path.startsWith("/") ? path.substring(1) : path;
+    ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+    URL result = contextLoader == null ? null : contextLoader.getResource(name);
+    return result != null ? result : ExternalDataTable.class.getClassLoader().getResource(name);
+  }
+
+  private String getSourceName() {
+    return "'" + (file != null ? file.getPath() : path) + "'";
+  }
+
+  @Nullable
+  private Object convert(@Nullable Object value, Class<?> type, String column) {
+    if (type == Object.class) return value;
+    if (value instanceof String && ((String) value).isEmpty() && type != String.class && format != Format.JSON_LINES) {
+      value = null;
+    }
+    if (value == null) {
+      if (type.isPrimitive()) {
+        throw conversionError(null, type, column);
+      }
+      return null;
+    }
+
+    Class<?> boxedType = ReflectionUtil.getWrapperType(type);
+    if (boxedType.isInstance(value)) return value;
+
+    try {
+      if (value instanceof String) {
+        Object result = parse((String) value, boxedType);
+        if (result != null) return result;
+      }
+      return GroovyRuntimeUtil.coerce(value, type);
+    } catch (RuntimeException e) {
+      throw conversionError(value, type, column);
+    }
+  }
+
+  // returns null if the type isn't parsed from text by this method
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Object parse(String text, Class<?> type) {
+    if (type == String.class) return text;
+    String trimmed = text.trim();
+    if (type == Integer.class) return Integer.valueOf(trimmed);
+    if (type == Long.class) return Long.valueOf(trimmed);
+    if (type == Double.class) return Double.valueOf(trimmed);
+    if (type == Float.class) return Float.valueOf(trimmed);
+    if (type == Short.class) return Short.valueOf(trimmed);
+    if (type == Byte.class) return Byte.valueOf(trimmed);
+    if (type == BigDecimal.class) return new BigDecimal(trimmed);
+    if (type == BigInteger.class) return new BigInteger(trimmed);
+    if (type == Boolean.class) {
+      if ("true".equalsIgnoreCase(trimmed)) return true;
+      if ("false".equalsIgnoreCase(trimmed)) return false;
+      throw new IllegalArgumentException(trimmed);
+    }
+    if (type == Character.class) {
+      if (text.length() != 1) throw new IllegalArgumentException(text);
+      return text.charAt(0);
+    }
+    if (type.isEnum()) return Enum.valueOf((Class<Enum>) type, trimmed);
+    return null;
+  }
+
+  private SpockExecutionException conversionError(@Nullable Object value, Class<?> type, String column) {
+    return new SpockExecutionException("Cannot convert value %s of column '%s' to %s (data table %s, line %d)")
+        .withArgs(value instanceof String ? "'" + value + "'" : String.valueOf(value), column, type.getName(),
+            getSourceName(), reader.getLine());
+  }
+
+  private class RowIterator implements Iterator<List<Object>> {
+    private final List<String> selectedColumns;
+    private final Class<?>[] types;
+    private List<Object> nextRow;
+    private boolean exhausted;
+
+    RowIterator(List<String> selectedColumns, Class<?>[] types) {
+      this.selectedColumns = selectedColumns;
+      this.types = types;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextRow == null && !exhausted) {
+        nextRow = readRow();
+        exhausted = nextRow == null;
+      }
+      return nextRow != null;
+    }
+
+    @Override
+    public List<Object> next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      List<Object> result = nextRow;
+      nextRow = null;
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove");
+    }
+
+    @Nullable
+    private List<Object> readRow() {
+      Object[] values;
+      try {
+        values = reader.readRecord(selectedColumns);
+      } catch (IOException e) {
+        throw new SpockExecutionException("Failed to read data table %s", e).withArgs(getSourceName());
+      }
+      if (values == null) return null;
+
+      for (int i = 0; i < values.length; i++) {
+        values[i] = convert(values[i], types[i], selectedColumns.get(i));
+      }
+      return Arrays.asList(values);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.util.data;
+
+import org.spockframework.runtime.SpockExecutionException;
+import org.spockframework.util.Nullable;
+
+import java.io.*;
+import java.util.*;
+
+import groovy.json.*;
+
+/**
+ * Reads records that are JSON objects, one per line. The column names are the keys
+ * of the first record. Values keep their JSON types, and keys missing from a record
+ * have value {@code null}. Blank lines are skipped.
+ */
+class JsonLinesRecordReader extends RecordReader {
+  private final BufferedReader in;
+  private final String sourceName;
+  private final JsonSlurper slurper = new JsonSlurper();
+  private int line;
+  private int recordLine;
+  // the first record, which was read to determine the column names
+  private Map<?, ?> pendingRecord;
+
+  JsonLinesRecordReader(Reader in, String sourceName) {
+    this.in = new BufferedReader(in);
+    this.sourceName = sourceName;
+  }
+
+  @Override
+  List<String> readColumnNames() throws IOException {
+    pendingRecord = readObject();
+    List<String> result = new ArrayList<>();
+    if (pendingRecord == null) return result;
+
+    for (Object key : pendingRecord.keySet()) result.add(String.valueOf(key));
+    return result;
+  }
+
+  @Override
+  @Nullable
+  Object[] readRecord(List<String> columns) throws IOException {
+    Map<?, ?> record = pendingRecord;
+    if (record == null) {
+      record = readObject();
+      if (record == null) return null;
+    }
+    pendingRecord = null;
+
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = record.get(columns.get(i));
+    }
+    return values;
+  }
+
+  @Override
+  int getLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  @Nullable
+  private Map<?, ?> readObject() throws IOException {
+    String text;
+    do {
+      text = in.readLine();
+      if (text == null) return null;
+      line++;
+    } while (text.trim().isEmpty());
+    recordLine = line;
+
+    Object value;
+    try {
+      value = slurper.parseText(text);
+    } catch (JsonException e) {
+      throw new SpockExecutionException("Data table %s has invalid JSON on line %d", e).withArgs(sourceName, line);
+    }
+    if (!(value instanceof Map)) {
+      throw new SpockExecutionException("Data table %s has a JSON value other than an object on line %d")
+          .withArgs(sourceName, line);
+    }
+    return (Map<?, ?>) value;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.util.data;
+
+import org.spockframework.util.Nullable;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Reads the records of an external data table one at a time.
+ */
+abstract class RecordReader implements Closeable {
+  /**
+   * Returns the names of all columns of the table. Called once, before any record is read.
+   */
+  abstract List<String> readColumnNames() throws IOException;
+
+  /**
+   * Reads the next record and returns the raw values of the given columns,
+   * or {@code null} if there are no more records.
+   */
+  @Nullable
+  abstract Object[] readRecord(List<String> columns) throws IOException;
+
+  /**
+   * Returns the line on which the record read last starts.
+   */
+  abstract int getLine();
+}
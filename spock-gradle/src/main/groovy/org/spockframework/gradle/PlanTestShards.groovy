@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.gradle
+
+import org.gradle.api.*
+import org.gradle.api.tasks.*
+
+/**
+ * Splits the specs of a test task into shards of about equal duration, based on the
+ * run histories that Spock records when {@code optimizeRunOrder} is enabled. Writes the
+ * names of each shard's specs to {@code shard-<n>.txt} in the output directory.
+ * Usually configured by the {@link SpockShardingPlugin}.
+ */
+class PlanTestShards extends DefaultTask {
+  @InputFiles
+  Iterable<File> classpath = []
+
+  @InputFiles
+  Iterable<File> testClassesDirs = []
+
+  @Input
+  int shardCount = 2
+
+  @OutputDirectory
+  File outputDirectory
+
+  PlanTestShards() {
+    // run histories change with every test run, and aren't tracked as an input
+    outputs.upToDateWhen { false }
+  }
+
+  File getShardFile(int shard) {
+    new File(getOutputDirectory(), "shard-${shard}.txt")
+  }
+
+  @TaskAction
+  void plan() {
+    // resolve properties up front, as the exec spec has a classpath of its own
+    def plannerClasspath = project.files(getClasspath())
+    def plannerArgs = [getShardCount().toString(), getOutputDirectory().absolutePath] +
+      project.files(getTestClassesDirs()).files*.absolutePath
+    project.javaexec {
+      main = "org.spockframework.runtime.SpecShardPlanner"
+      classpath = plannerClasspath
+      args = plannerArgs
+    }
+  }
+}
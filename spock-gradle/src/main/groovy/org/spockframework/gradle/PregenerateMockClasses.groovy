@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.gradle
+
+import org.gradle.api.*
+import org.gradle.api.tasks.*
+
+/**
+ * Generates the classes of class based mocks ahead of time and stores them in a
+ * persistent mock class cache. Test tasks pick them up when they are run with the
+ * system property {@code spock.mockClassCache} pointing to the same directory.
+ * Mocked types aren't discovered from the tests; they have to be listed in
+ * {@code mockedTypes}, and are pre-generated without additional interfaces:
+ *
+ * <pre>
+ * task pregenerateMockClasses(type: org.spockframework.gradle.PregenerateMockClasses) {
+ *   classpath = sourceSets.test.runtimeClasspath
+ *   mockedTypes = ["com.example.OrderService", "com.example.PaymentGateway"]
+ *   cacheDirectory = file("$buildDir/spock/mock-classes")
+ * }
+ *
+ * test {
+ *   dependsOn pregenerateMockClasses
+ *   systemProperty "spock.mockClassCache", pregenerateMockClasses.cacheDirectory
+ * }
+ * </pre>
+ */
+class PregenerateMockClasses extends DefaultTask {
+  @InputFiles
+  Iterable<File> classpath = []
+
+  @Input
+  List<String> mockedTypes = []
+
+  @OutputDirectory
+  File cacheDirectory
+
+  @TaskAction
+  void pregenerate() {
+    // resolve properties up front, as the exec spec has a classpath of its own
+    def pregeneratorClasspath = project.files(getClasspath())
+    def pregeneratorArgs = [getCacheDirectory().absolutePath] + getMockedTypes()
+    project.javaexec {
+      main = "org.spockframework.mock.runtime.MockClassPregenerator"
+      classpath = pregeneratorClasspath
+      args = pregeneratorArgs
+    }
+  }
+}
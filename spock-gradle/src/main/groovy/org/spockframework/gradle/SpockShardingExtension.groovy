@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.gradle
+
+/**
+ * Configures the {@link SpockShardingPlugin}.
+ */
+class SpockShardingExtension {
+  /**
+   * The number of shards to split the specs of the test task into.
+   */
+  int shards = 1
+
+  /**
+   * The name of the test task whose specs get split.
+   */
+  String testTask = "test"
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.gradle
+
+import org.gradle.api.*
+import org.gradle.api.tasks.testing.Test
+import org.gradle.api.tasks.testing.junit.JUnitOptions
+
+/**
+ * Splits the specs of a test task into shards of about equal duration, and adds a test task
+ * for each shard. For example, with {@code spockSharding.shards = 3}, the tasks {@code testShard1}
+ * to {@code testShard3} each run a third of the specs of the {@code test} task, and
+ * {@code testShards} runs them all. Shard tasks can run in separate builds, for example on
+ * separate CI agents, and need the same run history to agree on the shards.
+ */
+class SpockShardingPlugin implements Plugin<Project> {
+  void apply(Project project) {
+    project.plugins.apply(SpockBasePlugin)
+
+    def extension = project.extensions.create("spockSharding", SpockShardingExtension)
+
+    project.afterEvaluate {
+      if (extension.shards < 2) return
+
+      def test = project.tasks.getByName(extension.testTask) as Test
+      def plan = project.tasks.create("plan${test.name.capitalize()}Shards", PlanTestShards) { PlanTestShards task ->
+        task.classpath = test.classpath
+        task.testClassesDirs = test.testClassesDirs
+        task.shardCount = extension.shards
+        task.outputDirectory = new File(project.buildDir, "spock/shards/${test.name}")
+      }
+
+      def shardTasks = (1..extension.shards).collect { int shard ->
+        project.tasks.create("${test.name}Shard${shard}", Test) { Test task ->
+          task.description = "Runs shard ${shard} of ${extension.shards} of the specs of task '${test.name}'."
+          task.dependsOn(plan)
+          copySettings(test, task)
+          task.filter.failOnNoMatchingTests = false
+          task.doFirst {
+            def specNames = plan.getShardFile(shard).readLines("UTF-8").findAll()
+            // a filter without patterns would run all specs
+            if (specNames.empty) specNames = ["org.spockframework.gradle.NoSpecsInShard"]
+            specNames.each { task.filter.includeTestsMatching(it) }
+          }
+        }
+      }
+
+      project.tasks.create("${test.name}Shards") { Task task ->
+        task.group = "verification"
+        task.description = "Runs all shards of the specs of task '${test.name}'."
+        task.dependsOn(shardTasks)
+      }
+    }
+  }
+
+  private static void copySettings(Test source, Test target) {
+    target.classpath = source.classpath
+    target.testClassesDirs = source.testClassesDirs
+    target.includes = source.includes
+    target.excludes = source.excludes
+    target.systemProperties = source.systemProperties
+    target.environment = source.environment
+    target.jvmArgs = source.jvmArgs
+    target.minHeapSize = source.minHeapSize
+    target.maxHeapSize = source.maxHeapSize
+    target.workingDir = source.workingDir
+    target.executable = source.executable
+    target.maxParallelForks = source.maxParallelForks
+    target.forkEvery = source.forkEvery
+    if (source.options instanceof JUnitOptions) {
+      def sourceOptions = source.options as JUnitOptions
+      target.useJUnit()
+      def targetOptions = target.options as JUnitOptions
+      targetOptions.includeCategories = sourceOptions.includeCategories
+      targetOptions.excludeCategories = sourceOptions.excludeCategories
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.gradle
+
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
+import org.gradle.testkit.runner.TaskOutcome
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.Specification
+
+class PregenerateMockClassesSpec extends Specification {
+  @Rule TemporaryFolder projectDir
+
+  def "tests mock with the pre-generated classes"() {
+    projectDir.newFile("settings.gradle") << "rootProject.name = 'pregenerated'"
+    projectDir.newFile("build.gradle") << """
+buildscript {
+  dependencies {
+    classpath files(${classpath("spock.gradle.pluginClasspath")})
+  }
+}
+
+apply plugin: "groovy"
+
+dependencies {
+  testCompile files(${classpath("spock.gradle.specClasspath")})
+}
+
+task pregenerateMockClasses(type: org.spockframework.gradle.PregenerateMockClasses) {
+  dependsOn testClasses
+  classpath = sourceSets.test.runtimeClasspath
+  mockedTypes = ["Service"]
+  cacheDirectory = file("build/mock-classes")
+}
+
+test {
+  dependsOn pregenerateMockClasses
+  systemProperty "spock.mockClassCache", pregenerateMockClasses.cacheDirectory
+}
+"""
+    addTestSource("Service.groovy", """
+class Service {
+  String getName() { "service" }
+}
+""")
+    // a mock class generated by the test would get a different (random) name than the pre-generated one
+    addTestSource("ServiceSpec.groovy", """
+class ServiceSpec extends spock.lang.Specification {
+  def "mocks Service with the pre-generated class"() {
+    def entries = new File(System.getProperty("spock.mockClassCache")).listFiles().findAll { it.name.endsWith(".mock") }
+    def pregeneratedName = new DataInputStream(entries[0].newInputStream()).withCloseable { it.readInt(); it.readUTF() }
+
+    expect:
+    entries.size() == 1
+    Mock(Service).getClass().name == pregeneratedName
+  }
+}
+""")
+
+    when:
+    def result = build("test")
+
+    then:
+    result.task(":pregenerateMockClasses").outcome == TaskOutcome.SUCCESS
+    result.task(":test").outcome == TaskOutcome.SUCCESS
+    new File(projectDir.root, "build/test-results/test/TEST-ServiceSpec.xml").isFile()
+  }
+
+  private BuildResult build(String... arguments) {
+    GradleRunner.create()
+      .withProjectDir(projectDir.root)
+      .withArguments(arguments as List)
+      .build()
+  }
+
+  private void addTestSource(String fileName, String source) {
+    def file = new File(projectDir.root, "src/test/groovy/$fileName")
+    file.parentFile.mkdirs()
+    file.text = source
+  }
+
+  private static String classpath(String propertyName) {
+    System.getProperty(propertyName).split(File.pathSeparator).collect { "'${it.replace('\\', '/')}'" }.join(", ")
+  }
+}
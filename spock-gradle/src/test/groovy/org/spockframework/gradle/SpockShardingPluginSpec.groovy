@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.gradle
+
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.Specification
+
+class SpockShardingPluginSpec extends Specification {
+  @Rule TemporaryFolder projectDir
+
+  def setup() {
+    projectDir.newFile("settings.gradle") << "rootProject.name = 'sharded'"
+    projectDir.newFile("build.gradle") << """
+buildscript {
+  dependencies {
+    classpath files(${classpath("spock.gradle.pluginClasspath")})
+  }
+}
+
+apply plugin: "groovy"
+apply plugin: "spock-sharding"
+
+dependencies {
+  testCompile files(${classpath("spock.gradle.specClasspath")})
+}
+
+test {
+  maxParallelForks 2
+  systemProperty "spock.user.home", file("build/spock-user-home")
+  useJUnit {
+    excludeCategories "Slow"
+  }
+}
+
+spockSharding {
+  shards 2
+}
+"""
+    addTestSource("Slow.groovy", "interface Slow {}")
+    ["ASpec", "BSpec", "CSpec"].each { name ->
+      addTestSource("${name}.groovy", """
+class $name extends spock.lang.Specification {
+  def "feature"() { expect: true }
+}
+""")
+    }
+    addTestSource("SlowSpec.groovy", """
+@org.junit.experimental.categories.Category(Slow)
+class SlowSpec extends spock.lang.Specification {
+  def "feature"() { expect: true }
+}
+""")
+  }
+
+  def "runs every spec in exactly one shard"() {
+    when:
+    build("testShards")
+
+    then:
+    def shard1 = ranSpecs("testShard1")
+    def shard2 = ranSpecs("testShard2")
+    !shard1.empty
+    !shard2.empty
+    (shard1 + shard2).sort() == ["ASpec", "BSpec", "CSpec"]
+  }
+
+  def "shard tasks copy the settings of the test task"() {
+    new File(projectDir.root, "build.gradle") << """
+task printShardSettings {
+  doLast {
+    println "forks: \${testShard1.maxParallelForks}"
+    println "excluded categories: \${testShard1.options.excludeCategories}"
+  }
+}
+"""
+
+    when:
+    def result = build("printShardSettings")
+
+    then:
+    result.output.contains("forks: 2")
+    result.output.contains("excluded categories: [Slow]")
+  }
+
+  private BuildResult build(String... arguments) {
+    GradleRunner.create()
+      .withProjectDir(projectDir.root)
+      .withArguments(arguments as List)
+      .build()
+  }
+
+  private void addTestSource(String fileName, String source) {
+    def file = new File(projectDir.root, "src/test/groovy/$fileName")
+    file.parentFile.mkdirs()
+    file.text = source
+  }
+
+  private List<String> ranSpecs(String taskName) {
+    def resultsDir = new File(projectDir.root, "build/test-results/$taskName")
+    def resultFiles = resultsDir.listFiles({ File dir, String name -> name.endsWith(".xml") } as FilenameFilter) ?: []
+    resultFiles.collect { new XmlSlurper().parse(it).@name.text() }
+  }
+
+  private static String classpath(String propertyName) {
+    System.getProperty(propertyName).split(File.pathSeparator).collect { "'${it.replace('\\', '/')}'" }.join(", ")
+  }
+}
@@ -18,6 +18,7 @@ package org.spockframework.report
 
 import org.spockframework.util.InternalSpockError
 import org.spockframework.util.IoUtil
+import org.spockframework.util.JsonWriter
 
 import java.util.regex.Pattern
 
@@ -50,14 +51,15 @@ class HtmlReportGenerator {
   /**
    * The report log files, generated during spec execution, whose data is to
    * be displayed in the report. Can be used to generate a single report
-   * from multiple independent spec executions.
+   * from multiple independent spec executions. Logs written in streaming mode
+   * are merged while they are copied.
    */
   Iterable<File> logFiles = []
 
   /**
    * Same as {@link #logFiles} except that the log files are kept at their
    * original location (rather than being copied into the output directory)
-   * and do not have to exist.
+   * and do not have to exist. Logs written in streaming mode can't be used as live log files.
    */
   Iterable<File> liveLogFiles = []
 
@@ -100,7 +102,23 @@ class HtmlReportGenerator {
     def targetDir = new File(outputDirectory, "logs")
     for (file in logFiles) {
       def targetFile = new File(targetDir, file.name)
-      IoUtil.copyFile(file, targetFile)
+      if (StreamingReportLog.isStreamingLog(file)) {
+        mergeStreamingLogFile(file, targetFile)
+      } else {
+        IoUtil.copyFile(file, targetFile)
+      }
+    }
+  }
+
+  private void mergeStreamingLogFile(File source, File target) {
+    target.parentFile.mkdirs()
+    target.withWriter("utf-8") { Writer writer ->
+      def jsonWriter = new JsonWriter(writer)
+      new StreamingReportLog(source).eachSpec { Map spec ->
+        writer.write("loadLogFile([")
+        jsonWriter.write(spec)
+        writer.write("])\n\n")
+      }
     }
   }
 
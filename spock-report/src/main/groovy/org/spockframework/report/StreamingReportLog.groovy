@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.report
+
+import org.spockframework.report.log.ReportLogMerger
+
+import groovy.json.JsonSlurper
+
+/**
+ * A report log written in streaming mode, which holds one JSON event per line. The events
+ * of concurrently running specs may be interleaved. They are merged lazily while the log is
+ * read: only specs whose last event hasn't been read yet are kept in memory.
+ */
+class StreamingReportLog {
+  private final File file
+
+  StreamingReportLog(File file) {
+    this.file = file
+  }
+
+  /**
+   * Tells if the given file is a streaming report log (rather than a log whose
+   * specs have already been merged and wrapped into {@code loadLogFile()} calls).
+   */
+  static boolean isStreamingLog(File file) {
+    if (!file.isFile()) return false
+
+    file.withReader("utf-8") { Reader reader ->
+      int ch = reader.read()
+      while (ch != -1 && Character.isWhitespace(ch)) ch = reader.read()
+      ch == ('{' as char)
+    }
+  }
+
+  /**
+   * Merges the events of each spec, and calls the given closure with each spec's log,
+   * in the order that specs complete. Specs that never completed come last.
+   */
+  void eachSpec(Closure consumer) {
+    def slurper = new JsonSlurper()
+    Map<String, PendingSpec> pendingSpecs = new LinkedHashMap<>()
+
+    file.eachLine("utf-8") { String line ->
+      if (line.trim().empty) return
+
+      Map event = (Map) slurper.parseText(line)
+      String key = "${event.package}.${event.name}"
+      def pending = pendingSpecs[key]
+      if (pending == null) {
+        pending = new PendingSpec()
+        pendingSpecs[key] = pending
+      }
+      pending.log = pending.merger.merge(pending.log, event)
+      if (pending.log.result != null) {
+        pendingSpecs.remove(key)
+        consumer(pending.log)
+      }
+    }
+
+    for (pending in pendingSpecs.values()) {
+      consumer(pending.log)
+    }
+  }
+
+  private static class PendingSpec {
+    final ReportLogMerger merger = new ReportLogMerger()
+    Map<String, Object> log
+  }
+}
@@ -18,6 +18,7 @@ package org.spockframework.report
 
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
+import org.spockframework.report.log.ReportLogWriter
 
 import spock.lang.Specification
 
@@ -41,4 +42,34 @@ class HtmlReportGeneratorSpec extends Specification {
     new File(tempFolder.root, "css").list().size() > 0
     new File(tempFolder.root, "js").list().size() > 0
   }
+
+  def "merge streaming log files"() {
+    def logFile = tempFolder.newFile("streaming-log")
+    def logWriter = new ReportLogWriter(logFile)
+    logWriter.streaming = true
+    logWriter.start()
+    logWriter.emitted([package: "foo", name: "ASpec", start: 1])
+    logWriter.emitted([package: "foo", name: "BSpec", start: 2])
+    logWriter.emitted([package: "foo", name: "ASpec", features: [[name: "a1", start: 3]]])
+    logWriter.emitted([package: "foo", name: "BSpec", end: 4, result: "passed"])
+    logWriter.emitted([package: "foo", name: "ASpec", features: [[name: "a1", end: 5, result: "failed"]]])
+    logWriter.emitted([package: "foo", name: "ASpec", end: 6, result: "failed"])
+    logWriter.stop()
+
+    expect:
+    logFile.readLines().size() == 6
+    StreamingReportLog.isStreamingLog(logFile)
+
+    when:
+    generator.logFiles = [logFile]
+    generator.generate()
+
+    then:
+    new File(tempFolder.root, "logs/streaming-log").text == """\
+loadLogFile([{"package":"foo","name":"BSpec","start":2,"end":4,"result":"passed"}])
+
+loadLogFile([{"package":"foo","name":"ASpec","start":1,"features":[{"name":"a1","start":3,"end":5,"result":"failed"}],"end":6,"result":"failed"}])
+
+"""
+  }
 }
@@ -138,6 +138,59 @@ class DetachedMockFactorySpec extends Specification {
     detach(spy)
   }
 
+  def "mock object reflects whether the mock is attached"() {
+    given:
+    IMockMe mock = factory.Mock(IMockMe)
+    mock.foo(1)
+
+    expect:
+    new MockUtil().asMock(mock).specification == null
+
+    when:
+    attach(mock)
+
+    then:
+    new MockUtil().asMock(mock).specification.is(this)
+
+    when:
+    detach(mock)
+
+    then:
+    new MockUtil().asMock(mock).specification == null
+  }
+
+  def "interactions of a mock that was used before being attached are verified"() {
+    given:
+    IMockMe mock = factory.Mock(IMockMe)
+    mock.foo(1)
+    attach(mock)
+
+    when:
+    mock.foo(2)
+
+    then:
+    1 * mock.foo(2)
+    0 * _
+
+    cleanup:
+    detach(mock)
+  }
+
+  def "a re-attached mock uses the specification it was attached to last"() {
+    given:
+    IMockMe mock = factory.Mock(IMockMe)
+    attach(mock)
+    detach(mock)
+    attach(mock)
+    mock.foo(2) >> 42
+
+    expect:
+    mock.foo(2) == 42
+
+    cleanup:
+    detach(mock)
+  }
+
   private String getMockName(IMockMe mock) {
     new MockUtil().asMock(mock).name
   }
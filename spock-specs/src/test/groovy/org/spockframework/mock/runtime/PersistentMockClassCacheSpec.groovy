@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.mock.runtime
+
+import org.spockframework.mock.ISpockMockObject
+import org.spockframework.util.ReflectionUtil
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+@Requires({ ReflectionUtil.isClassAvailable("net.bytebuddy.ByteBuddy") })
+class PersistentMockClassCacheSpec extends Specification {
+  @Rule TemporaryFolder tempDir
+
+  PersistentMockClassCache cache
+
+  def setup() {
+    cache = new PersistentMockClassCache(tempDir.newFolder("cache"))
+  }
+
+  def "keys depend on mocked type and additional interfaces"() {
+    expect:
+    cache.computeKey(MockMe, []) == cache.computeKey(MockMe, [])
+    cache.computeKey(MockMe, []) != cache.computeKey(ArrayList, [])
+    cache.computeKey(MockMe, []) != cache.computeKey(MockMe, [Runnable])
+  }
+
+  def "pre-generated mock class can be loaded from cache"() {
+    when:
+    def generated = ProxyBasedMockFactory.INSTANCE.pregenerate(MockMe, [], cache)
+    def key = cache.computeKey(MockMe, [])
+    def mockClass = cache.load(key, MockMe.classLoader)
+
+    then:
+    generated
+    new File(cache.directory, "${key}.mock").isFile()
+    MockMe.isAssignableFrom(mockClass)
+    ISpockMockObject.isAssignableFrom(mockClass)
+  }
+
+  def "cached mock classes aren't generated again"() {
+    given:
+    ProxyBasedMockFactory.INSTANCE.pregenerate(MockMe, [], cache)
+
+    expect:
+    !ProxyBasedMockFactory.INSTANCE.pregenerate(MockMe, [], cache)
+  }
+
+  def "interfaces aren't pre-generated"() {
+    expect:
+    !ProxyBasedMockFactory.INSTANCE.pregenerate(IMockMe, [], cache)
+    cache.directory.list().length == 0
+  }
+
+  def "corrupt entries are ignored"() {
+    def key = cache.computeKey(MockMe, [])
+    new File(cache.directory, "${key}.mock").text = "garbage"
+
+    expect:
+    cache.load(key, MockMe.classLoader) == null
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.report.log
+
+import groovy.json.JsonSlurper
+
+/**
+ * An in-JVM stand-in for a report server, which records the events it receives.
+ */
+class LocalReportServer {
+  private final ServerSocket serverSocket
+  private final List<Map> events = Collections.synchronizedList([])
+  private final List<Socket> connections = Collections.synchronizedList([])
+
+  LocalReportServer(int port = 0) {
+    serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"))
+  }
+
+  static int findFreePort() {
+    def socket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))
+    try {
+      socket.localPort
+    } finally {
+      socket.close()
+    }
+  }
+
+  int getPort() {
+    serverSocket.localPort
+  }
+
+  LocalReportServer start() {
+    Thread.start("local-report-server") {
+      while (true) {
+        Socket socket
+        try {
+          socket = serverSocket.accept()
+        } catch (SocketException ignored) {
+          return // stopped
+        }
+        connections << socket
+        Thread.start("local-report-server-connection") { receive(socket) }
+      }
+    }
+    this
+  }
+
+  void dropConnections() {
+    synchronized (connections) {
+      connections*.close()
+      connections.clear()
+    }
+  }
+
+  void stop() {
+    serverSocket.close()
+    dropConnections()
+  }
+
+  List<Map> getEvents() {
+    synchronized (events) {
+      new ArrayList<>(events)
+    }
+  }
+
+  List<Map> awaitEvents(int count, long timeout = 5000) {
+    long deadline = System.currentTimeMillis() + timeout
+    while (events.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10)
+    }
+    getEvents()
+  }
+
+  private void receive(Socket socket) {
+    def slurper = new JsonSlurper()
+    def input = new DataInputStream(new BufferedInputStream(socket.inputStream))
+    try {
+      while (true) {
+        def size = readLine(input)
+        if (size == null) return
+        def message = new byte[size as int]
+        input.readFully(message)
+        events << (Map) slurper.parseText(new String(message, "utf-8"))
+      }
+    } catch (IOException ignored) {
+      // connection was closed, possibly in the middle of a message
+    } finally {
+      socket.close()
+    }
+  }
+
+  private static String readLine(DataInputStream input) {
+    def line = new StringBuilder()
+    int ch = input.read()
+    while (ch != '\n' as char) {
+      if (ch == -1) return null
+      line.append((char) ch)
+      ch = input.read()
+    }
+    line.toString()
+  }
+}
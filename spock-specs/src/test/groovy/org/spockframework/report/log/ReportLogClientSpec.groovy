@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.report.log
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.*
+
+class ReportLogClientSpec extends Specification {
+  @Rule TemporaryFolder tempDir
+
+  @AutoCleanup("stop")
+  LocalReportServer server
+
+  ReportLogClient client
+
+  def cleanup() {
+    client?.stop()
+  }
+
+  def "sends events to the report server"() {
+    server = new LocalReportServer().start()
+    client = createClient(server.port)
+    client.flushInterval = 0
+    client.start()
+
+    when:
+    3.times { client.emitted(event(it)) }
+
+    then:
+    server.awaitEvents(3) == [event(0), event(1), event(2)]
+  }
+
+  def "holds back events until the batch is flushed"() {
+    server = new LocalReportServer().start()
+    client = createClient(server.port)
+    client.flushInterval = 60000
+    client.start()
+
+    when:
+    2.times { client.emitted(event(it)) }
+    Thread.sleep(200)
+
+    then:
+    server.events.empty
+
+    when:
+    client.flush()
+
+    then:
+    server.awaitEvents(2) == [event(0), event(1)]
+  }
+
+  def "sends events that are larger than the batch size"() {
+    server = new LocalReportServer().start()
+    client = createClient(server.port)
+    client.batchSize = 16
+    client.flushInterval = 10
+    client.start()
+
+    when:
+    3.times { client.emitted(event(it, "x" * 1000)) }
+
+    then:
+    server.awaitEvents(3) == (0..2).collect { event(it, "x" * 1000) }
+  }
+
+  def "keeps events while the report server is unavailable"() {
+    def port = LocalReportServer.findFreePort()
+    client = createClient(port)
+    client.batchSize = 64
+    client.flushInterval = 10
+    client.start()
+
+    when:
+    50.times { client.emitted(event(it)) }
+    server = new LocalReportServer(port).start()
+
+    then:
+    server.awaitEvents(50) == (0..49).collect { event(it) }
+    client.droppedEvents == 0
+  }
+
+  def "reconnects after losing the connection"() {
+    server = new LocalReportServer().start()
+    client = createClient(server.port)
+    client.flushInterval = 10
+    client.start()
+
+    when:
+    5.times { client.emitted(event(it)) }
+
+    then:
+    server.awaitEvents(5).size() == 5
+
+    when:
+    server.dropConnections()
+    Thread.sleep(100)
+    (5..9).each { client.emitted(event(it)) }
+
+    then:
+    server.awaitEvents(10) == (0..9).collect { event(it) }
+  }
+
+  def "drops events once the spill file is full"() {
+    def port = LocalReportServer.findFreePort()
+    client = createClient(port)
+    client.batchSize = 64
+    client.maxSpillSize = 256
+    client.flushInterval = 10
+    client.start()
+
+    when:
+    20.times { client.emitted(event(it)) }
+
+    then:
+    client.droppedEvents > 0
+
+    when:
+    server = new LocalReportServer(port).start()
+
+    then:
+    server.awaitEvents(20 - client.droppedEvents as int).size() == 20 - client.droppedEvents
+  }
+
+  def "keeps events that weren't sent for the next client"() {
+    def port = LocalReportServer.findFreePort()
+    client = createClient(port)
+    client.batchSize = 64
+    client.flushInterval = 10
+    client.start()
+
+    when:
+    10.times { client.emitted(event(it)) }
+    client.stop()
+
+    then:
+    tempDir.root.list()*.endsWith(".kept") == [true]
+
+    when:
+    server = new LocalReportServer(port).start()
+    client = createClient(port)
+    client.flushInterval = 10
+    client.start()
+    client.emitted(event(10))
+
+    then:
+    server.awaitEvents(11) == (0..10).collect { event(it) }
+    !tempDir.root.list().any { it.endsWith(".kept") }
+  }
+
+  private ReportLogClient createClient(int port) {
+    def client = new ReportLogClient("127.0.0.1", port)
+    client.spillDir = tempDir.root
+    client
+  }
+
+  private Map event(int index, String output = "output") {
+    [package: "foo", name: "Spec$index".toString(), output: [output]]
+  }
+}
@@ -42,6 +42,9 @@ class ReportLogConfigurationSpec extends Specification {
 
       reportServerAddress == null
       reportServerPort == 4242
+      reportServerBatchSize == 65536
+      reportServerFlushInterval == 100
+      reportServerMaxSpillSize == 64 * 1024 * 1024
     }
   }
 
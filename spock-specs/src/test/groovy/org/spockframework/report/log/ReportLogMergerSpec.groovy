@@ -67,6 +67,21 @@ class ReportLogMergerSpec extends Specification {
     expect: merger.merge(list1, list2) == merged
   }
 
+  def "repeatedly merge into name-indexed list"() {
+    def list = [[name: "key1", size: 1], [name: "key1", size: 2]]
+
+    when:
+    merger.merge(list, [[name: "key2", size: 3]])
+    merger.merge(list, [[name: "key1", pet: "dog1"], [name: "key2", pet: "dog2"]])
+
+    then: "updates go to the first element with a given name"
+    list == [
+        [name: "key1", size: 1, pet: "dog1"],
+        [name: "key1", size: 2],
+        [name: "key2", size: 3, pet: "dog2"]
+    ]
+  }
+
   def "merge values"() {
     expect:
     merger.merge(0, 3) == 3
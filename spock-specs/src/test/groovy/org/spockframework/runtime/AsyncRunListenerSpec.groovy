@@ -2,6 +2,12 @@ package org.spockframework.runtime
 
 import org.spockframework.runtime.model.ErrorInfo
 import org.spockframework.runtime.model.IterationInfo
+import org.spockframework.runtime.model.SpecInfo
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import spock.util.concurrent.PollingConditions
 
 import spock.lang.Specification
 
@@ -50,6 +56,185 @@ class AsyncRunListenerSpec extends Specification {
     0 * _
   }
 
+  def "keeps delivering events after the delegate failed"() {
+    def specInfo = new SpecInfoBuilder(getClass()).build()
+
+    when:
+    asyncListener.start()
+    asyncListener.beforeSpec(specInfo)
+    asyncListener.afterSpec(specInfo)
+    asyncListener.stop()
+
+    then:
+    1 * delegate.beforeSpec(specInfo) >> { throw new RuntimeException("ouch") }
+    1 * delegate.afterSpec(specInfo)
+    asyncListener.failedEvents == 1
+    asyncListener.deliveredEvents == 2
+  }
+
+  def "drops the oldest events when full"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 2, AsyncRunListener.OverflowPolicy.DROP_OLDEST)
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    ["2", "3", "4"].each { listener.standardOut(it) }
+    worker.unblock()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "3", "4"]
+    listener.droppedEvents == 1
+    listener.maxQueueDepth == 2
+  }
+
+  def "coalesces standard stream output when full"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 2, AsyncRunListener.OverflowPolicy.COALESCE)
+    def spec = new SpecInfo()
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    listener.beforeSpec(spec)
+    ["2", "3", "4"].each { listener.standardOut(it) }
+    worker.unblock()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "spec", "234"]
+    listener.coalescedEvents == 2
+    listener.droppedEvents == 0
+  }
+
+  def "only drops standard stream output when full"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 2, AsyncRunListener.OverflowPolicy.DROP_OLDEST)
+    def spec = new SpecInfo()
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    listener.beforeSpec(spec)
+    ["2", "3"].each { listener.standardOut(it) }
+    listener.beforeSpec(spec)
+    worker.unblock()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "spec", "3", "spec"]
+    listener.droppedEvents == 1
+    listener.maxQueueDepth == 3
+  }
+
+  def "adds other events without waiting when full"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 1, AsyncRunListener.OverflowPolicy.BLOCK)
+    def spec = new SpecInfo()
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    listener.standardOut("2")
+    3.times { listener.beforeSpec(spec) }
+    def producer = Thread.start { listener.standardOut("3") }
+
+    then:
+    new PollingConditions().eventually {
+      assert producer.state == Thread.State.WAITING
+    }
+
+    when:
+    worker.unblock()
+    producer.join()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "2", "spec", "spec", "spec", "3"]
+    listener.maxQueueDepth == 4
+  }
+
+  def "drops added standard stream output if no output is pending"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 1, AsyncRunListener.OverflowPolicy.COALESCE)
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    listener.beforeSpec(new SpecInfo())
+    listener.standardOut("2")
+    worker.unblock()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "spec"]
+    listener.droppedEvents == 1
+  }
+
+  def "blocks when full"() {
+    def worker = new BlockingListener()
+    def listener = new AsyncStandardStreamsListener("my-test-thread", worker, worker, 1, AsyncRunListener.OverflowPolicy.BLOCK)
+
+    when:
+    listener.start()
+    listener.standardOut("1")
+    worker.awaitBlocked()
+    listener.standardOut("2")
+    def producer = Thread.start { listener.standardOut("3") }
+
+    then:
+    new PollingConditions().eventually {
+      assert producer.state == Thread.State.WAITING
+    }
+
+    when:
+    worker.unblock()
+    producer.join()
+    listener.stop()
+
+    then:
+    worker.output == ["1", "2", "3"]
+    listener.droppedEvents == 0
+    listener.deliveredEvents == 3
+    listener.getMaxLatency(TimeUnit.NANOSECONDS) > 0
+  }
+
+  // blocks on the first event until unblocked
+  static class BlockingListener extends AbstractRunListener implements IStandardStreamsListener {
+    final blocked = new CountDownLatch(1)
+    final unblocked = new CountDownLatch(1)
+    final output = []
+
+    void awaitBlocked() {
+      assert blocked.await(10, TimeUnit.SECONDS)
+    }
+
+    void unblock() {
+      unblocked.countDown()
+    }
+
+    @Override
+    void beforeSpec(SpecInfo spec) {
+      output << "spec"
+    }
+
+    @Override
+    void standardOut(String message) {
+      output << message
+      blocked.countDown()
+      assert unblocked.await(10, TimeUnit.SECONDS)
+    }
+
+    @Override
+    void standardErr(String message) {}
+  }
+
   private void checkThread() {
     assert Thread.currentThread().name == "my-test-thread"
   }
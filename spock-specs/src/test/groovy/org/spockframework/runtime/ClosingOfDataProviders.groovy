@@ -50,6 +50,30 @@ class ClosingOfDataProviders extends Specification {
     where:
     action << [{}, { throw new Exception() }]
   }
+
+  def "close streaming data providers"() {
+    IDataProvider provider1 = Mock()
+    IDataProvider provider2 = Mock()
+
+    when:
+    runner.closeDataProviders(provider1, provider2)
+
+    then:
+    1 * provider1.close() >> { throw new Exception() }
+    1 * provider2.close()
+    noExceptionThrown()
+  }
+
+  def "skip providers that haven't been created"() {
+    IDataProvider provider = Mock()
+
+    when:
+    runner.closeDataProviders(provider, null)
+
+    then:
+    1 * provider.close()
+    noExceptionThrown()
+  }
 }
 
 interface MyCloseable {
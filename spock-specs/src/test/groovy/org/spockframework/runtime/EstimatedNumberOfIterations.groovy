@@ -45,4 +45,26 @@ class EstimatedNumberOfIterations extends Specification {
   expect: "estimation is minimum of others"
     runner.estimateNumIterations([1, [1, 2], [1, 2, 3]] as Object[]) == 2
   }
-}
\ No newline at end of file
+
+  def "w/ streaming data provider"() {
+    IDataProvider provider = Mock()
+
+    when:
+    def estimation = runner.estimateNumIterations([provider] as Object[])
+
+    then: "estimation is the provider's estimate, size is never called"
+    1 * provider.estimatedSize() >> 5
+    0 * provider.size()
+    estimation == 5
+  }
+
+  def "w/ streaming data provider of unknown size"() {
+    expect: "estimation is minimum of others"
+    runner.estimateNumIterations([new UnknownSizeProvider(), [1, 2]] as Object[]) == 2
+  }
+
+  static class UnknownSizeProvider extends AbstractDataProvider {
+    Iterator iterator() { [].iterator() }
+    int size() { throw new UnsupportedOperationException() }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime
+
+import org.spockframework.EmbeddedSpecification
+import org.spockframework.runtime.extension.AbstractAnnotationDrivenExtension
+import org.spockframework.runtime.extension.ExtensionAnnotation
+import org.spockframework.runtime.extension.IMethodInterceptor
+import org.spockframework.runtime.extension.IMethodInvocation
+import org.spockframework.runtime.model.ErrorInfo
+import org.spockframework.runtime.model.FeatureInfo
+
+import java.lang.annotation.Retention
+import java.lang.annotation.RetentionPolicy
+
+class InvocationPlanSpec extends EmbeddedSpecification {
+  def setup() {
+    RecordInvocationsExtension.log.clear()
+    runner.addClassImport(RecordInvocations)
+  }
+
+  def "interceptors see the iteration they run for"() {
+    when:
+    runner.runSpecBody """
+@RecordInvocations
+def foo() {
+  expect: true
+  where: x << [1, 2]
+}
+    """
+
+    then:
+    RecordInvocationsExtension.log == [
+      "INITIALIZER null", "ITERATION_EXECUTION foo", "SETUP foo", "FEATURE foo", "CLEANUP foo",
+      "INITIALIZER null", "ITERATION_EXECUTION foo", "SETUP foo", "FEATURE foo", "CLEANUP foo"
+    ]
+  }
+
+  def "interceptors added while a feature runs take effect for subsequent iterations"() {
+    when:
+    runner.runSpecBody """
+@RecordInvocations(addSetupInterceptor = true)
+def foo() {
+  expect: true
+  where: x << [1, 2, 3]
+}
+    """
+
+    then:
+    RecordInvocationsExtension.log.count("added SETUP") == 2
+  }
+
+  def "interceptors added to the invoked method take effect for subsequent iterations"() {
+    when:
+    runner.runSpecBody """
+@RecordInvocations(addFeatureInterceptorAtRunTime = true)
+def foo() {
+  expect: true
+  where: x << [1, 2, 3]
+}
+    """
+
+    then:
+    RecordInvocationsExtension.log.count("added FEATURE") == 2
+  }
+
+  def "interceptors of the invoked method can't be changed by index"() {
+    when:
+    runner.runSpecBody """
+@RecordInvocations(changeFeatureInterceptorsByIndex = true)
+def foo() {
+  expect: true
+}
+    """
+
+    then:
+    RecordInvocationsExtension.log.contains("rejected UnsupportedOperationException")
+  }
+
+  def "errors refer to the iteration they occurred in"() {
+    when:
+    runner.throwFailure = false
+    runner.runSpecBody """
+@RecordInvocations(failingCleanup = true)
+def foo() {
+  expect: true
+  where: x << [1, 2]
+}
+    """
+
+    then:
+    RecordInvocationsExtension.log.findAll { it.startsWith("error") } == ["error 1", "error 2"]
+  }
+}
+
+@Retention(RetentionPolicy.RUNTIME)
+@ExtensionAnnotation(RecordInvocationsExtension)
+@interface RecordInvocations {
+  boolean addSetupInterceptor() default false
+  boolean addFeatureInterceptorAtRunTime() default false
+  boolean changeFeatureInterceptorsByIndex() default false
+  boolean failingCleanup() default false
+}
+
+class RecordInvocationsExtension extends AbstractAnnotationDrivenExtension<RecordInvocations> {
+  static final List<String> log = []
+
+  @Override
+  void visitFeatureAnnotation(RecordInvocations annotation, FeatureInfo feature) {
+    def spec = feature.spec.bottomSpec
+    def recorder = { IMethodInvocation invocation ->
+      log << "${invocation.method.kind} ${invocation.method.iteration?.parent?.name}".toString()
+      invocation.proceed()
+    } as IMethodInterceptor
+
+    spec.addInitializerInterceptor(recorder)
+    spec.addSetupInterceptor(recorder)
+    spec.addCleanupInterceptor(recorder)
+    feature.addIterationInterceptor(recorder)
+    feature.featureMethod.addInterceptor(recorder)
+
+    if (annotation.addSetupInterceptor()) {
+      feature.featureMethod.addInterceptor({ IMethodInvocation invocation ->
+        if (invocation.iteration.dataValues[0] == 1) {
+          spec.addSetupInterceptor({ IMethodInvocation inner ->
+            log << "added SETUP"
+            inner.proceed()
+          } as IMethodInterceptor)
+        }
+        invocation.proceed()
+      } as IMethodInterceptor)
+    }
+
+    if (annotation.addFeatureInterceptorAtRunTime()) {
+      feature.featureMethod.addInterceptor({ IMethodInvocation invocation ->
+        if (invocation.iteration.dataValues[0] == 1) {
+          invocation.method.addInterceptor({ IMethodInvocation inner ->
+            log << "added FEATURE"
+            inner.proceed()
+          } as IMethodInterceptor)
+        }
+        invocation.proceed()
+      } as IMethodInterceptor)
+    }
+
+    if (annotation.changeFeatureInterceptorsByIndex()) {
+      feature.featureMethod.addInterceptor({ IMethodInvocation invocation ->
+        try {
+          invocation.method.interceptors.set(0, recorder)
+        } catch (UnsupportedOperationException e) {
+          log << "rejected ${e.class.simpleName}".toString()
+        }
+        invocation.proceed()
+      } as IMethodInterceptor)
+    }
+
+    if (annotation.failingCleanup()) {
+      spec.addCleanupInterceptor({ IMethodInvocation invocation ->
+        throw new IllegalStateException("cleanup")
+      } as IMethodInterceptor)
+      spec.addListener(new AbstractRunListener() {
+        @Override
+        void error(ErrorInfo error) {
+          log << "error ${error.method.iteration.dataValues[0]}".toString()
+        }
+      })
+    }
+  }
+}
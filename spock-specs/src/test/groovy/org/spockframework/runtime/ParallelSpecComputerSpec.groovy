@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime
+
+import org.junit.runner.Request
+
+import org.spockframework.EmbeddedSpecification
+
+class ParallelSpecComputerSpec extends EmbeddedSpecification {
+  def "runs specs concurrently"() {
+    def classes = compiler.compileWithImports("""
+class Latches {
+  static latch = new java.util.concurrent.CountDownLatch(2)
+}
+
+class Foo extends Specification {
+  def foo() {
+    Latches.latch.countDown()
+    expect: Latches.latch.await(10, java.util.concurrent.TimeUnit.SECONDS)
+  }
+}
+
+class Bar extends Specification {
+  def bar() {
+    Latches.latch.countDown()
+    expect: Latches.latch.await(10, java.util.concurrent.TimeUnit.SECONDS)
+  }
+}
+    """).findAll { Specification.isAssignableFrom(it) }
+
+    when:
+    def result = runner.runRequest(Request.classes(new ParallelSpecComputer(2), *classes))
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "specs run with the run context of the thread that started the run"() {
+    def classes = compiler.compileWithImports("""
+class Foo extends Specification {
+  def foo() {
+    expect: org.spockframework.runtime.RunContext.get().name.endsWith("EmbeddedSpecRunner")
+  }
+}
+    """).findAll { Specification.isAssignableFrom(it) }
+
+    when:
+    def result = runner.runRequest(Request.classes(new ParallelSpecComputer(2), *classes))
+
+    then:
+    result.runCount == 1
+    result.failureCount == 0
+  }
+}
@@ -50,4 +50,16 @@ class RunContextSpec extends Specification {
     RunContext.get().name == "default"
     RunContext.get().spockUserHome != dir
   }
+
+  def "all threads share the same initial run context"() {
+    def context = null
+    def thread = new Thread({ context = RunContext.get() })
+
+    when:
+    thread.start()
+    thread.join()
+
+    then:
+    context.is(RunContext.get())
+  }
 }
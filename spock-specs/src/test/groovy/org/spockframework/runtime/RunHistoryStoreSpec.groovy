@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime
+
+import org.spockframework.runtime.model.FeatureInfo
+import org.spockframework.runtime.model.SpecInfo
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.Specification
+
+class RunHistoryStoreSpec extends Specification {
+  @Rule TemporaryFolder tempDir
+
+  RunHistoryStore store
+
+  def setup() {
+    store = new RunHistoryStore(new File(tempDir.root, "history/RunHistory.bin"))
+  }
+
+  def "loads nothing if nothing has been stored"() {
+    expect:
+    store.load().isEmpty()
+  }
+
+  def "loads the latest history of each spec"() {
+    store.append(history("Foo", false))
+    store.append(history("Bar", false))
+    store.append(history("Foo", true))
+
+    when:
+    def histories = store.load()
+
+    then:
+    histories.keySet() == ["Foo", "Bar"] as Set
+    histories.Foo < histories.Bar // Foo has failed last time
+  }
+
+  def "skips partly written histories and removes them with the next append"() {
+    store.append(history("Foo", false))
+    def sizeBefore = store.file.length()
+    store.file.withDataOutputStream { it.writeInt(0) } // clobber file
+    store.append(history("Foo", false))
+    store.file.append([0, 0, 1, 0, 42] as byte[])
+
+    expect:
+    store.load().keySet() == ["Foo"] as Set
+
+    when:
+    store.append(history("Bar", false))
+
+    then:
+    store.load().keySet() == ["Foo", "Bar"] as Set
+    store.file.length() == 2 * sizeBefore - 16 // header and two records of the same size
+  }
+
+  def "compacts by replacing the file, leaving no temporary files behind"() {
+    store.append(history("Foo", false))
+    store.file.append([0, 0, 1, 0, 42] as byte[])
+    store.load()
+
+    when:
+    store.append(history("Bar", false))
+
+    then:
+    store.load().keySet() == ["Foo", "Bar"] as Set
+    store.file.parentFile.list() as Set == ["RunHistory.bin", "RunHistory.bin.lock"] as Set
+  }
+
+  def "deletes the per-spec histories of earlier versions"() {
+    def legacyDir = tempDir.newFolder("RunHistory")
+    new File(legacyDir, "Foo").text = "obsolete"
+    store = new RunHistoryStore(store.file, legacyDir)
+
+    when:
+    store.append(history("Foo", false))
+
+    then:
+    !legacyDir.exists()
+  }
+
+  def "snapshot is only read once"() {
+    store.append(history("Foo", false))
+    store.loadSnapshot()
+
+    when:
+    store.append(history("Bar", false))
+
+    then:
+    store.loadSnapshot().keySet() == ["Foo"] as Set
+    store.load().keySet() == ["Foo", "Bar"] as Set
+  }
+
+  private SpecRunHistory history(String specName, boolean failed) {
+    def spec = new SpecInfo()
+    spec.name = specName
+    ["feature1", "feature2"].each { name ->
+      def feature = new FeatureInfo()
+      feature.name = name
+      spec.addFeature(feature)
+    }
+
+    def history = new SpecRunHistory(specName)
+    spec.allFeatures.each { history.collectFeatureData(it, 10, failed) }
+    history.collectSpecData(spec, 20)
+    history
+  }
+}
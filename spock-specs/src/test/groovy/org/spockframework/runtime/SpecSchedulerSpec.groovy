@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime
+
+import org.spockframework.runtime.model.SpecInfo
+import org.junit.runner.Description
+
+import spock.lang.Specification
+
+class SpecSchedulerSpec extends Specification {
+  def scheduler = new SpecScheduler([a: history("a", 8), b: history("b", 7), c: history("c", 6), d: history("d", 5), e: history("e", 4)])
+
+  def "orders specs longest first"() {
+    expect:
+    scheduler.orderLongestFirst(["e", "c", "a", "d", "b"]) == ["a", "b", "c", "d", "e"]
+  }
+
+  def "specs without history are assumed to take as long as the average spec"() {
+    expect:
+    scheduler.estimateDuration("unknown") == 6
+    scheduler.orderLongestFirst(["e", "unknown", "a"]) == ["a", "unknown", "e"]
+  }
+
+  def "splits specs into shards of about equal duration"() {
+    expect:
+    scheduler.partition(["a", "b", "c", "d", "e"], 2) == [["a", "d", "e"], ["b", "c"]]
+    scheduler.partition(["a", "b"], 3) == [["a"], ["b"], []]
+  }
+
+  def "filter only runs the specs of one shard"() {
+    def filter = scheduler.createShardFilter(["a", "b", "c", "d", "e"], 2, 1)
+    def suite = Description.createSuiteDescription("suite")
+    suite.addChild(Description.createTestDescription("a", "feature"))
+
+    expect:
+    filter.shouldRun(Description.createTestDescription("b", "feature"))
+    !filter.shouldRun(Description.createTestDescription("a", "feature"))
+    !filter.shouldRun(suite)
+    filter.describe() == "shard 2 of 2"
+  }
+
+  def "sorter keeps the order of features within a spec"() {
+    def sorter = scheduler.createSorter()
+
+    expect:
+    sorter.compare(Description.createTestDescription("a", "feature1"), Description.createTestDescription("b", "feature1")) < 0
+    sorter.compare(Description.createTestDescription("a", "feature2"), Description.createTestDescription("a", "feature1")) == 0
+  }
+
+  def "sorter orders descriptions without a class name last"() {
+    def sorter = scheduler.createSorter()
+    def noClass = Stub(Description) { getClassName() >> null }
+    def a = Description.createTestDescription("a", "feature")
+    def b = Description.createTestDescription("b", "feature")
+
+    expect:
+    [noClass, b, a].sort(false, sorter.&compare) == [a, b, noClass]
+    sorter.compare(noClass, a) > 0
+    sorter.compare(a, noClass) < 0
+    sorter.compare(noClass, noClass) == 0
+  }
+
+  private SpecRunHistory history(String specName, long duration) {
+    def spec = new SpecInfo()
+    spec.name = specName
+    def history = new SpecRunHistory(specName)
+    history.collectSpecData(spec, duration)
+    history
+  }
+}
@@ -52,6 +52,44 @@ class StandardStreamsCapturerSpec extends Specification {
     0 * _
   }
 
+  def "reports output one line at a time"() {
+    when:
+    print("some ")
+    print("message\nanother ")
+    System.out.write("message\n".bytes)
+
+    then:
+    1 * listener.standardOut("some message\n")
+    then:
+    1 * listener.standardOut("another message\n")
+    then:
+    0 * _
+  }
+
+  def "holds back incomplete lines until flushed"() {
+    when:
+    print("some message")
+
+    then:
+    0 * _
+
+    when:
+    capturer.flush()
+
+    then:
+    1 * listener.standardOut("some message")
+  }
+
+  def "flushes incomplete lines of all threads when stopped"() {
+    when:
+    def thread = Thread.start { print("some message") }
+    thread.join()
+    capturer.stop()
+
+    then:
+    1 * listener.standardOut("some message")
+  }
+
   def "supports multiple listeners"() {
     def listener2 = Mock(IStandardStreamsListener)
     capturer.addStandardStreamsListener(listener2)
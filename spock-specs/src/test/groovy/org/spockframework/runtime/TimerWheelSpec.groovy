@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import spock.lang.*
+
+class TimerWheelSpec extends Specification {
+  @AutoCleanup("stop")
+  def wheel = new TimerWheel("test-timer", 1, TimeUnit.MILLISECONDS)
+
+  def "runs expired tasks"() {
+    def task = new LatchTask()
+
+    when:
+    wheel.schedule(task, 5, TimeUnit.MILLISECONDS)
+
+    then:
+    task.expiredLatch.await(10, TimeUnit.SECONDS)
+  }
+
+  def "passes exceptions of expired tasks to the task, and keeps running other tasks"() {
+    def failing = new LatchTask(failure: new IllegalStateException("ouch"))
+    def other = new LatchTask()
+
+    when:
+    wheel.schedule(failing, 5, TimeUnit.MILLISECONDS)
+    wheel.schedule(other, 50, TimeUnit.MILLISECONDS)
+
+    then:
+    failing.failedLatch.await(10, TimeUnit.SECONDS)
+    failing.reportedFailure.is(failing.failure)
+    other.expiredLatch.await(10, TimeUnit.SECONDS)
+  }
+
+  static class LatchTask extends TimerWheel.Task {
+    final expiredLatch = new CountDownLatch(1)
+    final failedLatch = new CountDownLatch(1)
+    Throwable failure
+    volatile Throwable reportedFailure
+
+    @Override
+    protected void expired() {
+      expiredLatch.countDown()
+      if (failure != null) throw failure
+    }
+
+    @Override
+    protected void failed(Throwable failure) {
+      reportedFailure = failure
+      failedLatch.countDown()
+    }
+  }
+}
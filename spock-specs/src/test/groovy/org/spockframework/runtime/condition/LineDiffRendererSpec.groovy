@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.condition
+
+import spock.lang.*
+
+class LineDiffRendererSpec extends Specification {
+  def renderer = new LineDiffRenderer()
+
+  def "renders changed lines with some context"() {
+    def lines1 = (1..20).collect { "line $it".toString() }
+    def lines2 = lines1.collect { it == "line 10" ? "line ten" : it } + "line 21"
+
+    expect:
+    renderer.render(lines1, lines2, MyersDiff.ofLines(lines1, lines2).calculatePath()) == """\
+  ...
+  line 8
+  line 9
+- line 10
++ line ten
+  line 11
+  line 12
+  ...
+  line 19
+  line 20
++ line 21"""
+  }
+
+  def "does not elide a single line"() {
+    def lines1 = ["a", "b", "c", "d", "e", "f"]
+    def lines2 = ["x", "b", "c", "d", "e", "y"]
+
+    expect:
+    renderer.render(lines1, lines2, MyersDiff.ofLines(lines1, lines2).calculatePath()) == """\
+- a
++ x
+  b
+  c
+  d
+  e
+- f
++ y"""
+  }
+
+  def "escapes control characters"() {
+    def lines1 = ["a\tb"]
+    def lines2 = ["a b\r"]
+
+    expect:
+    renderer.render(lines1, lines2, MyersDiff.ofLines(lines1, lines2).calculatePath()) == """\
+- a\\tb
++ a b\\r"""
+  }
+
+  def "splits lines"() {
+    expect:
+    LineDiffRenderer.splitLines(text) == lines
+
+    where:
+    text       | lines
+    ""         | [""]
+    "a"        | ["a"]
+    "a\nb"     | ["a", "b"]
+    "a\n"      | ["a", ""]
+    "a\r\n\nb" | ["a\r", "", "b"]
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.runtime.condition
+
+import spock.lang.*
+
+import static org.spockframework.runtime.condition.EditOperation.Kind.*
+
+class MyersDiffSpec extends Specification {
+  @Shared Random random = new Random()
+
+  def "path from 'sitting' to 'kitten'"() {
+    def diff = MyersDiff.ofChars("sitting", "kitten")
+
+    expect:
+    diff.calculatePath() == [
+      new EditOperation(SUBSTITUTE, 1),
+      new EditOperation(SKIP, 3),
+      new EditOperation(SUBSTITUTE, 1),
+      new EditOperation(SKIP, 1),
+      new EditOperation(DELETE, 1)
+    ]
+    diff.distance == 3
+    diff.similarityInPercent == 57
+  }
+
+  def "paths between equal and empty sequences"() {
+    expect:
+    MyersDiff.ofChars(str1, str2).calculatePath() == path
+
+    where:
+    str1  | str2  | path
+    ""    | ""    | []
+    "abc" | "abc" | [new EditOperation(SKIP, 3)]
+    "abc" | ""    | [new EditOperation(DELETE, 3)]
+    ""    | "abc" | [new EditOperation(INSERT, 3)]
+  }
+
+  def "finds a shortest path"() {
+    def str1 = randomString(random.nextInt(50))
+    def str2 = randomString(random.nextInt(50))
+    def path = MyersDiff.ofChars(str1, str2).calculatePath()
+
+    expect:
+    apply(path, str1, str2) == str2
+    countInsertionsAndDeletions(path) == str1.size() + str2.size() - 2 * longestCommonSubsequence(str1, str2)
+
+    where:
+    i << (1..200)
+  }
+
+  def "finds a valid path when giving up on a shortest path"() {
+    def str1 = randomString(200)
+    def str2 = randomString(200)
+    def path = MyersDiff.ofChars(str1, str2, 3).calculatePath()
+
+    expect:
+    apply(path, str1, str2) == str2
+
+    where:
+    i << (1..20)
+  }
+
+  def "diffs lines"() {
+    def diff = MyersDiff.ofLines(["a", "b", "c", "d"], ["a", "x", "c", "d", "e"])
+
+    expect:
+    diff.calculatePath() == [
+      new EditOperation(SKIP, 1),
+      new EditOperation(SUBSTITUTE, 1),
+      new EditOperation(SKIP, 2),
+      new EditOperation(INSERT, 1)
+    ]
+    diff.distance == 2
+  }
+
+  def "diffs large strings in linear space"() {
+    def builder = new StringBuilder(randomString(1024 * 1024))
+    def str1 = builder.toString()
+    builder.insert(1000, "inserted")
+    builder.setCharAt(500 * 1024, '#' as char)
+    builder.delete(1000 * 1024, 1000 * 1024 + 7)
+    def str2 = builder.toString()
+
+    when:
+    def diff = MyersDiff.ofChars(str1, str2)
+
+    then:
+    diff.distance <= 16
+    apply(diff.calculatePath(), str1, str2) == str2
+  }
+
+  private String randomString(int length) {
+    def chars = "abc"
+    def builder = new StringBuilder(length)
+    length.times { builder.append(chars[random.nextInt(chars.size())]) }
+    builder.toString()
+  }
+
+  private String apply(List<EditOperation> path, String str1, String str2) {
+    def result = new StringBuilder()
+    int index1 = 0
+    int index2 = 0
+    for (op in path) {
+      switch (op.kind) {
+        case SKIP:
+          assert str1.substring(index1, index1 + op.length) == str2.substring(index2, index2 + op.length)
+          result.append(str1, index1, index1 + op.length)
+          index1 += op.length
+          index2 += op.length
+          break
+        case DELETE:
+          index1 += op.length
+          break
+        case INSERT:
+          result.append(str2, index2, index2 + op.length)
+          index2 += op.length
+          break
+        case SUBSTITUTE:
+          result.append(str2, index2, index2 + op.length)
+          index1 += op.length
+          index2 += op.length
+      }
+    }
+    assert index1 == str1.size()
+    result.toString()
+  }
+
+  private int countInsertionsAndDeletions(List<EditOperation> path) {
+    path.sum(0) { it.kind == SKIP ? 0 : it.kind == SUBSTITUTE ? 2 * it.length : it.length }
+  }
+
+  private int longestCommonSubsequence(String str1, String str2) {
+    int[][] lengths = new int[str1.size() + 1][str2.size() + 1]
+    for (int i = 1; i <= str1.size(); i++) {
+      for (int j = 1; j <= str2.size(); j++) {
+        lengths[i][j] = str1[i - 1] == str2[j - 1] ? lengths[i - 1][j - 1] + 1 : Math.max(lengths[i - 1][j], lengths[i][j - 1])
+      }
+    }
+    lengths[str1.size()][str2.size()]
+  }
+}
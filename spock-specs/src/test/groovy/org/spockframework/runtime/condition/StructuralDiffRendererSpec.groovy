@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.runtime.condition
+
+import spock.lang.*
+
+class StructuralDiffRendererSpec extends Specification {
+  def renderer = new StructuralDiffRenderer(0, 10)
+
+  def "renders differing indexes of lists"() {
+    expect:
+    render([1, 2, 3, 4], [1, 5, 3]) == ["[1]: 2\n[3]: 4\n", "[1]: 5\n[3]: <missing>\n"]
+  }
+
+  def "renders differing indexes of arrays"() {
+    expect:
+    render([1, 2] as int[], [1, 3] as int[]) == ["[1]: 2\n", "[1]: 3\n"]
+  }
+
+  def "renders differing and missing keys of maps"() {
+    expect:
+    render([a: 1, b: [1, 2], c: 3], [a: 1, b: [1, 3], d: 3]) == [
+      "[b][1]: 2\n[c]: 3\n[d]: <missing>\n",
+      "[b][1]: 3\n[c]: <missing>\n[d]: 3\n"
+    ]
+  }
+
+  def "renders elements only contained in one of the sets"() {
+    expect:
+    render([1, 2] as LinkedHashSet, [2, 3] as LinkedHashSet) == [
+      "{1}: <present>\n{3}: <missing>\n",
+      "{1}: <missing>\n{3}: <present>\n"
+    ]
+  }
+
+  def "renders differing properties of beans"() {
+    def actual = new Person(name: "fred", address: new Address(city: "Berlin", zip: "10115"))
+    def expected = new Person(name: "fred", address: new Address(city: "Hamburg", zip: "10115"))
+
+    expect:
+    render(actual, expected) == ["address.city: Berlin\n", "address.city: Hamburg\n"]
+  }
+
+  def "stops at cycles"() {
+    def actual = new Person(name: "fred")
+    actual.friend = actual
+    def expected = new Person(name: "wilma")
+    expected.friend = expected
+
+    expect:
+    render(actual, expected) == ["name: fred\n", "name: wilma\n"]
+  }
+
+  def "stops after the maximum number of differences"() {
+    renderer = new StructuralDiffRenderer(0, 2)
+
+    expect:
+    render([1, 2, 3, 4], [5, 6, 7, 8]) == [
+      "[0]: 1\n[1]: 2\n... (stopped after 2 differences)\n",
+      "[0]: 5\n[1]: 6\n... (stopped after 2 differences)\n"
+    ]
+  }
+
+  def "leaves values below the threshold to be rendered in full"() {
+    renderer = new StructuralDiffRenderer(5, 10)
+
+    expect:
+    renderer.render([1, 2], [1, 3]) == null
+    renderer.render([[1], [3]], [[1], [4]]) == null
+    renderer.render([[1, 2], [3, 4]], [[1, 2], [3, 5]]) != null
+  }
+
+  def "leaves values of different kinds, and values that are not structured, to be rendered in full"() {
+    expect:
+    renderer.render(actual, expected) == null
+
+    where:
+    actual     | expected
+    [1, 2]     | [a: 1]
+    [1] as Set | [1, 2]
+    "foo"      | "bar"
+    1          | [1]
+    null       | [1]
+  }
+
+  private List<String> render(actual, expected) {
+    def result = renderer.render(actual, expected)
+    [result.first(), result.second()]
+  }
+
+  static class Person {
+    String name
+    Address address
+    Person friend
+  }
+
+  static class Address {
+    String city
+    String zip
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.smoke.condition
+
+import org.spockframework.EmbeddedSpecification
+import org.spockframework.compiler.SpockTransform
+import org.spockframework.runtime.ConditionNotSatisfiedError
+import org.spockframework.runtime.SpockComparisonFailure
+import spock.lang.Unroll
+
+class DeferredConditionRecording extends EmbeddedSpecification {
+  def setup() {
+    System.setProperty(SpockTransform.DEFER_CONDITION_RECORDING, "true")
+  }
+
+  def cleanup() {
+    System.clearProperty(SpockTransform.DEFER_CONDITION_RECORDING)
+  }
+
+  def "passing conditions"() {
+    when:
+    def result = runner.runFeatureBody("""
+def x = 2
+def list = [1, 2, 3]
+
+expect:
+x == 2
+list.size() == 3
+list.contains(x)
+!list.isEmpty()
+x in list
+    """)
+
+    then:
+    result.failureCount == 0
+  }
+
+  def "failing condition is rendered with recorded values"() {
+    when:
+    runner.runFeatureBody("""
+int x = 1
+int y = 2
+
+expect:
+x + 1 == y * 2
+    """)
+
+    then:
+    SpockComparisonFailure e = thrown()
+    e.condition.rendering == """\
+x + 1 == y * 2
+| |   |  | |
+1 2   |  2 4
+      false
+""".stripIndent()
+  }
+
+  def "failing method condition is rendered with recorded values"() {
+    when:
+    runner.runFeatureBody("""
+def list = [1, 2, 3]
+
+expect:
+list.contains(4)
+    """)
+
+    then:
+    ConditionNotSatisfiedError e = thrown()
+    e.condition.rendering == """\
+list.contains(4)
+|    |
+|    false
+[1, 2, 3]
+""".stripIndent()
+  }
+
+  def "exception in condition is rendered with recorded values"() {
+    when:
+    runner.runFeatureBody("""
+def map = new HashMap<String, String>()
+
+expect:
+map.get("key").length() == 0
+    """)
+
+    then:
+    ConditionNotSatisfiedError e = thrown()
+    e.condition.rendering == """\
+map.get("key").length() == 0
+|   |          |
+[:] null       java.lang.NullPointerException: Cannot invoke method length() on null object
+""".stripIndent()
+    e.cause instanceof NullPointerException
+  }
+
+  def "exception in deferred condition is rendered with recorded values"() {
+    when:
+    runner.runFeatureBody("""
+int x = 1
+int y = 0
+
+expect:
+x / y == 1
+    """)
+
+    then:
+    ConditionNotSatisfiedError e = thrown()
+    e.cause instanceof ArithmeticException
+    e.condition.values.contains(1)
+  }
+
+  def "condition with side effects is only evaluated once"() {
+    when:
+    runner.runFeatureBody("""
+def iterator = [1, 2].iterator()
+
+expect:
+iterator.next() == 2
+    """)
+
+    then:
+    SpockComparisonFailure e = thrown()
+    e.condition.values.contains(1)
+    !e.condition.values.contains(2)
+  }
+
+  def "property access in condition is only evaluated once"() {
+    when:
+    runner.runWithImports("""
+class Flaky {
+  int calls
+  boolean isReady() { ++calls > 1 }
+}
+
+class Foo extends Specification {
+  def foo() {
+    def flaky = new Flaky()
+
+    expect:
+    flaky.ready
+  }
+}
+    """)
+
+    then:
+    ConditionNotSatisfiedError e = thrown()
+    e.condition.values.contains(false)
+    !e.condition.message
+  }
+
+  def "method call in condition is only evaluated once"() {
+    when:
+    runner.runFeatureBody("""
+def iterator = [1, 2].iterator()
+
+expect:
+iterator.size() == 3
+    """)
+
+    then:
+    SpockComparisonFailure e = thrown()
+    e.condition.values.contains(2)
+  }
+
+  @Unroll
+  def "operator dispatching to user defined #method is only evaluated once"() {
+    when:
+    runner.runWithImports("""
+class Flaky implements Comparable<Flaky> {
+  int calls
+  boolean equals(Object other) { ++calls > 1 }
+  int hashCode() { 0 }
+  int compareTo(Flaky other) { ++calls > 1 ? -1 : 0 }
+  boolean isCase(Object other) { ++calls > 1 }
+}
+
+class Foo extends Specification {
+  def foo() {
+    Flaky flaky = new Flaky()
+
+    expect:
+    $condition
+  }
+}
+    """)
+
+    then:
+    ConditionNotSatisfiedError e = thrown()
+    !e.condition.message
+
+    where:
+    method      | condition
+    "equals"    | "flaky == 1"
+    "compareTo" | "flaky < flaky"
+    "isCase"    | "1 in flaky"
+  }
+
+  def "failures of deferred conditions are collected by verifyAll"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runFeatureBody("""
+def x = 1
+
+expect:
+verifyAll {
+  x == 2
+  x == 3
+}
+    """)
+
+    then:
+    result.failures.size() == 2
+  }
+}
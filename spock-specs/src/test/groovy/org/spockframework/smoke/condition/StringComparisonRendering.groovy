@@ -144,7 +144,7 @@ null == "foo"
       assert a == b
     },
       "false",
-      "Strings too large to calculate edit distance.")
+      "differences (99% similarity) (comparing subset start: 0, end1: 25600, end2: 25600)")
   }
 
 
@@ -159,7 +159,7 @@ null == "foo"
       assert a == b
     },
       "false",
-      "Strings too large to calculate edit distance.")
+      "25600 differences (0% similarity) (comparing subset start: 0, end1: 25600, end2: 25600)")
   }
 
 
@@ -194,7 +194,7 @@ null == "foo"
       assert a == b
     },
       "false",
-      "Strings too large to calculate edit distance.")
+      "$stringLength differences (0% similarity) (comparing subset start: 0, end1: $stringLength, end2: $stringLength)")
   }
 
 
@@ -325,6 +325,40 @@ dolore magna aliquyam erat, sed diam voluptua.\
     }
   }
 
+  def "large multi-line String comparison shows differing lines"() {
+    String a = (1..5000).collect { "line $it" }.join("\n")
+    String b = (1..5000).collect { it == 10 ? "line ten" : it == 4990 ? "line four thousand nine hundred ninety" : "line $it" }.join("\n")
+
+    expect:
+    renderedConditionContains({
+      assert a == b
+    },
+      "false",
+      "2 line differences (99% similarity)",
+      "  line 9\n",
+      "- line 10\n",
+      "+ line ten\n",
+      "  line 11\n",
+      "  ...\n",
+      "- line 4990\n",
+      "+ line four thousand nine hundred ninety\n")
+  }
+
+  def "large multi-line String comparison shows added and removed lines"() {
+    String a = (1..5000).collect { "line $it" }.join("\n")
+    String b = (1..5000).findAll { it != 10 }.collect { "line $it" }.join("\n") + "\nline 5001"
+
+    expect:
+    renderedConditionContains({
+      assert a == b
+    },
+      "false",
+      "2 line differences (99% similarity)",
+      "- line 10\n",
+      "  line 5000\n",
+      "+ line 5001")
+  }
+
   private StringBuilder largeStringBuilder(CharSequence source = "aaaaaaaaaaaaaaaa", int length = ExpressionInfoValueRenderer.MAX_EDIT_DISTANCE_MEMORY / 2) {
     def sb = new StringBuilder(length + 10)
     int cslength = source.length()
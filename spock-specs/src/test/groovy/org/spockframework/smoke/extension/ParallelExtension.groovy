@@ -0,0 +1,296 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spockframework.smoke.extension
+
+import org.junit.runner.Description
+import org.junit.runner.notification.Failure
+import org.junit.runner.notification.RunListener
+
+import org.spockframework.EmbeddedSpecification
+
+class ParallelExtension extends EmbeddedSpecification {
+  List<String> events = []
+
+  def setup() {
+    runner.addClassImport(java.util.concurrent.CountDownLatch)
+    runner.addClassImport(java.util.concurrent.TimeUnit)
+    runner.listeners << new RunListener() {
+      @Override
+      void testStarted(Description description) {
+        events << "start $description.methodName".toString()
+      }
+
+      @Override
+      void testFailure(Failure failure) {
+        events << "fail $failure.description.methodName".toString()
+      }
+
+      @Override
+      void testFinished(Description description) {
+        events << "finish $description.methodName".toString()
+      }
+    }
+  }
+
+  def "features of a @Parallel spec run concurrently"() {
+    when:
+    def result = runner.runWithImports("""
+@Parallel
+class Foo extends Specification {
+  static latch = new CountDownLatch(2)
+
+  def feature1() {
+    latch.countDown()
+    expect: latch.await(10, TimeUnit.SECONDS)
+  }
+
+  def feature2() {
+    latch.countDown()
+    expect: latch.await(10, TimeUnit.SECONDS)
+  }
+}
+    """)
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "features are reported as they happen"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runWithImports("""
+@Parallel(3)
+class Foo extends Specification {
+  static latch = new CountDownLatch(1)
+
+  def feature1() {
+    latch.await(10, TimeUnit.SECONDS)
+    expect: false
+  }
+
+  def feature2() {
+    expect: true
+  }
+
+  def feature3() {
+    latch.countDown()
+    expect: false
+  }
+}
+    """)
+
+    then:
+    result.runCount == 3
+    result.failureCount == 2
+    events.findAll { it.endsWith("feature1") } == ["start feature1", "fail feature1", "finish feature1"]
+    events.findAll { it.endsWith("feature2") } == ["start feature2", "finish feature2"]
+    events.findAll { it.endsWith("feature3") } == ["start feature3", "fail feature3", "finish feature3"]
+    events.indexOf("start feature1") < events.indexOf("finish feature3")
+  }
+
+  def "can be enabled for all specs in the runner configuration"() {
+    runner.configurationScript = {
+      runner {
+        parallelFeatures true
+        parallelThreads 2
+      }
+    }
+
+    when:
+    def result = runner.runWithImports("""
+class Foo extends Specification {
+  static latch = new CountDownLatch(2)
+
+  def feature1() {
+    latch.countDown()
+    expect: latch.await(10, TimeUnit.SECONDS)
+  }
+
+  def feature2() {
+    latch.countDown()
+    expect: latch.await(10, TimeUnit.SECONDS)
+  }
+}
+    """)
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "features of a @Stepwise spec are run sequentially"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runWithImports("""
+@Parallel
+@Stepwise
+class Foo extends Specification {
+  static threads = []
+
+  def step1() {
+    threads << Thread.currentThread()
+    expect: true
+  }
+
+  def step2() {
+    threads << Thread.currentThread()
+    expect: threads.unique().size() == 1
+  }
+}
+    """)
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "features of a spec with @Shared fields are run sequentially"() {
+    when:
+    def result = runner.runWithImports("""
+@Parallel
+class Foo extends Specification {
+  @Shared count = 0
+
+  def feature1() {
+    count++
+    expect: count == 1
+  }
+
+  def feature2() {
+    count++
+    expect: count == 2
+  }
+}
+    """)
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "a failing setupSpec prevents all features from running"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runWithImports("""
+@Parallel
+class Foo extends Specification {
+  def setupSpec() { throw new RuntimeException() }
+
+  def feature1() { expect: true }
+  def feature2() { expect: true }
+}
+    """)
+
+    then:
+    result.runCount == 0
+    result.failureCount == 1
+  }
+
+  def "iterations of a @Parallel data-driven feature run concurrently"() {
+    when:
+    def result = runner.runWithImports("""
+class Foo extends Specification {
+  static latch = new CountDownLatch(3)
+
+  @Parallel(3)
+  def feature() {
+    latch.countDown()
+    expect: latch.await(10, TimeUnit.SECONDS)
+    where: x << [1, 2, 3]
+  }
+}
+    """)
+
+    then:
+    result.runCount == 1
+    result.failureCount == 0
+  }
+
+  def "unrolled iterations are named and reported in data provider order"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runWithImports("""
+class Foo extends Specification {
+  @Unroll
+  @Parallel(4)
+  def "iteration #x"() {
+    Thread.sleep(delay)
+    expect: x != 2
+
+    where:
+    x << [1, 2, 3, 4]
+    delay << [300, 200, 100, 0]
+  }
+}
+    """)
+
+    then:
+    result.runCount == 4
+    result.failureCount == 1
+    events == ["start iteration 1", "finish iteration 1",
+               "start iteration 2", "fail iteration 2", "finish iteration 2",
+               "start iteration 3", "finish iteration 3",
+               "start iteration 4", "finish iteration 4"]
+  }
+
+  def "runs all rows of large data providers"() {
+    when:
+    def result = runner.runWithImports("""
+class Foo extends Specification {
+  static count = new java.util.concurrent.atomic.AtomicInteger()
+
+  @Parallel(4)
+  def feature() {
+    count.incrementAndGet()
+    expect: true
+    where: x << (1..1000)
+  }
+
+  def "all iterations have run"() {
+    expect: count.get() == 1000
+  }
+}
+    """)
+
+    then:
+    result.runCount == 2
+    result.failureCount == 0
+  }
+
+  def "reports data providers without data"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runWithImports("""
+class Foo extends Specification {
+  @Parallel
+  def feature() {
+    expect: true
+    where: x << []
+  }
+}
+    """)
+
+    then:
+    result.runCount == 1
+    result.failureCount == 1
+    result.failures[0].message == "Data provider has no data"
+  }
+}
@@ -1,7 +1,14 @@
 package org.spockframework.smoke.extension
 
 import org.spockframework.EmbeddedSpecification
-import org.spockframework.runtime.ConditionNotSatisfiedError
+import org.spockframework.runtime.*
+import org.spockframework.runtime.extension.*
+import org.spockframework.runtime.model.*
+
+import java.lang.annotation.Retention
+import java.lang.annotation.RetentionPolicy
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
 
 class RetryFeatureExtensionSpec extends EmbeddedSpecification {
 
@@ -325,4 +332,191 @@ class Foo extends Specification {
     result.ignoreCount == 0
   }
 
+  def "@Retry can back off exponentially"() {
+    when:
+    long start = System.currentTimeMillis()
+    def result = runner.runWithImports("""
+import spock.lang.Retry
+
+class Foo extends Specification {
+  @Retry(delay = 50, delayMultiplier = 2)
+  def bar() {
+    expect: false
+  }
+}
+    """)
+
+    then:
+    System.currentTimeMillis() - start >= 350
+    result.runCount == 1
+    result.failureCount == 4
+  }
+
+  def "@Retry delay can be bounded"() {
+    when:
+    long start = System.currentTimeMillis()
+    def result = runner.runWithImports("""
+import spock.lang.Retry
+
+class Foo extends Specification {
+  @Retry(delay = 50, delayMultiplier = 10, maxDelay = 60)
+  def bar() {
+    expect: false
+  }
+}
+    """)
+
+    then:
+    System.currentTimeMillis() - start < 1000
+    result.runCount == 1
+    result.failureCount == 4
+  }
+
+  def "@Retry rejects a delayMultiplier below 1"() {
+    given:
+    runner.throwFailure = true
+
+    when:
+    runner.runWithImports("""
+import spock.lang.Retry
+
+class Foo extends Specification {
+  @Retry(delay = 50, delayMultiplier = 0.5)
+  def bar() {
+    expect: true
+  }
+}
+    """)
+
+    then:
+    thrown(InvalidSpecException)
+  }
+
+  def "@Retry mode FEATURE doesn't add interceptors on every attempt"() {
+    when:
+    def result = runner.runWithImports("""
+import spock.lang.Retry
+
+class Foo extends Specification {
+  @Shared int attempts = 0
+  @Shared Set interceptorCounts = []
+
+  @Retry(mode = Retry.Mode.FEATURE)
+  def bar() {
+    setup:
+    if (i == 0) attempts++
+    interceptorCounts << specificationContext.currentFeature.featureMethod.interceptors.size()
+
+    expect:
+    interceptorCounts.size() == 1
+    i != 1 || attempts == 3
+
+    where:
+    i << [0, 1, 2]
+  }
+}
+    """)
+
+    then:
+    result.runCount == 1
+    result.failureCount == 0
+  }
+
+  def "@Retry mode FEATURE collects failures before interceptors of other extensions see them"() {
+    given:
+    RecordFailuresExtension.failures.clear()
+
+    when:
+    def result = runner.runWithImports("""
+import spock.lang.Retry
+import org.spockframework.smoke.extension.RecordFailures
+
+class Foo extends Specification {
+  @Shared int attempts = 0
+
+  @Retry(mode = Retry.Mode.FEATURE)
+  @RecordFailures
+  def bar() {
+    setup:
+    if (i == 0) attempts++
+
+    expect:
+    i != 1 || attempts == 2
+
+    where:
+    i << [0, 1]
+  }
+}
+    """)
+
+    then:
+    result.runCount == 1
+    result.failureCount == 0
+    RecordFailuresExtension.failures.empty
+  }
+
+  def "@Retry reports attempts to retry listeners"() {
+    given:
+    RetryRecordingExtension.attempts.clear()
+    runner.extensionClasses << RetryRecordingExtension
+
+    when:
+    runner.runWithImports("""
+import spock.lang.Retry
+
+class Foo extends Specification {
+  @Shared int attempts = 0
+
+  @Retry
+  def bar() {
+    expect:
+    ++attempts == 3
+  }
+}
+    """)
+
+    then:
+    def attempts = RetryRecordingExtension.attempts
+    attempts.attempt == [1, 2, 3]
+    attempts.successful == [false, false, true]
+    attempts*.willRetry() == [true, true, false]
+    attempts.every { it.feature.name == "bar" && it.getDuration(TimeUnit.NANOSECONDS) > 0 }
+    attempts[0].failure instanceof ConditionNotSatisfiedError
+  }
+
+  static class RetryRecordingExtension extends AbstractGlobalExtension {
+    static final List<RetryAttemptInfo> attempts = new CopyOnWriteArrayList<>()
+
+    @Override
+    void visitSpec(SpecInfo spec) {
+      spec.addListener(new RetryRecordingListener())
+    }
+  }
+
+  static class RetryRecordingListener extends AbstractRunListener implements IRetryListener {
+    @Override
+    void afterRetryAttempt(RetryAttemptInfo attempt) {
+      RetryRecordingExtension.attempts << attempt
+    }
+  }
+}
+
+@Retention(RetentionPolicy.RUNTIME)
+@ExtensionAnnotation(RecordFailuresExtension)
+@interface RecordFailures {}
+
+class RecordFailuresExtension extends AbstractAnnotationDrivenExtension<RecordFailures> {
+  static final List<Throwable> failures = new CopyOnWriteArrayList<>()
+
+  @Override
+  void visitFeatureAnnotation(RecordFailures annotation, FeatureInfo feature) {
+    feature.featureMethod.addInterceptor({ IMethodInvocation invocation ->
+      try {
+        invocation.proceed()
+      } catch (Throwable t) {
+        failures << t
+        throw t
+      }
+    } as IMethodInterceptor)
+  }
 }
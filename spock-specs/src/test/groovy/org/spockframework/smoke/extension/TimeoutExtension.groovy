@@ -155,12 +155,64 @@ class TimeoutExtension extends EmbeddedSpecification {
   }
 
   @Timeout(1)
-  def "watcher thread has descriptive name"() {
+  def "timer thread has descriptive name"() {
     def group = Thread.currentThread().threadGroup
     def threads = new Thread[group.activeCount()]
     group.enumerate(threads)
 
     expect:
-    threads.find { it.name == "[spock.lang.Timeout] Watcher for method 'watcher thread has descriptive name'" }
+    threads.find { it?.name?.startsWith("[spock.lang.Timeout] Timer for run context") }
+    !threads.find { it?.name?.startsWith("[spock.lang.Timeout] Watcher") }
   }
-}
\ No newline at end of file
+
+  def "timed out method doesn't leave thread interrupted"() {
+    runner.throwFailure = false
+
+    when:
+    def result = runner.runSpecBody """
+      @Timeout(value = 100, unit = MILLISECONDS)
+      def foo() {
+        setup:
+        try {
+          Thread.sleep 1000
+        } catch (InterruptedException ignored) {
+          Thread.currentThread().interrupt()
+        }
+      }
+
+      def bar() {
+        expect:
+        !Thread.currentThread().isInterrupted()
+      }
+    """
+
+    then:
+    result.runCount == 2
+    result.failureCount == 1
+    result.failures[0].exception instanceof SpockTimeoutError
+  }
+
+  def "timeouts of consecutive invocations on the same thread are independent"() {
+    when:
+    def result = runner.runSpecBody """
+      @Timeout(1)
+      def setup() {}
+
+      @Timeout(value = 500, unit = MILLISECONDS)
+      def foo() {
+        setup:
+        Thread.sleep 300
+
+        expect:
+        true
+
+        where:
+        i << (1..5)
+      }
+    """
+
+    then:
+    result.runCount == 5
+    result.failureCount == 0
+  }
+}
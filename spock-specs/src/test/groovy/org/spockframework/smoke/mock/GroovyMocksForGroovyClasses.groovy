@@ -18,6 +18,7 @@ import org.spockframework.mock.FinalJavaPerson
 import org.spockframework.mock.FinalMethodsJavaPerson
 
 import spock.lang.Specification
+import spock.util.mop.ConfineMetaClassChanges
 
 class GroovyMocksForGroovyClasses extends Specification {
   def person = GroovyMock(Person)
@@ -234,6 +235,34 @@ class GroovyMocksForGroovyClasses extends Specification {
     1 * person.setMetaClass(null)
   }
 
+  def "repeated calls of overloaded methods are resolved by argument types"() {
+    def calculator = GroovyMock(Calculator)
+
+    when:
+    def results = [calculator.add(1, 2), calculator.add("a", "b"), calculator.add(1, 2), calculator.add("a", "b")]
+
+    then:
+    2 * calculator.add(1, 2)
+    2 * calculator.add("a", "b")
+    results == [0, null, 0, null]
+  }
+
+  @ConfineMetaClassChanges(Counter)
+  def "calls are resolved again after methods have been added to an ExpandoMetaClass"() {
+    Counter.metaClass.reset = { -> }
+    def counter = GroovyMock(Counter)
+
+    when:
+    def before = counter.count()
+    Counter.metaClass.count = { -> 42 }
+    def after = counter.count()
+
+    then:
+    2 * counter.count()
+    before == 0
+    after == null
+  }
+
   static class Person {
     void sing(String song) { throw new UnsupportedOperationException("sing") }
     String getName() { throw new UnsupportedOperationException("getName") }
@@ -251,8 +280,13 @@ class GroovyMocksForGroovyClasses extends Specification {
     final String getName() { throw new UnsupportedOperationException("getName") }
     final void setName(String name) { throw new UnsupportedOperationException("setName") }
   }
-}
-
-
 
+  static class Calculator {
+    int add(int a, int b) { throw new UnsupportedOperationException("add") }
+    String add(String a, String b) { throw new UnsupportedOperationException("add") }
+  }
 
+  static class Counter {
+    int count() { throw new UnsupportedOperationException("count") }
+  }
+}
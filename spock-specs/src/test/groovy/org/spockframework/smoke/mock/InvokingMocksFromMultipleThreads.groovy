@@ -100,4 +100,44 @@ class InvokingMocksFromMultipleThreads extends Specification {
       100.times { count -> numThreads * list.add(count) }
     }
   }
+
+  def "exhausted interactions are passed over when invoked from multiple threads"() {
+    def results = Collections.synchronizedList([])
+
+    when:
+    numThreads.times {
+      Thread.start {
+        try {
+          results << list.add(1)
+        } finally {
+          latch.countDown()
+        }
+      }
+    }
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    1 * list.add(1) >> true
+    _ * list.add(1) >> false
+    results.count(true) == 1
+    results.count(false) == numThreads - 1
+  }
+
+  def "responses of one interaction can be generated concurrently"() {
+    def responding = new CountDownLatch(2)
+    def results = Collections.synchronizedList([])
+
+    list.get(0) >> {
+      responding.countDown()
+      responding.await(10, TimeUnit.SECONDS)
+    }
+
+    when:
+    def threads = (1..2).collect { Thread.start { results << list.get(0) } }
+    threads*.join()
+
+    then:
+    results == [true, true]
+  }
 }
+
@@ -69,4 +69,21 @@ class OverlappingInteractions extends Specification {
     then:
     0 * list.add(1)
   }
+
+  def "interactions with specific and wildcard targets and method names are matched in registration order"() {
+    def list = Mock(List)
+    def other = Mock(List)
+
+    when:
+    def results = [list.size(), list.size(), list.size(), other.size(), list.get(0), other.get(0)]
+
+    then:
+    1 * _.size() >> 1
+    1 * list.size() >> 2
+    _ * list./s.*/() >> 3
+    1 * list._ >> "list"
+    _ * _._ >> "any"
+    results == [1, 2, 3, "any", "list", "any"]
+  }
 }
+
@@ -136,6 +136,24 @@ then:
     !e.message.contains("1 * list2.add(2)")
   }
 
+  def "samples unmatched invocations once there are too many to retain"() {
+    when:
+    runner.runFeatureBody("""
+def list = Mock(List)
+
+when:
+1500.times { list.remove(it) }
+
+then:
+1 * list.add(_)
+    """)
+
+    then:
+    TooFewInvocationsError e = thrown()
+    e.message.contains("Unmatched invocations (ordered by similarity, sampled 1000 of 1500):")
+    e.message.readLines().findAll { it.contains("list.remove(") }.size() == 1000
+  }
+
   def "does not show invocations in outer scopes"() {
     when:
     runner.runFeatureBody("""
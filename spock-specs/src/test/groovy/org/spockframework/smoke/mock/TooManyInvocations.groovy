@@ -49,4 +49,36 @@ Matching invocations (ordered by last occurrence):
 1 * list.add(1)
     """.trim()
   }
+
+  def "shows the most recent matched invocations once there are too many to retain"() {
+    when:
+    runner.runFeatureBody("""
+def list = Mock(List)
+
+when:
+1001.times { list.add(it) }
+
+then:
+1000 * list.add(_)
+    """)
+
+    then:
+    TooManyInvocationsError e = thrown()
+    e.acceptedCount == 1001
+    e.acceptedInvocations.size() == 1000
+    e.acceptedInvocations[0].arguments == [1]
+    e.message.contains("Matching invocations (ordered by last occurrence, showing the last 1000 of 1001):")
+    e.message.contains("1 * list.add(1000)   <-- this triggered the error")
+    !e.message.contains("list.add(0)\n")
+  }
+
+  def "counts invocations beyond those retained"() {
+    def list = Mock(List)
+
+    when:
+    5000.times { list.size() }
+
+    then:
+    (4000..5000) * list.size()
+  }
 }
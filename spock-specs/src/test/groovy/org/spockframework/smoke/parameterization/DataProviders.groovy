@@ -17,6 +17,7 @@
 package org.spockframework.smoke.parameterization
 
 import org.spockframework.EmbeddedSpecification
+import org.spockframework.runtime.AbstractDataProvider
 import org.spockframework.runtime.SpockExecutionException
 
 /**
@@ -158,6 +159,99 @@ y << []
     b << [0, 1]
   }
 
+  def "streaming data provider"() {
+    expect: x < 3
+    where: x << new CountingProvider(3)
+  }
+
+  def "streaming data providers are consumed one value at a time"() {
+    runner.addClassImport(CountingProvider)
+
+    when:
+    def result = runner.runSpecBody """
+static provider = new CountingProvider(3)
+
+def feature() {
+  expect: provider.produced == x + 1
+  where: x << provider
+}
+    """
+
+    then:
+    result.runCount == 1
+    result.failureCount == 0
+  }
+
+  def "streaming data providers are closed if the feature fails"() {
+    runner.throwFailure = false
+    runner.addClassImport(CountingProvider)
+
+    when:
+    def result = runner.runSpecBody """
+static provider = new CountingProvider(10)
+
+def feature() {
+  expect: false
+  where: x << provider
+}
+
+def "provider is closed"() {
+  expect: provider.closed
+}
+    """
+
+    then:
+    result.runCount == 2
+    result.failureCount == 1
+  }
+
+  def "streaming data providers are closed if another data provider fails"() {
+    runner.throwFailure = false
+    runner.addClassImport(CountingProvider)
+
+    when:
+    def result = runner.runSpecBody """
+static provider = new CountingProvider(10)
+
+def feature() {
+  expect: true
+  where:
+  x << provider
+  y << { throw new RuntimeException() }()
+}
+
+def "provider is closed"() {
+  expect: provider.closed
+}
+    """
+
+    then:
+    result.runCount == 2
+    result.failureCount == 1
+  }
+
+  static class CountingProvider extends AbstractDataProvider<Integer> {
+    final int limit
+    int produced
+    boolean closed
+
+    CountingProvider(int limit) {
+      this.limit = limit
+    }
+
+    Iterator<Integer> iterator() {
+      [hasNext: { produced < limit }, next: { produced++ }] as Iterator<Integer>
+    }
+
+    int size() {
+      throw new UnsupportedOperationException("must not be called")
+    }
+
+    void close() {
+      closed = true
+    }
+  }
+
   static class MyIterator implements Iterator {
     def elems = [1, 2, 3]
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spockframework.util
+
+import java.nio.charset.Charset
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+class LineBufferedPrintStreamSpec extends Specification {
+  def lines = []
+
+  def stream = new LineBufferedPrintStream() {
+    @Override
+    protected void printed(String line) {
+      lines << line
+    }
+  }
+
+  def "coalesces writes into lines"() {
+    when:
+    stream.print("foo")
+    stream.write(" bar".bytes)
+    stream.print(42)
+    stream.println()
+    stream.println("baz")
+
+    then:
+    lines == ["foo bar42\n", "baz\n"]
+  }
+
+  def "splits writes into lines"() {
+    when:
+    stream.write("foo\nbar\nbaz".bytes)
+
+    then:
+    lines == ["foo\n", "bar\n"]
+
+    when:
+    stream.flushLines()
+
+    then:
+    lines == ["foo\n", "bar\n", "baz"]
+  }
+
+  def "notifies format methods as a single line"() {
+    when:
+    stream.format("%s %d%n", "foo", 42)
+
+    then:
+    lines == ["foo 42" + System.lineSeparator()]
+  }
+
+  @Requires({ Charset.defaultCharset().name() == "UTF-8" })
+  def "decodes multi-byte characters split across writes"() {
+    def bytes = "ä€\n".getBytes("UTF-8")
+
+    when:
+    bytes.each { stream.write(it) }
+
+    then:
+    lines == ["ä€\n"]
+  }
+
+  def "splits overly long lines"() {
+    when:
+    stream.print("x" * (LineBufferedPrintStream.MAX_LINE_LENGTH + 1))
+    stream.flushLines()
+
+    then:
+    lines*.size() == [LineBufferedPrintStream.MAX_LINE_LENGTH, 1]
+  }
+
+  def "keeps lines of different threads apart"() {
+    when:
+    stream.print("foo")
+    Thread.start { stream.print("bar") }.join()
+    stream.println()
+    stream.flushAllLines()
+
+    then:
+    lines == ["foo\n", "bar"]
+  }
+}
@@ -19,6 +19,9 @@ import org.spockframework.runtime.SpockTimeoutError
 
 import spock.lang.*
 
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
 class BlockingVariablesSpec extends Specification {
   def "passing example 1 - variable is read after it is written"() {
     def vars = new BlockingVariables()
@@ -113,4 +116,76 @@ class BlockingVariablesSpec extends Specification {
     vars.foo == 1
     vars.bar == 2
   }
+
+  def "wait for all of several variables"() {
+    def vars = new BlockingVariables(5)
+
+    when:
+    def future = vars.allOf("foo", "bar", "baz")
+    Thread.start {
+      vars.baz = 3
+      vars.foo = 1
+    }
+    Thread.start {
+      vars.bar = 2
+    }
+
+    then:
+    future.get(5, TimeUnit.SECONDS) == [foo: 1, bar: 2, baz: 3]
+  }
+
+  def "wait for any of several variables"() {
+    def vars = new BlockingVariables(5)
+
+    when:
+    def future = vars.anyOf("foo", "bar")
+    Thread.start {
+      vars.bar = 2
+    }
+
+    then:
+    future.get(5, TimeUnit.SECONDS) == [bar: 2]
+  }
+
+  def "waiting for several variables reports the variables that haven't been set in time"() {
+    def vars = new BlockingVariables()
+
+    when:
+    def future = vars.allOf(0.1, "foo", "bar", "baz")
+    vars.bar = 2
+    future.get(5, TimeUnit.SECONDS)
+
+    then:
+    ExecutionException e = thrown()
+    e.cause instanceof VariablesTimeoutError
+    e.cause.unresolvedVariables == ["foo", "baz"] as Set
+  }
+
+  def "variables can have their own timeout"() {
+    def vars = new BlockingVariables(10)
+    vars.setVariableTimeout("bar", 0.1)
+
+    when:
+    def future = vars.allOf("foo", "bar")
+    future.get(5, TimeUnit.SECONDS)
+
+    then:
+    ExecutionException e = thrown()
+    e.cause.message.startsWith("Variable 'bar' was not set within its timeout of 0.10 seconds")
+
+    when:
+    vars.bar
+
+    then:
+    VariablesTimeoutError e2 = thrown()
+    e2.unresolvedVariables == ["bar"] as Set
+  }
+
+  @Requires({ jvm.java8Compatible })
+  def "waits return a CompletableFuture on Java 8 and higher"() {
+    def vars = new BlockingVariables()
+
+    expect:
+    vars.allOf("foo").getClass().name == "java.util.concurrent.CompletableFuture"
+  }
 }
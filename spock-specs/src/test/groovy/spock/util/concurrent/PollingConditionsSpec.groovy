@@ -15,10 +15,13 @@
 package spock.util.concurrent
 
 import org.spockframework.runtime.ConditionNotSatisfiedError
+import org.spockframework.runtime.QuietConditionFailure
 import org.spockframework.runtime.SpockTimeoutError
 import spock.lang.Issue
 import spock.lang.Specification
 
+import java.util.concurrent.TimeUnit
+
 class PollingConditionsSpec extends Specification {
   PollingConditions conditions = new PollingConditions()
 
@@ -133,5 +136,79 @@ class PollingConditionsSpec extends Specification {
       }
     }
   }
-}
 
+  def "can run against a virtual clock"() {
+    def clock = new VirtualClock()
+    def conditions = new PollingConditions(clock: clock, timeout: 3600, delay: 60)
+    def attempts = 0
+    def realStart = System.nanoTime()
+
+    when:
+    conditions.eventually {
+      attempts++
+      assert clock.nanoTime() >= TimeUnit.MINUTES.toNanos(30)
+    }
+
+    then:
+    attempts == 31
+    clock.nanoTime() == TimeUnit.MINUTES.toNanos(30)
+    System.nanoTime() - realStart < TimeUnit.SECONDS.toNanos(10)
+  }
+
+  def "times out on a virtual clock without waiting for real"() {
+    def clock = new VirtualClock()
+    def conditions = new PollingConditions(clock: clock, timeout: 3600, delay: 10)
+
+    when:
+    conditions.eventually {
+      num == 42
+    }
+
+    then:
+    SpockTimeoutError e = thrown()
+    e.message == "Condition not satisfied after 3600.00 seconds and 361 attempts"
+    clock.nanoTime() == TimeUnit.HOURS.toNanos(1)
+  }
+
+  def "evaluates conditions whenever the signal is raised"() {
+    def signal = new ChangeSignal()
+    def conditions = new PollingConditions(timeout: 10, signal: signal)
+    def attempts = 0
+    Thread.start {
+      3.times {
+        sleep(50)
+        num++
+        signal.signal()
+      }
+    }
+
+    when:
+    conditions.eventually {
+      attempts++
+      assert num == 3
+    }
+
+    then:
+    attempts <= 4
+  }
+
+  def "reports only the failure of the last attempt in detail"() {
+    def failures = []
+
+    when:
+    conditions.within(0.3) {
+      try {
+        assert num == 42
+      } catch (AssertionError e) {
+        failures << e
+        throw e
+      }
+    }
+
+    then:
+    thrown(SpockTimeoutError)
+    failures.size() > 1
+    failures[0..-2].every { it instanceof QuietConditionFailure }
+    failures[-1] instanceof ConditionNotSatisfiedError
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spock.util.data
+
+import org.spockframework.runtime.SpockExecutionException
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import spock.lang.*
+
+class ExternalDataTableSpec extends Specification {
+  @Rule TemporaryFolder tempDir
+
+  def "feeds a data-driven feature from a class path resource"(int a, int b, int c) {
+    expect:
+    Math.max(a, b) == c
+
+    where:
+    [a, b, c] << ExternalDataTable.csv("spock/util/data/max.csv").columns("a", "b", "c").types(int, int, int)
+  }
+
+  def "reads CSV files with quoted fields"() {
+    def file = write("table.csv", 'name,comment\r\nfred,"says ""hi"", then\nleaves"\n\nwilma,\n')
+
+    expect:
+    ExternalDataTable.csv(file).toList() == [["fred", 'says "hi", then\nleaves'], ["wilma", ""]]
+  }
+
+  def "reads TSV files"() {
+    def file = write("table.tsv", "name\tage\nfred\t30\n")
+
+    expect:
+    ExternalDataTable.tsv(file).toList() == [["fred", "30"]]
+  }
+
+  def "reads JSON lines files"() {
+    def file = write("table.jsonl", '{"name": "fred", "age": 30}\n{"age": 25, "name": "wilma", "pet": "dino"}\n{"name": "barney"}\n')
+
+    expect:
+    ExternalDataTable.jsonLines(file).toList() == [["fred", 30], ["wilma", 25], ["barney", null]]
+  }
+
+  def "selects and reorders columns"() {
+    def file = write("table.csv", "a,b,c\n1,2,3\n")
+
+    expect:
+    ExternalDataTable.csv(file).columns("c", "a").toList() == [["3", "1"]]
+  }
+
+  def "converts values to the column types"() {
+    def file = write("table.csv", "i,d,flag,letter,unit,text\n42, 1.5 ,TRUE,x,SECONDS,\n")
+
+    when:
+    def row = ExternalDataTable.csv(file)
+        .columns("i", "d", "flag", "letter", "unit", "text")
+        .types(int, BigDecimal, boolean, char, java.util.concurrent.TimeUnit, String)
+        .toList()[0]
+
+    then:
+    row == [42, 1.5, true, "x" as char, java.util.concurrent.TimeUnit.SECONDS, ""]
+    row[1] instanceof BigDecimal
+  }
+
+  def "converts empty values to null unless the column type is String"() {
+    def file = write("table.csv", "i,s\n,\n")
+
+    expect:
+    ExternalDataTable.csv(file).type("i", Integer).type("s", String).toList() == [[null, ""]]
+  }
+
+  def "reports values that can't be converted"() {
+    def file = write("table.csv", "i\n1\nten\n")
+
+    when:
+    ExternalDataTable.csv(file).type("i", int).toList()
+
+    then:
+    SpockExecutionException e = thrown()
+    e.message == "Cannot convert value 'ten' of column 'i' to int (data table '$file.path', line 3)"
+  }
+
+  def "reports rows with the wrong number of fields"() {
+    def file = write("table.csv", "a,b\n1,2\n3\n")
+
+    when:
+    ExternalDataTable.csv(file).toList()
+
+    then:
+    SpockExecutionException e = thrown()
+    e.message == "Data table '$file.path' has 1 fields on line 3, but 2 columns"
+  }
+
+  def "reports unknown columns"() {
+    def file = write("table.csv", "a,b\n1,2\n")
+
+    when:
+    ExternalDataTable.csv(file).columns("c").toList()
+
+    then:
+    SpockExecutionException e = thrown()
+    e.message == "Data table '$file.path' has no column 'c' (available columns: [a, b])"
+  }
+
+  def "reports missing files"() {
+    when:
+    ExternalDataTable.csv("no/such/table.csv").iterator()
+
+    then:
+    SpockExecutionException e = thrown()
+    e.message == "Data table 'no/such/table.csv' not found (neither as file nor as class path resource)"
+  }
+
+  def "reads rows lazily"() {
+    def file = write("table.csv", "n\n1\n2\nthree\n")
+
+    when:
+    def iterator = ExternalDataTable.csv(file).type("n", int).iterator()
+
+    then:
+    iterator.next() == [1]
+    iterator.next() == [2]
+
+    when:
+    iterator.next()
+
+    then:
+    thrown(SpockExecutionException)
+  }
+
+  def "does not know its size"() {
+    expect:
+    ExternalDataTable.csv("spock/util/data/max.csv").estimatedSize() == -1
+  }
+
+  private File write(String name, String text) {
+    def file = tempDir.newFile(name)
+    file.setText(text, "UTF-8")
+    file
+  }
+}